@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.inject.Inject;
 import commons.Event;
+import commons.EventBatch;
 import client.utils.ServerUtils;
 
 import java.io.File;
@@ -77,7 +78,7 @@ public class EventStorageManager {
     }
 
     /**
-     * Retrieves corresponding events from the ids in the file
+     * Retrieves corresponding events from the ids in the file, with a single request
      * if the id no longer exists in the DB, then it is deleted
      * @return - The list of events
      */
@@ -89,18 +90,19 @@ public class EventStorageManager {
             e.printStackTrace();
         }
 
-        List<Event> events = new ArrayList<>();
-        if (eventIds != null) {
-            for (Long eventId : eventIds) {
-                Event event = serverUtils.getEventById(eventId);
-                if (event != null) {
-                    events.add(event);
-                } else {
-                    deleteEventFromFile(eventId);
-                }
+        if (eventIds == null || eventIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        EventBatch batch = serverUtils.getEvents(eventIds);
+        if (!batch.getMissing().isEmpty()) {
+            eventIds.removeAll(batch.getMissing());
+            try {
+                saveEventIdsToFile(eventIds);
+            } catch (IOException e) {
+                e.printStackTrace();
             }
         }
-        return events;
+        return new ArrayList<>(batch.getEvents());
     }
 
     /**
@@ -16,6 +16,7 @@
 package client;
 
 import client.scenes.*;
+import client.utils.ExchangeRateCache;
 import com.google.inject.Binder;
 import com.google.inject.Module;
 import com.google.inject.Scopes;
@@ -39,5 +40,6 @@ public class MyModule implements Module {
         binder.bind(InvitationCtrl.class).in(Scopes.SINGLETON);
         binder.bind(OpenDebtsCtrl.class).in(Scopes.SINGLETON);
         binder.bind(StatisticsCtrl.class).in(Scopes.SINGLETON);
+        binder.bind(ExchangeRateCache.class).in(Scopes.SINGLETON);
     }
 }
\ No newline at end of file
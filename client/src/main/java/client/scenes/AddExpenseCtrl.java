@@ -1,13 +1,14 @@
 package client.scenes;
 
 import client.utils.ConfigUtils;
+import client.utils.ExchangeRateCache;
 import client.utils.ServerUtils;
 import com.google.inject.Inject;
 import commons.Event;
+import commons.EventChange;
 import commons.Expense;
 import commons.Participant;
 import commons.Tag;
-import jakarta.ws.rs.WebApplicationException;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -27,6 +28,7 @@ import javafx.util.StringConverter;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller class for the Add Expense view.
@@ -34,6 +36,7 @@ import java.util.*;
 public class AddExpenseCtrl {
     private final ServerUtils server;
     private final SplittyMainCtrl mainCtrl;
+    private final ExchangeRateCache rateCache;
     private Event event;
     private Stage primaryStage;
 
@@ -77,11 +80,14 @@ public class AddExpenseCtrl {
      *
      * @param server   The ServerUtils instance.
      * @param mainCtrl The MainCtrl instance.
+     * @param rateCache The exchange rates amounts are converted with.
      */
     @Inject
-    public AddExpenseCtrl(ServerUtils server, SplittyMainCtrl mainCtrl) {
+    public AddExpenseCtrl(ServerUtils server, SplittyMainCtrl mainCtrl,
+                          ExchangeRateCache rateCache) {
         this.mainCtrl = mainCtrl;
         this.server = server;
+        this.rateCache = rateCache;
     }
 
     /**
@@ -114,7 +120,7 @@ public class AddExpenseCtrl {
         selectedBeneficiaries = editableExpense.getBeneficiaries();
         String expenseName = editableExpense.getExpenseName();
         whatFor.setText(expenseName);
-        howMuch.setText(String.valueOf(editableExpense.getAmount()));
+        howMuch.setText(editableExpense.getAmount().format());
         Date date = editableExpense.getDate();
         datePicker.setValue(date.toInstant()
                 .atZone(ZoneId.systemDefault())
@@ -303,45 +309,46 @@ public class AddExpenseCtrl {
      * Handles the action when the "Add" button is clicked.
      */
     public void add() {
-        try {
-            Expense e = getExpense();
-            if (this.editableExpense != null) {
-                e.setExpenseId(editableExpense.getExpenseId());
-                server.updateExpense(e.getExpenseId(), e);
-                event = server.getEventById(event.getEventId());
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Expense edited");
-                alert.setHeaderText(null);
-                alert.setContentText( "The expense: " + e + " is edited successfully in event "
-                + event.getTitle());
-                alert.showAndWait();
-                event = server.updateEvent(event.getEventId(), event);
-            } else {
-                Expense e2 = server.addExpense(e);
-                event.addExpense(e2);
-                event = server.updateEvent(event.getEventId(), event);
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Expense edited");
-                alert.setHeaderText(null);
-                alert.setContentText( "The expense: " + e2 + " is added successfully to event "
-                + event.getTitle());
+        Expense e = getExpense();
+        boolean editing = this.editableExpense != null;
+        CompletableFuture<EventChange> saved;
+        if (editing) {
+            e.setExpenseId(editableExpense.getExpenseId());
+            e.setVersion(editableExpense.getVersion());
+            saved = server.updateExpenseAsync(event.getEventId(), e.getExpenseId(), e);
+        } else {
+            saved = server.addExpenseAsync(event.getEventId(), e);
+        }
+        addExpenseButton.setDisable(true);
+        // the event belongs to the FX thread, the change is only applied there
+        saved.whenCompleteAsync((change, error) -> {
+            addExpenseButton.setDisable(false);
+            if (error != null) {
+                var alert = new Alert(Alert.AlertType.ERROR);
+                alert.initModality(Modality.APPLICATION_MODAL);
+                alert.setContentText(ServerUtils.cause(error).getMessage());
                 alert.showAndWait();
+                return;
             }
-
-        } catch (WebApplicationException e) {
-            var alert = new Alert(Alert.AlertType.ERROR);
-            alert.initModality(Modality.APPLICATION_MODAL);
-            alert.setContentText(e.getMessage());
+            change.applyTo(event);
+            String message = editing
+                    ? "The expense: " + e + " is edited successfully in event "
+                            + event.getTitle()
+                    : "The expense: " + change.getExpense()
+                            + " is added successfully to event " + event.getTitle();
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle("Expense edited");
+            alert.setHeaderText(null);
+            alert.setContentText(message);
             alert.showAndWait();
-            return;
-        }
-        clearFields();
-        editableExpense = null;
-        if (!primaryStage.isMaximized()) {
-            primaryStage.setMinHeight(666);
-            primaryStage.setHeight(666);
-        }
-        mainCtrl.showOverview(event, "-1");
+            clearFields();
+            editableExpense = null;
+            if (!primaryStage.isMaximized()) {
+                primaryStage.setMinHeight(666);
+                primaryStage.setHeight(666);
+            }
+            mainCtrl.showOverview(event, "-1");
+        }, ServerUtils.FX_THREAD);
     }
 
     /**
@@ -390,24 +397,8 @@ public class AddExpenseCtrl {
      * @return the converted amount
      */
     public double convertAmount(Date date, double amount){
-        int month = date.getMonth() + 1;
-        int day = date.getDate();
-        String d = date.getYear()+ 1900 + "-";
-
-        if(month < 10) {
-            d = d + 0 + month + "-";
-        }else {
-            d = d + month + "-";
-        }
-
-        if(day < 10) {
-            d = d + 0 + day;
-        }else {
-            d = d + day;
-        }
         String currencyValue = ConfigUtils.currency;
-        Map<String, Double> rate = server.getExchangeRate(d, currencyValue, ConfigUtils.currency);
-        return amount*rate.get(currencyValue);
+        return amount * rateCache.getRate(date, currencyValue, ConfigUtils.currency);
     }
 
     /**
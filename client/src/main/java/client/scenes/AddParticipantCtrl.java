@@ -3,8 +3,8 @@ package client.scenes;
 import client.utils.ServerUtils;
 import com.google.inject.Inject;
 import commons.Event;
+import commons.EventChange;
 import commons.Participant;
-import jakarta.ws.rs.WebApplicationException;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
@@ -14,6 +14,7 @@ import javafx.scene.text.Text;
 import javafx.stage.Modality;
 
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -167,49 +168,61 @@ public class AddParticipantCtrl {
 
     @FXML
     private void addParticipant() {
-        try {
-            if (currentP != null) {
-                Participant editedParticipant = getParticipant();
-                currentP = server.updateParticipant(currentP.getUserId(), editedParticipant);
-                currentEvent = server.getEventById(currentEvent.getEventId());
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Participant edited");
+        CompletableFuture<EventChange> saved;
+        boolean editing = currentP != null;
+        if (editing) {
+            Participant editedParticipant = getParticipant();
+            if (editedParticipant == null) {
+                return;
+            }
+            editedParticipant.setVersion(currentP.getVersion());
+            long eventId = currentEvent.getEventId();
+            saved = server.updateParticipantAsync(currentP.getUserId(), editedParticipant)
+                    .thenApply(p -> EventChange.participantChanged(eventId, p, false));
+        } else {
+            if(!isValidEmail(email.getText())) {
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error");
                 alert.setHeaderText(null);
-                alert.setContentText("Participant " + editedParticipant.getName() +
-                        " is edited successfully in event " + currentEvent.getTitle());
+                alert.setContentText("Please add a valid email");
                 alert.showAndWait();
-                currentEvent = server.updateEvent(currentEvent.getEventId(), currentEvent);
-            } else {
-                if(!isValidEmail(email.getText())) {
-                    Alert alert = new Alert(Alert.AlertType.ERROR);
-                    alert.setTitle("Error");
-                    alert.setHeaderText(null);
-                    alert.setContentText("Please add a valid email");
-                    alert.showAndWait();
-                }
-                else{
-                Participant p = getParticipant();
-                Participant savedParticipant = server.addParticipant(p);
-                currentEvent.addParticipant(savedParticipant);
-                currentEvent = server.updateEvent(currentEvent.getEventId(), currentEvent);
-                Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
-                alert.setTitle("Participant added");
-                alert.setHeaderText(null);
-                alert.setContentText("Participant " + savedParticipant.getName() +
-                        " is successfully added to event " + currentEvent.getTitle());
+                clearFields();
+                mainCtrl.showOverview(currentEvent, "-1");
+                return;
+            }
+            Participant p = getParticipant();
+            if (p == null) {
+                return;
+            }
+            saved = server.addParticipantAsync(currentEvent.getEventId(), p);
+        }
+        addParticipantButton.setDisable(true);
+        saved.whenCompleteAsync((change, error) -> {
+            addParticipantButton.setDisable(false);
+            if (error != null) {
+                var alert = new Alert(Alert.AlertType.ERROR);
+                alert.initModality(Modality.APPLICATION_MODAL);
+                alert.setContentText(ServerUtils.cause(error).getMessage());
                 alert.showAndWait();
-                }
+                return;
             }
-
-        } catch (WebApplicationException e) {
-            var alert = new Alert(Alert.AlertType.ERROR);
-            alert.initModality(Modality.APPLICATION_MODAL);
-            alert.setContentText(e.getMessage());
+            if (editing) {
+                currentP = change.getParticipant();
+            }
+            change.applyTo(currentEvent);
+            String message = editing
+                    ? "Participant " + change.getParticipant().getName()
+                            + " is edited successfully in event " + currentEvent.getTitle()
+                    : "Participant " + change.getParticipant().getName()
+                            + " is successfully added to event " + currentEvent.getTitle();
+            Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+            alert.setTitle(editing ? "Participant edited" : "Participant added");
+            alert.setHeaderText(null);
+            alert.setContentText(message);
             alert.showAndWait();
-            return;
-        }
-        clearFields();
-        mainCtrl.showOverview(currentEvent, "-1");
+            clearFields();
+            mainCtrl.showOverview(currentEvent, "-1");
+        }, ServerUtils.FX_THREAD);
     }
     /**
      * Getter for the current event
@@ -1,11 +1,14 @@
 package client.scenes;
 
+import client.utils.EventSubscriptions;
 import client.utils.ServerUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.inject.Inject;
 import commons.Event;
+import commons.EventChange;
+import commons.EventSummary;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -26,11 +29,18 @@ public class AdminCtrl {
 
     private ServerUtils server;
     private SplittyMainCtrl mainCtrl;
+    private EventSubscriptions eventSubscriptions;
     private boolean eventListenersRegistered = false;
     private final FileChooser fileChooser = new FileChooser();
     @FXML
-    private ListView<Event> listView;
-    private ObservableList<Event> events;
+    private ListView<EventSummary> listView;
+    private ObservableList<EventSummary> events;
+    /**
+     * the number of summaries loaded per request
+     */
+    private static final int PAGE_SIZE = 100;
+    private String sort = "creationDate";
+    private int loads;
     private ResourceBundle bundle;
 
     @FXML
@@ -57,6 +67,8 @@ public class AdminCtrl {
     public AdminCtrl(ServerUtils server, SplittyMainCtrl mainCtrl) {
         this.mainCtrl = mainCtrl;
         this.server = server;
+        this.eventSubscriptions = new EventSubscriptions(server, change ->
+                Platform.runLater(new HandleEventChange(change)));
     }
 
     /**
@@ -107,9 +119,6 @@ public class AdminCtrl {
         server.registerForUpdates("/topic/events/delete", Event.class, deletedEvent -> {
             Platform.runLater(new HandleDeletingEvent(deletedEvent));
         });
-        server.registerForUpdates("/topic/events/update", Event.class, updatedEvent -> {
-            Platform.runLater(new HandleUpdatingEvent(updatedEvent));
-        });
     }
 
     class HandleCreatingEvent implements Runnable {
@@ -119,22 +128,53 @@ public class AdminCtrl {
         }
         @Override
         public void run() {
-            events.add(createdEvent);
+            putSummary(EventSummary.of(createdEvent));
             listView.setItems(events);
+            eventSubscriptions.subscribe(createdEvent.getEventId());
         }
     }
 
-    class HandleUpdatingEvent implements Runnable {
-        private final Event updatedEvent;
-        public HandleUpdatingEvent(Event event) {
-            this.updatedEvent = event;
+    class HandleEventChange implements Runnable {
+        private final EventChange change;
+        public HandleEventChange(EventChange change) {
+            this.change = change;
         }
         @Override
         public void run() {
-            events.removeIf(e -> e.getEventId() == updatedEvent.getEventId());
-            events.add(updatedEvent);
-            listView.setItems(events);
+            if (change.getType() == EventChange.Type.EVENT_DELETED) {
+                return;
+            }
+            server.getEventSummaryAsync(change.getEventId())
+                    .whenCompleteAsync((summary, error) -> {
+                        if (summary != null && contains(summary.getEventId())) {
+                            putSummary(summary);
+                        }
+                    }, ServerUtils.FX_THREAD);
+        }
+    }
+
+    /**
+     * Replaces the summary of an event in the list with a newer one,
+     * or adds it at the end if the event isn't listed yet
+     * @param summary - the new summary
+     */
+    private void putSummary(EventSummary summary) {
+        for (int i = 0; i < events.size(); i++) {
+            if (events.get(i).getEventId() == summary.getEventId()) {
+                events.set(i, summary);
+                return;
+            }
         }
+        events.add(summary);
+    }
+
+    /**
+     * Checks if an event is listed
+     * @param eventId - the id of the event
+     * @return - true if the list has a summary of the event
+     */
+    private boolean contains(long eventId) {
+        return events.stream().anyMatch(e -> e.getEventId() == eventId);
     }
 
     class HandleDeletingEvent implements Runnable {
@@ -144,12 +184,13 @@ public class AdminCtrl {
         }
         @Override
         public void run() {
-            events.removeIf(e -> e.equals(deletedEvent));
+            events.removeIf(e -> e.getEventId() == deletedEvent.getEventId());
             listView.setItems(events);
+            eventSubscriptions.unsubscribe(deletedEvent.getEventId());
         }
     }
 
-    private class CustomListCell extends ListCell<Event> {
+    private class CustomListCell extends ListCell<EventSummary> {
         @FXML
         private final Button deleteButton;
         @FXML
@@ -158,7 +199,7 @@ public class AdminCtrl {
         public CustomListCell(ServerUtils server, SplittyMainCtrl mainCtrl) {
             deleteButton = new Button("Delete");
             deleteButton.setOnAction(event -> {
-                Event item = getItem();
+                EventSummary item = getItem();
                 if (item != null) {
                     listView.getItems().remove(item);
                     server.deleteEvent(item.getEventId());
@@ -171,16 +212,16 @@ public class AdminCtrl {
             });
             goToButton = new Button("->");
             goToButton.setOnAction(event -> {
-                Event item = getItem();
+                EventSummary item = getItem();
                 if (item != null) {
-                    mainCtrl.showOverview(item, "admin");
+                    mainCtrl.showOverview(server.getEventById(item.getEventId()), "admin");
                 }
             });
         }
 
 
         @Override
-        protected void updateItem(Event item, boolean empty) {
+        protected void updateItem(EventSummary item, boolean empty) {
             super.updateItem(item, empty);
             if (empty || item == null) {
                 setText(null);
@@ -214,18 +255,54 @@ public class AdminCtrl {
 
 
     /**
-     * displays all events from the server in the list view
+     * displays the summaries of all events from the server in the list view,
+     * the participants and expenses are only loaded when an event is opened.
+     * The server sorts the events and sends them a page at a time,
+     * every page is shown as soon as it arrives.
      */
     public void displayAllEvents() {
-        List<Event> serverEvents = server.getEvents();
-        events = FXCollections.observableArrayList(serverEvents);
+        int load = ++loads;
+        events = FXCollections.observableArrayList();
         listView.setItems(events);
+        loadPage(load, null);
+    }
+
+    /**
+     * Loads a page of summaries and then the pages after it,
+     * stopping once another load was started
+     * @param load - the number of the load the page belongs to
+     * @param after - the cursor of the page, or null for the first page
+     */
+    private void loadPage(int load, String after) {
+        server.getEventSummaryPageAsync(sort, after, PAGE_SIZE)
+                .whenCompleteAsync((page, error) -> {
+                    if (load != loads) {
+                        return;
+                    }
+                    if (error != null) {
+                        var alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setContentText(ServerUtils.cause(error).getMessage());
+                        alert.showAndWait();
+                        return;
+                    }
+                    for (EventSummary summary : page.getSummaries()) {
+                        putSummary(summary);
+                        eventSubscriptions.subscribe(summary.getEventId());
+                    }
+                    if (page.getNext() != null) {
+                        loadPage(load, page.getNext());
+                    } else {
+                        eventSubscriptions.subscribeToIds(events.stream()
+                                .map(EventSummary::getEventId).toList());
+                    }
+                }, ServerUtils.FX_THREAD);
     }
 
     /**
      * Goes back to the start screen
      */
     public void back(){
+        eventSubscriptions.clear();
         mainCtrl.showStartScreen();
     }
 
@@ -233,7 +310,7 @@ public class AdminCtrl {
      * getter for the list of events
      * @return the list of events
      */
-    public ListView<Event> getListView() {
+    public ListView<EventSummary> getListView() {
         return listView;
     }
 
@@ -241,7 +318,7 @@ public class AdminCtrl {
      * setter for the list of events
      * @param listView the new list
      */
-    public void setListView(ListView<Event> listView) {
+    public void setListView(ListView<EventSummary> listView) {
         this.listView = listView;
     }
 
@@ -249,24 +326,24 @@ public class AdminCtrl {
      * sorts the events by title
      */
     public void sortByTitle() {
-        events.sort(Comparator.comparing(Event::getTitle));
-        listView.setItems(events);
+        sort = "title";
+        displayAllEvents();
     }
 
     /**
      *sorts the events by creation date
      */
     public void sortByCreationDate() {
-        events.sort(Comparator.comparing(Event::getCreationDate));
-        listView.setItems(events);
+        sort = "creationDate";
+        displayAllEvents();
     }
 
     /**
      * sort the events by last activity
      */
     public void sortByLastActivity() {
-        events.sort(Comparator.comparing(Event::getLastActivity));
-        listView.setItems(events);
+        sort = "lastActivity";
+        displayAllEvents();
     }
 
     /**
@@ -368,13 +445,7 @@ public class AdminCtrl {
 
         // Process the user's response
         if (result.isPresent() && result.get() == yesButton) {
-            for (Event event : eventList) {
-                if (server.getEventById(event.getEventId()) == null) {
-                    server.addEvent(event);
-                } else {
-                    server.updateEvent(event.getEventId(), event);
-                }
-            }
+            server.importEvents(eventList);
             Alert alert2 = new Alert(Alert.AlertType.CONFIRMATION);
             alert2.setTitle("Events imported");
             alert2.setHeaderText(null);
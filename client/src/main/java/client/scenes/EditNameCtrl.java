@@ -10,6 +10,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.text.Text;
 
+import java.util.Map;
 import java.util.ResourceBundle;
 
 public class EditNameCtrl {
@@ -87,7 +88,7 @@ public class EditNameCtrl {
         String newName = eventNameText.getText();
         event.setTitle(newName);
         long eventId = event.getEventId();
-        server.updateEvent(eventId, event);
+        server.patchEvent(eventId, Map.of("title", newName));
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Title edited");
         alert.setHeaderText(null);
@@ -107,10 +107,8 @@ public class InvitationCtrl {
                     );
                     Participant newParticipant = new Participant(address.split("@")[0], address,
                             null, null);
-                    server.addParticipant(newParticipant);
-                    event.addParticipant(newParticipant);
+                    server.addParticipant(event.getEventId(), newParticipant).applyTo(event);
                     server.sendEmail(request);
-                    event = server.updateEvent(event.getEventId(), event);
                     if (i == addresses.length - 1) {
                         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
                         alert.setTitle("Invitation sent");
@@ -14,6 +14,7 @@ import javafx.scene.text.Text;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static javafx.scene.input.KeyCode.ESCAPE;
 
@@ -56,8 +57,7 @@ public class OpenDebtsCtrl {
      */
     public void initialize(Event event) {
         this.event = event;
-        debtList = event.generateDebts();
-        debtList.removeIf(Debt::isSettled);
+        debtList = new ArrayList<>(server.getDebts(event.getEventId()));
 
         bundle = ResourceBundle.getBundle("messages", mainCtrl.getCurrentLocale());
         updateUI();
@@ -91,12 +91,14 @@ public class OpenDebtsCtrl {
      * Initializes the TitledPanes in the accordion container. Each TitledPane shows an open debt.
      */
     public void initTitledPanes() {
-        debtList = event.generateDebts();
         // Dynamically create TitledPanes and their content based on debtList
         for (Debt debt : debtList) {
+            if (debt.isSettled()) {
+                continue;
+            }
             TitledPane titledPane = new TitledPane();
             titledPane.setText(debt.getUser1().getName() + " " + bundle.getString("owes")
-                    + debt.getAmount() + " " + ConfigUtils.getCurrency() + " "
+                    + debt.getAmount().format() + " " + ConfigUtils.getCurrency() + " "
                     + bundle.getString("to") + debt.getUser2().getName());
             AnchorPane contentPane = new AnchorPane();
             ToggleButton mailButton = new ToggleButton();
@@ -165,6 +167,8 @@ public class OpenDebtsCtrl {
      * @param titledPane
      */
     public void markReceived(Debt debt, TitledPane titledPane) {
+        // fetched while the user answers the confirmation
+        CompletableFuture<List<Tag>> tags = server.getTagsAsync(event);
         Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
         alert.setTitle("Confirmation");
         alert.setHeaderText("Mark Debt as Received");
@@ -190,19 +194,37 @@ public class OpenDebtsCtrl {
             ArrayList<Participant> beneficiaries = new ArrayList<>();
             beneficiaries.add(debt.getUser2());
             Date date = java.sql.Date.valueOf(LocalDate.now());
-            List<Tag> debtTags = server.getTags(event);
-            Tag debtTag = debtTags.get(0);
-            for (Tag tag : debtTags) {
-                if ("debt settlement".equals(tag.getName())) {
-                    debtTag = tag;
+            Money amount = Money.ofCents(debt.getAmount().getCents(), ConfigUtils.getCurrency());
+            tags.thenCompose(debtTags -> {
+                Tag debtTag = debtTags.get(0);
+                for (Tag tag : debtTags) {
+                    if ("debt settlement".equals(tag.getName())) {
+                        debtTag = tag;
+                    }
                 }
-            }
-            Expense debtSettlement = new Expense(debt.getUser1(),
-                    debt.getAmount(), ConfigUtils.getCurrency(),
-                    beneficiaries, "Debt Settlement", date, debtTag);
-            event.addExpense(server.addExpense(debtSettlement));
-            event = server.updateEvent(event.getEventId(), event);
+                Expense debtSettlement = new Expense(debt.getUser1(), amount,
+                        beneficiaries, "Debt Settlement", date, debtTag);
+                return server.addExpenseAsync(event.getEventId(), debtSettlement);
+            }).whenCompleteAsync((change, error) -> {
+                if (error != null) {
+                    Alert failed = new Alert(Alert.AlertType.ERROR);
+                    failed.setContentText(ServerUtils.cause(error).getMessage());
+                    failed.showAndWait();
+                    return;
+                }
+                change.applyTo(event);
+                showMarkedReceived(debt);
+            }, ServerUtils.FX_THREAD);
+            return;
         }
+        showMarkedReceived(debt);
+    }
+
+    /**
+     * Tells the user a debt was marked as received
+     * @param debt - the debt
+     */
+    private void showMarkedReceived(Debt debt) {
         Alert alert2 = new Alert(Alert.AlertType.CONFIRMATION);
         alert2.setTitle("Debt marked received");
         alert2.setHeaderText(null);
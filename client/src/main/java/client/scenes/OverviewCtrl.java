@@ -2,6 +2,9 @@ package client.scenes;
 
 import client.EventStorageManager;
 import client.utils.ConfigUtils;
+import client.utils.EventChangeTracker;
+import client.utils.EventSubscriptions;
+import client.utils.ExchangeRateCache;
 import client.utils.ServerUtils;
 import com.google.inject.Inject;
 import commons.*;
@@ -35,6 +38,9 @@ public class OverviewCtrl {
     private Event event;
     private ResourceBundle bundle;
     private String previousPage;
+    private final EventChangeTracker changeTracker;
+    private final EventSubscriptions eventSubscriptions;
+    private final ExchangeRateCache rateCache;
 
     @FXML
     public Button manageTagsButton;
@@ -79,12 +85,32 @@ public class OverviewCtrl {
      * @param server   The ServerUtils instance
      * @param mainCtrl controller of the main page
      * @param storageManager - manager for the event-user file
+     * @param rateCache - the exchange rates used to show the expenses in another currency
      */
     @Inject
     public OverviewCtrl(ServerUtils server, SplittyMainCtrl mainCtrl,
-                        EventStorageManager storageManager) {
+                        EventStorageManager storageManager, ExchangeRateCache rateCache) {
         this.server = server;
         this.mainCtrl = mainCtrl;
+        this.rateCache = rateCache;
+        this.changeTracker = new EventChangeTracker(server);
+        this.eventSubscriptions = new EventSubscriptions(server, change ->
+                Platform.runLater(() -> applyChange(change)));
+    }
+
+    /**
+     * Applies a change sent by the server to the open event and refreshes the page
+     * @param change - the change
+     */
+    private void applyChange(EventChange change) {
+        if (event == null || change.getEventId() != event.getEventId()) {
+            return;
+        }
+        if (change.getType() == EventChange.Type.EVENT_DELETED) {
+            returnToStart();
+            return;
+        }
+        initialize(changeTracker.apply(event, change), previousPage);
     }
 
     /**
@@ -101,6 +127,8 @@ public class OverviewCtrl {
         updateUI();
         initializeParticipants();
         updateExpenses(ConfigUtils.getCurrency());
+        // so switching to another currency doesn't have to wait for the server
+        rateCache.prefetchAsync(event.getExpenses(), ExchangeRateCache.CURRENCIES);
         showAllExpenses();
 
         assert event != null;
@@ -110,20 +138,8 @@ public class OverviewCtrl {
         editNameButton.setStyle("-fx-background-color: transparent; " +
                 "-fx-border-color: transparent;");
 
-        server.registerForEventUpdates(event, e ->{
-            if (e.getEventId() == event.getEventId()) {
-                System.out.println("an update has occurred:\n" + e);
-                try {
-                    Platform.runLater(()->{
-                        initialize(e, "-1");
-                    });
-                    System.out.println("the page was refreshed");
-                } catch (Exception ex) {
-                    System.out.println("an exception has occurred trying to refresh");
-                    ex.printStackTrace();
-                }
-            }
-        });
+        changeTracker.track(List.of(event));
+        eventSubscriptions.subscribeTo(List.of(event));
 
     }
 
@@ -170,7 +186,7 @@ public class OverviewCtrl {
     private void deleteParticipant(Participant participant) {
         event.removeParticipant(participant);
         try {
-            event = server.updateEvent(event.getEventId(), event);
+            server.removeParticipant(event.getEventId(), participant.getUserId());
             server.deleteParticipant(participant.getUserId());
             Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
             alert.setTitle("Participant deleted");
@@ -365,6 +381,7 @@ public class OverviewCtrl {
      * Return to the Start Screen Page or the admin page
      */
     public void returnToStart() {
+        eventSubscriptions.clear();
         if ("admin".equals(previousPage)) {
             mainCtrl.showAdmin();
         } else {
@@ -447,8 +464,7 @@ public class OverviewCtrl {
                     getExpensesListView().getItems().remove(expense);
                     currentE.removeExpense(expense);
                     try {
-                        server.updateEvent(currentE.getEventId(), currentE);
-                        server.deleteExpense(expense.getExpenseId());
+                        server.deleteExpense(currentE.getEventId(), expense.getExpenseId());
                         Alert alert2 = new Alert(Alert.AlertType.CONFIRMATION);
                         alert2.setTitle("Expense deleted");
                         alert2.setHeaderText(null);
@@ -486,7 +502,7 @@ public class OverviewCtrl {
                         .atZone(ZoneId.systemDefault()).toLocalDate();
                 String formattedDate = localDate.format(DateTimeFormatter.ofPattern("dd/MM"));
                 String payor = expense.getPayor().getName();
-                String amount = String.format("%.2f", expense.getAmount());
+                String amount = expense.getAmount().format();
                 String currency = expense.getCurrency();
                 StringBuilder beneficiaries = new StringBuilder();
                 if (expense.getBeneficiaries() != null && expense.getBeneficiaries().size() != 0) {
@@ -560,54 +576,14 @@ public class OverviewCtrl {
      */
     public void updateExpenses(String newCurrency) {
         if (event != null) {
+            // one request for the rates that aren't cached yet, none when all of them are
+            rateCache.prefetch(event.getExpenses(), List.of(newCurrency));
             for (Expense expense : event.getExpenses()) {
-                double rate = getRate(expense.getDate(),
+                double rate = rateCache.getRate(expense.getDate(),
                         expense.getCurrency(), newCurrency);
-                double newAmount = expense.getAmount() * rate;
-                updateDebts(event.generateDebts(), rate);
-                expense.setAmount(newAmount);
-                expense.setCurrency(newCurrency);
-
+                expense.setAmount(expense.getAmount().convert(rate, newCurrency));
             }
             updateExpensesListView(event.getExpenses());
         }
     }
-
-    /**
-     * converts the debts list to the chosen currency
-     */
-    private void updateDebts(List<Debt> debts, double rate) {
-        for(Debt debt : debts){
-            debt.setAmount(debt.getAmount()*rate);
-        }
-    }
-
-    /**
-     * Converts the amount of money into the
-     * preferred currency from the config file
-     * according to the exchange rate from that day
-     * @param date the date of the exchange rate
-     * @param oldCurrency the currency of the amount
-     * @param newCurrency the currency to convert to
-     * @return the converted amount
-     */
-    public double getRate(Date date, String oldCurrency, String newCurrency){
-        int month = date.getMonth() + 1;
-        int day = date.getDate();
-        String d = date.getYear()+ 1900 + "-";
-
-        if(month < 10) {
-            d = d + 0 + month + "-";
-        }else {
-            d = d + month + "-";
-        }
-
-        if(day < 10) {
-            d = d + 0 + day;
-        }else {
-            d = d + day;
-        }
-        Map<String, Double> rate = server.getExchangeRate(d, oldCurrency, newCurrency);
-        return rate.get(oldCurrency);
-    }
 }
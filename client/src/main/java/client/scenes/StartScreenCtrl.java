@@ -1,9 +1,12 @@
 package client.scenes;
 
 import client.EventStorageManager;
+import client.utils.EventChangeTracker;
+import client.utils.EventSubscriptions;
 import client.utils.ServerUtils;
 import com.google.inject.Inject;
 import commons.Event;
+import commons.EventChange;
 import commons.Tag;
 import jakarta.ws.rs.WebApplicationException;
 import javafx.application.Platform;
@@ -53,6 +56,8 @@ public class StartScreenCtrl {
 
     private EventStorageManager storageManager;
     private boolean eventListenersRegistered = false;
+    private final EventChangeTracker changeTracker;
+    private final EventSubscriptions eventSubscriptions;
 
     /**
      * Constructor
@@ -67,6 +72,9 @@ public class StartScreenCtrl {
         this.mainCtrl = mainCtrl;
         this.server = server;
         this.storageManager = storageManager;
+        this.changeTracker = new EventChangeTracker(server);
+        this.eventSubscriptions = new EventSubscriptions(server, change ->
+                Platform.runLater(new HandleEventChange(change)));
     }
 
     static class Cell extends ListCell<Event> {
@@ -157,6 +165,10 @@ public class StartScreenCtrl {
             data = FXCollections.observableList(events);
         }
         list.setItems(data);
+        if (data != null) {
+            changeTracker.track(data);
+            eventSubscriptions.subscribeTo(data);
+        }
         if (!eventListenersRegistered) {
             registerEventListeners();
             eventListenersRegistered = true;
@@ -168,44 +180,28 @@ public class StartScreenCtrl {
      * This method is only called once during initialization to avoid duplicate registrations.
      */
     private void registerEventListeners() {
-        server.registerForUpdates("/topic/events/create", Event.class, createdEvent -> {
-            Platform.runLater(new HandleCreatingEvent(createdEvent));
-        });
         server.registerForUpdates("/topic/events/deleteLocally", Event.class, deletedEvent -> {
             Platform.runLater(new HandleDeletingEventLocally(deletedEvent));
         });
-        server.registerForUpdates("/topic/events/delete", Event.class, deletedEvent -> {
-            System.out.println("Websockets:\n" + deletedEvent + " has been deleted!");
-        });
-        server.registerForUpdates("/topic/events/update", Event.class, updatedEvent -> {
-            Platform.runLater(new HandleUpdatingEvent(updatedEvent));
-        });
     }
 
-    class HandleCreatingEvent implements Runnable {
-        private final Event createdEvent;
-        public HandleCreatingEvent(Event event) {
-            this.createdEvent = event;
+    class HandleEventChange implements Runnable {
+        private final EventChange change;
+        public HandleEventChange(EventChange change) {
+            this.change = change;
         }
         @Override
         public void run() {
-            data.add(createdEvent);
-            list.setItems(data);
-            System.out.println("Websockets:\n" + createdEvent + " has been created!");
-        }
-    }
-
-    class HandleUpdatingEvent implements Runnable {
-        private final Event updatedEvent;
-        public HandleUpdatingEvent(Event event) {
-            this.updatedEvent = event;
-        }
-        @Override
-        public void run() {
-            data.removeIf(e -> e.getEventId() == updatedEvent.getEventId());
-            data.add(updatedEvent);
-            list.setItems(data);
-            System.out.println("Websockets:\n" + updatedEvent + " has been updated!");
+            if (change.getType() == EventChange.Type.EVENT_DELETED) {
+                eventSubscriptions.unsubscribe(change.getEventId());
+                return;
+            }
+            for (int i = 0; i < data.size(); i++) {
+                if (data.get(i).getEventId() == change.getEventId()) {
+                    data.set(i, changeTracker.apply(data.get(i), change));
+                    return;
+                }
+            }
         }
     }
 
@@ -218,6 +214,7 @@ public class StartScreenCtrl {
         public void run() {
             data.removeIf(e -> e.equals(deletedEvent));
             list.setItems(data);
+            eventSubscriptions.subscribeTo(data);
         }
     }
 
@@ -346,6 +343,7 @@ public class StartScreenCtrl {
      */
     public void refresh(){
             var events = storageManager.getEventsFromDatabase();
+            changeTracker.track(events);
             data = FXCollections.observableList(events);
             list.setItems(data);
             //TODO should be changed to only get the events of a specific user
@@ -3,6 +3,7 @@ package client.scenes;
 import client.utils.StatisticsUtils;
 import com.google.inject.Inject;
 import commons.Event;
+import commons.Money;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.chart.PieChart;
@@ -96,8 +97,8 @@ public class StatisticsCtrl {
      *
      * @param totalExpense - new expense amount
      */
-    public void updateTotalExpense(double totalExpense) {
-        totalExpenseLabel.setText(String.format("%.2f", totalExpense));
+    public void updateTotalExpense(Money totalExpense) {
+        totalExpenseLabel.setText(totalExpense.format());
     }
 
     /**
@@ -0,0 +1,67 @@
+package client.utils;
+
+import commons.Event;
+import commons.EventChange;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps local copies of events up to date with the changes sent by the server.
+ * It remembers the version of every event, the changes of a write carry the version
+ * the write raised the event to. When a write was missed the whole event is fetched again,
+ * changes the copy already holds are skipped.
+ * The version of an event is taken from the copy loaded from the server, before subscribing
+ * to its changes, so a change made in between is either already in the copy or detected.
+ */
+public class EventChangeTracker {
+
+    private final ServerUtils server;
+    private final Map<Long, Long> versions = new HashMap<>();
+
+    /**
+     * Constructor for the tracker
+     * @param server - used to fetch an event when a change was missed
+     */
+    public EventChangeTracker(ServerUtils server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts from the versions of copies just loaded from the server.
+     * Call it before subscribing to the changes of the events.
+     * @param events - the loaded events
+     */
+    public synchronized void track(Collection<Event> events) {
+        for (Event event : events) {
+            versions.put(event.getEventId(), event.getVersion());
+        }
+    }
+
+    /**
+     * Applies a change to the local copy of its event.
+     * Without a known version the copy may or may not hold the change, so it is fetched again.
+     * @param event - the local copy of the event the change belongs to
+     * @param change - the received change
+     * @return - the up to date event, which is the same object unless it had to be fetched
+     */
+    public synchronized Event apply(Event event, EventChange change) {
+        long version = change.getVersion();
+        Long last = versions.get(change.getEventId());
+        if (last != null && version < last) {
+            return event;
+        }
+        if (last != null && (version == last || version == last + 1)) {
+            versions.put(change.getEventId(), version);
+            change.applyTo(event);
+            return event;
+        }
+        Event fetched = server.getEventById(change.getEventId());
+        if (fetched == null) {
+            return event;
+        }
+        versions.put(change.getEventId(), fetched.getVersion());
+        return fetched;
+    }
+}
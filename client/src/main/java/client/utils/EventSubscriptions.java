@@ -0,0 +1,86 @@
+package client.utils;
+
+import commons.Event;
+import commons.EventChange;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * The events a screen listens to for changes.
+ * Screens subscribe to the events they show and unsubscribe once they stop showing them,
+ * so they only receive the changes of events they are interested in.
+ */
+public class EventSubscriptions {
+
+    private final ServerUtils server;
+    private final Consumer<EventChange> consumer;
+    private final Set<Long> eventIds = new HashSet<>();
+
+    /**
+     * Constructor for the subscriptions
+     * @param server - the server to subscribe with
+     * @param consumer - receives the changes of every subscribed event
+     */
+    public EventSubscriptions(ServerUtils server, Consumer<EventChange> consumer) {
+        this.server = server;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Subscribes to the changes of an event
+     * @param eventId - the id of the event
+     */
+    public synchronized void subscribe(long eventId) {
+        if (eventIds.add(eventId)) {
+            server.registerForEventChanges(eventId, consumer);
+        }
+    }
+
+    /**
+     * Stops receiving the changes of an event
+     * @param eventId - the id of the event
+     */
+    public synchronized void unsubscribe(long eventId) {
+        if (eventIds.remove(eventId)) {
+            server.unregisterForEventChanges(eventId, consumer);
+        }
+    }
+
+    /**
+     * Subscribes to exactly the given events, unsubscribing from all others
+     * @param events - the events to receive the changes of
+     */
+    public synchronized void subscribeTo(Collection<Event> events) {
+        Set<Long> wanted = new HashSet<>();
+        for (Event event : events) {
+            wanted.add(event.getEventId());
+        }
+        subscribeToIds(wanted);
+    }
+
+    /**
+     * Subscribes to exactly the events with the given ids, unsubscribing from all others
+     * @param ids - the ids of the events to receive the changes of
+     */
+    public synchronized void subscribeToIds(Collection<Long> ids) {
+        Set<Long> wanted = new HashSet<>(ids);
+        for (Long eventId : Set.copyOf(eventIds)) {
+            if (!wanted.contains(eventId)) {
+                unsubscribe(eventId);
+            }
+        }
+        wanted.forEach(this::subscribe);
+    }
+
+    /**
+     * Unsubscribes from every event
+     */
+    public synchronized void clear() {
+        for (Long eventId : Set.copyOf(eventIds)) {
+            unsubscribe(eventId);
+        }
+    }
+}
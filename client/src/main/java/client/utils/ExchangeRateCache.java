@@ -0,0 +1,178 @@
+package client.utils;
+
+import com.google.inject.Inject;
+import commons.ExchangeRateMatrix;
+import commons.ExchangeRateQuery;
+import commons.Expense;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Remembers the exchange rates the server sent, so converting the expenses of an event
+ * to another currency doesn't ask the server again for rates it already gave.
+ * The rates of every day an event has expenses on can be fetched ahead in one batch.
+ * The number of rates kept can be set with the splitty.rates.cacheSize system property.
+ */
+public class ExchangeRateCache {
+    /**
+     * The currencies the menu bar switches between
+     */
+    public static final List<String> CURRENCIES = List.of("EUR", "USD", "CHF");
+    /**
+     * The most days fetched in one batch, the server limits how many rates a batch holds
+     */
+    static final int DAYS_PER_BATCH = 1000;
+
+    private final ServerUtils server;
+    /**
+     * what one unit of the from currency is worth in the to currency, least recently used first
+     */
+    private final Map<ExchangeRateQuery, Double> rates = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ExchangeRateQuery, Double> eldest) {
+            return size() > Integer.getInteger("splitty.rates.cacheSize", 50_000);
+        }
+    };
+
+    /**
+     * Constructor for the cache
+     * @param server - where missing rates are fetched from
+     */
+    @Inject
+    public ExchangeRateCache(ServerUtils server) {
+        this.server = server;
+    }
+
+    /**
+     * Writes the day of a date the way the server takes it
+     * @param date - the date
+     * @return - the day, as yyyy-mm-dd
+     */
+    public static String day(Date date) {
+        return LocalDate.of(date.getYear() + 1900, date.getMonth() + 1, date.getDate())
+                .toString();
+    }
+
+    /**
+     * Gets the rate between two currencies on the day of a date,
+     * from the server if it isn't cached yet
+     * @param date - the date
+     * @param from - the currency converted from
+     * @param to - the currency converted to
+     * @return - what one unit of from is worth in to
+     */
+    public double getRate(Date date, String from, String to) {
+        if (from.equals(to)) {
+            return 1.0;
+        }
+        String day = day(date);
+        ExchangeRateQuery query = new ExchangeRateQuery(day, from, to);
+        synchronized (this) {
+            Double rate = rates.get(query);
+            if (rate != null) {
+                return rate;
+            }
+        }
+        Map<String, Double> fetched = server.getExchangeRate(day, from, to);
+        synchronized (this) {
+            rates.put(query, fetched.get(from));
+            rates.put(new ExchangeRateQuery(day, to, from), fetched.get(to));
+        }
+        return fetched.get(from);
+    }
+
+    /**
+     * Fetches the rates from the currencies of expenses to other currencies on the days
+     * of the expenses that aren't cached yet, in as few requests as possible
+     * @param expenses - the expenses
+     * @param currencies - the currencies they may be converted to
+     */
+    public void prefetch(Collection<Expense> expenses, Collection<String> currencies) {
+        fetch(missing(expenses, currencies));
+    }
+
+    /**
+     * Fetches the rates like prefetch, without waiting for the server
+     * @param expenses - the expenses
+     * @param currencies - the currencies they may be converted to
+     * @return - a future that completes once the rates are cached
+     */
+    public CompletableFuture<Void> prefetchAsync(Collection<Expense> expenses,
+                                                 Collection<String> currencies) {
+        Set<ExchangeRateQuery> missing = missing(expenses, currencies);
+        if (missing.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return server.async(() -> {
+            fetch(missing);
+            return null;
+        });
+    }
+
+    /**
+     * Finds the rates expenses need that aren't cached
+     * @param expenses - the expenses
+     * @param currencies - the currencies they may be converted to
+     * @return - the rates to fetch
+     */
+    private synchronized Set<ExchangeRateQuery> missing(Collection<Expense> expenses,
+                                                        Collection<String> currencies) {
+        Set<ExchangeRateQuery> missing = new HashSet<>();
+        for (Expense expense : expenses) {
+            String day = day(expense.getDate());
+            for (String currency : currencies) {
+                ExchangeRateQuery query =
+                        new ExchangeRateQuery(day, expense.getCurrency(), currency);
+                if (!currency.equals(expense.getCurrency()) && !rates.containsKey(query)) {
+                    missing.add(query);
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Fetches rates in batches of at most DAYS_PER_BATCH days and caches every rate
+     * the server sends back, which covers every two of the currencies on those days
+     * @param queries - the rates to fetch
+     */
+    private void fetch(Set<ExchangeRateQuery> queries) {
+        SortedMap<String, List<ExchangeRateQuery>> byDay = new TreeMap<>();
+        for (ExchangeRateQuery query : queries) {
+            byDay.computeIfAbsent(query.getDate(), d -> new ArrayList<>()).add(query);
+        }
+        List<ExchangeRateQuery> batch = new ArrayList<>();
+        int days = 0;
+        for (List<ExchangeRateQuery> day : byDay.values()) {
+            batch.addAll(day);
+            if (++days == DAYS_PER_BATCH) {
+                store(server.getExchangeRates(batch));
+                batch = new ArrayList<>();
+                days = 0;
+            }
+        }
+        if (!batch.isEmpty()) {
+            store(server.getExchangeRates(batch));
+        }
+    }
+
+    /**
+     * Caches the rates of a batch
+     * @param matrix - the rates the server sent
+     */
+    private synchronized void store(ExchangeRateMatrix matrix) {
+        List<String> currencies = matrix.getCurrencies();
+        for (int d = 0; d < matrix.getDates().size(); d++) {
+            for (int i = 0; i < currencies.size(); i++) {
+                for (int j = 0; j < currencies.size(); j++) {
+                    if (i != j) {
+                        rates.put(new ExchangeRateQuery(matrix.getDates().get(d),
+                                currencies.get(i), currencies.get(j)), matrix.getRates()[d][i][j]);
+                    }
+                }
+            }
+        }
+    }
+}
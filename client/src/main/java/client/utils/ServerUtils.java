@@ -15,13 +15,25 @@
  */
 package client.utils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import commons.*;
+import jakarta.ws.rs.ProcessingException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.Response;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
 import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 
+import jakarta.ws.rs.client.Client;
 import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.client.Entity;
 import jakarta.ws.rs.core.GenericType;
@@ -30,7 +42,6 @@ import org.springframework.messaging.simp.stomp.StompFrameHandler;
 import org.springframework.messaging.simp.stomp.StompHeaders;
 import org.springframework.messaging.simp.stomp.StompSession;
 import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.web.socket.client.standard.StandardWebSocketClient;
 import org.springframework.web.socket.messaging.WebSocketStompClient;
 
@@ -40,13 +51,22 @@ import java.net.*;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
@@ -54,11 +74,80 @@ import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 public class ServerUtils {
 
     private static final String SERVER = "http://" + ConfigUtils.serverUrl + "/";
+    /**
+     * one client shared by every request, it keeps a pool of open connections to the server.
+     * The pool size and timeouts can be set with the splitty.http.poolSize,
+     * splitty.http.connectTimeout and splitty.http.readTimeout system properties.
+     */
+    private static final Client CLIENT = createClient();
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(Integer.getInteger("splitty.http.connectTimeout",
+                    5000)))
+            .build();
     private final StompSession session = connect("ws://" + ConfigUtils.serverUrl + "/websocket");
     /**
-     * thread used for long polling
+     * threads the asynchronous calls run on, a new virtual thread for every call
+     */
+    private static final ExecutorService ASYNC = Executors.newVirtualThreadPerTaskExecutor();
+    /**
+     * runs tasks on the JavaFX application thread, used to continue on the UI
+     * once an asynchronous call is done
+     */
+    public static final Executor FX_THREAD = Platform::runLater;
+    private final Map<String, Listeners> subscriptions = new HashMap<>();
+    /**
+     * reads the cached responses, set up like the JSON provider of the client
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper().findAndRegisterModules();
+    /**
+     * the last response of every cached read with its entity tag, least recently used first.
+     * The JSON is kept instead of the object, so every caller gets a copy of its own.
+     * The number of responses kept can be set with the splitty.http.cacheSize system property.
      */
-    private static final ExecutorService EXEC = Executors.newSingleThreadExecutor();
+    private final Map<String, CachedResponse> responses = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > Integer.getInteger("splitty.http.cacheSize", 100);
+        }
+    };
+
+    /**
+     * A response kept in the cache
+     * @param etag - the entity tag the server sent with it
+     * @param json - the body of the response
+     */
+    private record CachedResponse(String etag, String json) {
+    }
+
+    /**
+     * Creates the shared client, with a connection pool that keeps connections alive
+     * between requests instead of opening a new one for every call
+     * @return - the client
+     */
+    private static Client createClient() {
+        int poolSize = Integer.getInteger("splitty.http.poolSize", 10);
+        PoolingHttpClientConnectionManager connections = new PoolingHttpClientConnectionManager();
+        connections.setMaxTotal(poolSize);
+        connections.setDefaultMaxPerRoute(poolSize);
+        ClientConfig config = new ClientConfig()
+                .connectorProvider(new ApacheConnectorProvider())
+                .property(ApacheClientProperties.CONNECTION_MANAGER, connections)
+                .property(ClientProperties.CONNECT_TIMEOUT,
+                        Integer.getInteger("splitty.http.connectTimeout", 5000))
+                .property(ClientProperties.READ_TIMEOUT,
+                        Integer.getInteger("splitty.http.readTimeout", 30000));
+        return ClientBuilder.newClient(config);
+    }
+
+    /**
+     * Closes a response whose body isn't needed, so its connection goes back to the pool
+     * @param response - the response
+     * @return - the closed response, its status and headers can still be read
+     */
+    private static Response closed(Response response) {
+        response.close();
+        return response;
+    }
 
     /**
      * used to create a new event, by the "create" button in the start screen
@@ -66,12 +155,25 @@ public class ServerUtils {
      * @return event that was added
      */
     public Event addEvent(Event event) {
-        return ClientBuilder.newClient(new ClientConfig()) //
-            .target(SERVER).path("api/events") //
+        return CLIENT.target(SERVER).path("api/events") //
             .request(APPLICATION_JSON) //
             .accept(APPLICATION_JSON) //
             .post(Entity.entity(event, APPLICATION_JSON), Event.class);
     }
+    /**
+     * Restores a backup in one request, adding the events that don't exist
+     * and overwriting the ones that do
+     * @param events - the events of the backup
+     * @return - the events as they are saved on the server
+     */
+    public List<Event> importEvents(List<Event> events) {
+        return CLIENT.target(SERVER).path("api/JSON/import")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .post(Entity.entity(events, APPLICATION_JSON), new GenericType<List<Event>>() {
+                });
+    }
+
     /**
      *
      * @param file file destination
@@ -113,8 +215,7 @@ public class ServerUtils {
      * @return The added expense.
      */
     public Expense addExpense(Expense expense) {
-        return ClientBuilder.newClient(new ClientConfig()) //
-                .target(SERVER).path("api/expenses") //
+        return CLIENT.target(SERVER).path("api/expenses") //
                 .request(APPLICATION_JSON) //
                 .accept(APPLICATION_JSON) //
                 .post(Entity.entity(expense, APPLICATION_JSON), Expense.class);
@@ -138,23 +239,77 @@ public class ServerUtils {
 
     /**
      * Registers a consumer to listen for updates on a specific destination.
+     * All consumers of a destination share a single subscription,
+     * which is made when the first one registers.
      * @param destination The destination to subscribe to.
      * @param type The type of payload.
      * @param consumer The consumer to handle received payloads.
      * @param <T> The type of payload.
      */
-    public <T> void registerForUpdates(String destination, Class<T> type, Consumer<T> consumer) {
-        session.subscribe(destination, new StompFrameHandler() {
-            @Override
-            public Type getPayloadType(StompHeaders headers) {
-                return type;
-            }
-            @SuppressWarnings("unchecked")
-            @Override
-            public void handleFrame(StompHeaders headers, Object payload) {
-                consumer.accept((T) payload);
-            }
-        });
+    @SuppressWarnings("unchecked")
+    public synchronized <T> void registerForUpdates(String destination, Class<T> type,
+                                                    Consumer<T> consumer) {
+        Listeners listeners = subscriptions.get(destination);
+        if (listeners == null) {
+            Listeners created = new Listeners();
+            created.subscription = session.subscribe(destination, new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return type;
+                }
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    created.consumers.forEach(c -> c.accept(payload));
+                }
+            });
+            subscriptions.put(destination, created);
+            listeners = created;
+        }
+        listeners.consumers.add((Consumer<Object>) consumer);
+    }
+
+    /**
+     * Stops a consumer from listening to a destination.
+     * The subscription is dropped once its last consumer is gone.
+     * @param destination The destination the consumer was registered for.
+     * @param consumer The consumer to remove.
+     */
+    public synchronized void unregisterForUpdates(String destination, Consumer<?> consumer) {
+        Listeners listeners = subscriptions.get(destination);
+        if (listeners == null) {
+            return;
+        }
+        listeners.consumers.remove(consumer);
+        if (listeners.consumers.isEmpty()) {
+            listeners.subscription.unsubscribe();
+            subscriptions.remove(destination);
+        }
+    }
+
+    /**
+     * Registers a consumer for the changes made to a single event
+     * @param eventId - the id of the event
+     * @param consumer - the consumer to handle the changes
+     */
+    public void registerForEventChanges(long eventId, Consumer<EventChange> consumer) {
+        registerForUpdates("/topic/events/" + eventId, EventChange.class, consumer);
+    }
+
+    /**
+     * Stops a consumer from receiving the changes made to an event
+     * @param eventId - the id of the event
+     * @param consumer - the consumer to remove
+     */
+    public void unregisterForEventChanges(long eventId, Consumer<EventChange> consumer) {
+        unregisterForUpdates("/topic/events/" + eventId, consumer);
+    }
+
+    /**
+     * The consumers of one destination, sharing a single subscription
+     */
+    private static final class Listeners {
+        private final List<Consumer<Object>> consumers = new CopyOnWriteArrayList<>();
+        private StompSession.Subscription subscription;
     }
 
     /**
@@ -162,14 +317,56 @@ public class ServerUtils {
      * @return - List of events in the database
      */
     public List<Event> getEvents() {
-        return ClientBuilder.newClient(new ClientConfig()) //
-                .target(SERVER).path("api/events") //
+        return CLIENT.target(SERVER).path("api/events") //
                 .request(APPLICATION_JSON) //
                 .accept(APPLICATION_JSON) //
                 .get(new GenericType<List<Event>>() {
                 });
     }
 
+    /**
+     * Retrieves the summaries of all events, without their participants and expenses
+     * @return - the summaries, ordered by event id
+     */
+    public List<EventSummary> getEventSummaries() {
+        return CLIENT.target(SERVER).path("api/events/summaries")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get(new GenericType<List<EventSummary>>() {});
+    }
+
+    /**
+     * Retrieves a page of the summaries of all events, sorted by the server
+     * @param sort - the field to sort on: creationDate, lastActivity or title
+     * @param after - the cursor the previous page ended with, or null for the first page
+     * @param limit - the number of summaries on the page
+     * @return - the page, with the cursor of the next one or null if it is the last
+     */
+    public EventSummaryPage getEventSummaryPage(String sort, String after, int limit) {
+        var target = CLIENT.target(SERVER).path("api/events/summaries/page")
+                .queryParam("sort", sort)
+                .queryParam("limit", limit);
+        if (after != null) {
+            // a template, so braces in the titles of cursors are sent as they are
+            target = target.queryParam("after", "{after}").resolveTemplate("after", after);
+        }
+        return target.request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get(EventSummaryPage.class);
+    }
+
+    /**
+     * Retrieves the summary of an event, without its participants and expenses
+     * @param eventId - the id of the event
+     * @return - the summary
+     */
+    public EventSummary getEventSummary(long eventId) {
+        return CLIENT.target(SERVER).path("api/events/" + eventId + "/summary")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .get(EventSummary.class);
+    }
+
     /**
      * Deletes an event from the database
      *
@@ -177,11 +374,11 @@ public class ServerUtils {
      */
     public void deleteEvent(long eventid) {
         String deleteUrl = SERVER + "api/events/" + eventid;
-        ClientBuilder.newClient(new ClientConfig())
-                .target(deleteUrl)
+        CLIENT.target(deleteUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .delete();
+                .delete()
+                .close();
     }
 
     /**
@@ -192,13 +389,56 @@ public class ServerUtils {
      */
     public Event updateEvent(long eventId, Event event) {
         String updateUrl = SERVER + "api/events/" + eventId;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(updateUrl)
+        return CLIENT.target(updateUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(event, APPLICATION_JSON), Event.class);
     }
 
+    /**
+     * Changes only the given fields of an event
+     * @param eventId - the id of the event
+     * @param patch - the fields to change with their new values
+     * @return - the changes that were made
+     */
+    public List<EventChange> patchEvent(long eventId, Map<String, Object> patch) {
+        return patchEvent(eventId, patch, null);
+    }
+
+    /**
+     * Changes only the given fields of an event, if it didn't change since a version
+     * @param eventId - the id of the event
+     * @param patch - the fields to change with their new values
+     * @param version - the version of the event the patch was made against,
+     *                or null to patch whatever the event looks like now
+     * @return - the changes that were made
+     */
+    public List<EventChange> patchEvent(long eventId, Map<String, Object> patch, Long version) {
+        String patchUrl = SERVER + "api/events/" + eventId;
+        var request = CLIENT.target(patchUrl)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON);
+        if (version != null) {
+            request = request.header(HttpHeaders.IF_MATCH, "\"" + version + "\"");
+        }
+        return request.method("PATCH", Entity.entity(patch, APPLICATION_JSON),
+                new GenericType<List<EventChange>>() {});
+    }
+
+    /**
+     * Removes a participant from an event, without sending the rest of the event
+     * @param eventId - the id of the event
+     * @param userId - the id of the participant
+     * @return - the change that was made
+     */
+    public EventChange removeParticipant(long eventId, long userId) {
+        String removeUrl = SERVER + "api/events/" + eventId + "/participants/" + userId;
+        return CLIENT.target(removeUrl)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .delete(EventChange.class);
+    }
+
     /**
      * Retrieves Event by id
      * @param id - id of event
@@ -207,11 +447,40 @@ public class ServerUtils {
 
     public Event getEventById(long id) {
         String updateUrl = SERVER + "api/events/" + id;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(updateUrl)
-                .request(APPLICATION_JSON)
-                .accept(APPLICATION_JSON)
-                .get(Event.class);
+        return getCached(updateUrl, new TypeReference<Event>() {});
+    }
+
+    /**
+     * Retrieves several events with a single request,
+     * or one for every 500 events as the server doesn't send more at once
+     * @param ids - the ids of the events
+     * @return - the events that were found and the ids that don't belong to an event anymore
+     */
+    public EventBatch getEvents(List<Long> ids) {
+        String batchUrl = SERVER + "api/events/batch";
+        EventBatch result = new EventBatch();
+        for (int from = 0; from < ids.size(); from += 500) {
+            String part = ids.subList(from, Math.min(ids.size(), from + 500)).stream()
+                    .map(String::valueOf).collect(Collectors.joining(","));
+            EventBatch batch = CLIENT.target(batchUrl)
+                    .queryParam("ids", part)
+                    .request(APPLICATION_JSON)
+                    .accept(APPLICATION_JSON)
+                    .get(EventBatch.class);
+            result.getEvents().addAll(batch.getEvents());
+            result.getMissing().addAll(batch.getMissing());
+        }
+        return result;
+    }
+
+    /**
+     * Retrieves the debts that settle an event, computed by the server
+     * @param eventId - id of event
+     * @return - the list of debts of the event
+     */
+    public List<Debt> getDebts(long eventId) {
+        String debtsUrl = SERVER + "api/events/" + eventId + "/debts";
+        return getCached(debtsUrl, new TypeReference<List<Debt>>() {});
     }
 
     /**
@@ -221,13 +490,55 @@ public class ServerUtils {
      */
     public Event getEventByInviteCode(String inviteCode) {
         String inviteUrl = SERVER+"api/events/invite/"+inviteCode;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(inviteUrl)
-                .request(APPLICATION_JSON)
-                .accept(APPLICATION_JSON)
-                .get(new GenericType<Event>(){
+        return getCached(inviteUrl, new TypeReference<Event>() {});
+    }
 
-                });
+    /**
+     * Gets a resource, sending the entity tag of the cached copy if there is one.
+     * When the server answers that it wasn't modified the cached copy is read instead,
+     * so unchanged resources aren't downloaded again.
+     * @param url - the url of the resource
+     * @param type - the type of the resource
+     * @return - the resource, or null if the server sent an empty body
+     * @param <T> - the type of the resource
+     * @throws WebApplicationException if the server answers with an error
+     */
+    private <T> T getCached(String url, TypeReference<T> type) {
+        CachedResponse cached;
+        synchronized (responses) {
+            cached = responses.get(url);
+        }
+        var request = CLIENT.target(url).request(APPLICATION_JSON).accept(APPLICATION_JSON);
+        if (cached != null) {
+            request.header(HttpHeaders.IF_NONE_MATCH, cached.etag());
+        }
+        String json;
+        try (Response response = request.get()) {
+            if (cached != null
+                    && response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                json = cached.json();
+            } else if (response.getStatusInfo().getFamily() != Response.Status.Family.SUCCESSFUL) {
+                throw new WebApplicationException(response.getStatus());
+            } else {
+                json = response.readEntity(String.class);
+                String etag = response.getHeaderString(HttpHeaders.ETAG);
+                synchronized (responses) {
+                    if (etag != null) {
+                        responses.put(url, new CachedResponse(etag, json));
+                    } else {
+                        responses.remove(url);
+                    }
+                }
+            }
+        }
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            return MAPPER.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new ProcessingException(e);
+        }
     }
 
     /**
@@ -237,11 +548,10 @@ public class ServerUtils {
      */
     public Response deleteExpense(long expenseId) {
         String deleteUrl = SERVER + "api/expenses/" + expenseId;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(deleteUrl)
+        return closed(CLIENT.target(deleteUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .delete();
+                .delete());
     }
 
     /**
@@ -252,27 +562,80 @@ public class ServerUtils {
      */
     public Expense updateExpense(long expenseId, Expense expense) {
         String updateUrl = SERVER + "api/expenses/" + expenseId;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(updateUrl)
+        return CLIENT.target(updateUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(expense, APPLICATION_JSON), Expense.class);
     }
 
+    /**
+     * Adds an expense to an event, in one call that only sends the expense
+     * @param eventId - the id of the event
+     * @param expense - the expense to add
+     * @return - the change, holding the added expense and the new version of the event
+     */
+    public EventChange addExpense(long eventId, Expense expense) {
+        return CLIENT.target(SERVER).path("api/events/" + eventId + "/expenses")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .post(Entity.entity(expense, APPLICATION_JSON), EventChange.class);
+    }
+
+    /**
+     * Updates an expense of an event, in one call that only sends the expense
+     * @param eventId - the id of the event
+     * @param expenseId - expense id of the current expense
+     * @param expense - new updated expense
+     * @return - the change, holding the updated expense and the new version of the event
+     */
+    public EventChange updateExpense(long eventId, long expenseId, Expense expense) {
+        String updateUrl = SERVER + "api/events/" + eventId + "/expenses/" + expenseId;
+        return CLIENT.target(updateUrl)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .put(Entity.entity(expense, APPLICATION_JSON), EventChange.class);
+    }
+
+    /**
+     * Removes an expense from an event and deletes it
+     * @param eventId - the id of the event
+     * @param expenseId - the expense's id
+     * @return - the change, holding the new version of the event
+     */
+    public EventChange deleteExpense(long eventId, long expenseId) {
+        String deleteUrl = SERVER + "api/events/" + eventId + "/expenses/" + expenseId;
+        return CLIENT.target(deleteUrl)
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .delete(EventChange.class);
+    }
+
     /**
      * Adds a participant to the database
      * @param participant - the participant to add
      * @return - participant that was added
      */
     public Participant addParticipant(Participant participant) {
-        return ClientBuilder.newClient(new ClientConfig()) //
-                .target(SERVER).path("api/users/") //
+        return CLIENT.target(SERVER).path("api/users/") //
                 .request(APPLICATION_JSON) //
                 .accept(APPLICATION_JSON) //
                 .post(Entity.entity(participant, APPLICATION_JSON), Participant.class);
 
     }
 
+    /**
+     * Adds a new participant to an event, without sending the rest of the event
+     * @param eventId - the id of the event
+     * @param participant - the participant to add
+     * @return - the change, holding the saved participant
+     */
+    public EventChange addParticipant(long eventId, Participant participant) {
+        return CLIENT.target(SERVER).path("api/events/" + eventId + "/participants")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .post(Entity.entity(participant, APPLICATION_JSON), EventChange.class);
+    }
+
     /**
      * Updates a given particpant
      * @param userId - participant's id
@@ -281,8 +644,7 @@ public class ServerUtils {
      */
     public Participant updateParticipant(long userId, Participant editedParticipant) {
         String updateUrl = SERVER + "api/users/" + userId;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(updateUrl)
+        return CLIENT.target(updateUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(editedParticipant, APPLICATION_JSON), Participant.class);
@@ -295,11 +657,10 @@ public class ServerUtils {
      */
     public Response deleteParticipant(long userId) {
         String deleteUrl = SERVER + "api/users/" + userId;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(deleteUrl)
+        return closed(CLIENT.target(deleteUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .delete();
+                .delete());
     }
 
     /**
@@ -309,14 +670,13 @@ public class ServerUtils {
      * @return - the response
      */
     public String post(String endpoint, String password) {
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create("http://" + ConfigUtils.serverUrl + endpoint))
                 .POST(HttpRequest.BodyPublishers.ofString(password))
                 .build();
 
         try {
-            HttpResponse<String> response = client.send(request,
+            HttpResponse<String> response = HTTP_CLIENT.send(request,
                     HttpResponse.BodyHandlers.ofString());
             return response.body();
         } catch (Exception e) {
@@ -332,8 +692,10 @@ public class ServerUtils {
      */
     public void sendDeleteMsg(Event event) {
         String url = SERVER + "api/events/sendMsg";
-        RestTemplate restTemplate = new RestTemplate();
-        restTemplate.postForObject(url, event, Void.class);
+        CLIENT.target(url)
+                .request(APPLICATION_JSON)
+                .post(Entity.entity(event, APPLICATION_JSON))
+                .close();
     }
 
     /**
@@ -343,11 +705,10 @@ public class ServerUtils {
      */
     public Response deleteTag(long tagId) {
         String deleteUrl = SERVER + "api/tags/" + tagId;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(deleteUrl)
+        return closed(CLIENT.target(deleteUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
-                .delete();
+                .delete());
     }
 
     /**
@@ -356,8 +717,7 @@ public class ServerUtils {
      * @return - the tag added
      */
     public Tag addTag(Tag tag) {
-        return ClientBuilder.newClient(new ClientConfig()) //
-                .target(SERVER).path("api/tags") //
+        return CLIENT.target(SERVER).path("api/tags") //
                 .request(APPLICATION_JSON) //
                 .accept(APPLICATION_JSON) //
                 .post(Entity.entity(tag, APPLICATION_JSON), Tag.class);
@@ -371,8 +731,7 @@ public class ServerUtils {
      */
     public List<Tag> getTags(Event event) {
         String url = SERVER + "api/tags/event/"+event.getEventId();
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(url)
+        return CLIENT.target(url)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get( new GenericType<List<Tag>>() {});
@@ -386,8 +745,7 @@ public class ServerUtils {
      */
     public Tag updateTags(Long tagId, Tag tag) {
         String updateUrl = SERVER + "api/tags/" + tagId;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(updateUrl)
+        return CLIENT.target(updateUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .put(Entity.entity(tag, APPLICATION_JSON), Tag.class);
@@ -401,47 +759,18 @@ public class ServerUtils {
      */
     public Email sendEmail(Email email) {
         String emailURL = SERVER + "api/email";
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(emailURL)
+        return CLIENT.target(emailURL)
                 .request(APPLICATION_JSON)
                 .post(Entity.entity(email, APPLICATION_JSON), Email.class);
     }
 
 
-    /**
-     * Consumer of an event
-     * @param consumer passed to the method
-     * @param event passed to the method
-     */
-    public void registerForEventUpdates(Event event, Consumer<Event> consumer){
-        try {
-            EXEC.submit(() -> {
-                while (!Thread.interrupted()) {
-                    var res = ClientBuilder.newClient(new ClientConfig())
-                        .target(SERVER).path("api/events/updates/" + event.getEventId())
-                        .request(APPLICATION_JSON)
-                        .accept(APPLICATION_JSON)
-                        .get(Response.class);
-
-                    if (res.getStatus() == 204) {
-                        continue;
-                    }
-                    var e = res.readEntity(Event.class);
-                    consumer.accept(e);
-                }
-            });
-        } catch(Exception e){
-            System.out.println("exception in registering for updates");
-            e.printStackTrace();
-        }
-    }
-
     /**
      * shuts down the thread
      */
     public void stop(){
-        EXEC.shutdownNow();
-        System.out.println("the thread was stopped:" + EXEC.isShutdown());
+        ASYNC.shutdownNow();
+        System.out.println("the thread was stopped:" + ASYNC.isShutdown());
     }
 
     /**
@@ -455,10 +784,135 @@ public class ServerUtils {
     public Map<String, Double> getExchangeRate(String date, String from, String to) {
         String updateUrl = SERVER + "api/exchange/exchange-rates?date=" +
                 date + "&from=" + from + "&to=" + to;
-        return ClientBuilder.newClient(new ClientConfig())
-                .target(updateUrl)
+        return CLIENT.target(updateUrl)
                 .request(APPLICATION_JSON)
                 .accept(APPLICATION_JSON)
                 .get(new GenericType<Map<String, Double>>() {});
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets many exchange rates in one call
+     * @param queries - the days and currencies to get the rates for
+     * @return - the rates between every two of the currencies on every one of the days
+     */
+    public ExchangeRateMatrix getExchangeRates(Collection<ExchangeRateQuery> queries) {
+        return CLIENT.target(SERVER).path("api/exchange/batch")
+                .request(APPLICATION_JSON)
+                .accept(APPLICATION_JSON)
+                .post(Entity.entity(queries, APPLICATION_JSON), ExchangeRateMatrix.class);
+    }
+
+    /**
+     * Runs a call on a virtual thread, so the calling thread doesn't wait for the server.
+     * Continue on the UI with the *Async methods of the future and FX_THREAD.
+     * @param call - the call to run
+     * @param <T> - the type of the result
+     * @return - a future that completes with the result of the call
+     */
+    public <T> CompletableFuture<T> async(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, ASYNC);
+    }
+
+    /**
+     * Gets the exception that made an asynchronous call fail
+     * @param error - the exception the future completed with
+     * @return - the exception thrown by the call itself
+     */
+    public static Throwable cause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+    }
+
+    /**
+     * Adds an expense to an event without blocking the calling thread
+     * @param eventId - the id of the event
+     * @param expense - the expense to add
+     * @return - a future with the change, holding the added expense
+     */
+    public CompletableFuture<EventChange> addExpenseAsync(long eventId, Expense expense) {
+        return async(() -> addExpense(eventId, expense));
+    }
+
+    /**
+     * Updates an expense of an event without blocking the calling thread
+     * @param eventId - the id of the event
+     * @param expenseId - expense id of the current expense
+     * @param expense - new updated expense
+     * @return - a future with the change, holding the updated expense
+     */
+    public CompletableFuture<EventChange> updateExpenseAsync(long eventId, long expenseId,
+                                                             Expense expense) {
+        return async(() -> updateExpense(eventId, expenseId, expense));
+    }
+
+    /**
+     * Updates an event without blocking the calling thread
+     * @param eventId - the id of the event
+     * @param event - the new event
+     * @return - a future with the updated event
+     */
+    public CompletableFuture<Event> updateEventAsync(long eventId, Event event) {
+        return async(() -> updateEvent(eventId, event));
+    }
+
+    /**
+     * Retrieves an event by id without blocking the calling thread
+     * @param id - id of event
+     * @return - a future with the event
+     */
+    public CompletableFuture<Event> getEventByIdAsync(long id) {
+        return async(() -> getEventById(id));
+    }
+
+    /**
+     * Retrieves a page of event summaries without blocking the calling thread
+     * @param sort - the field to sort on: creationDate, lastActivity or title
+     * @param after - the cursor the previous page ended with, or null for the first page
+     * @param limit - the number of summaries on the page
+     * @return - a future with the page
+     */
+    public CompletableFuture<EventSummaryPage> getEventSummaryPageAsync(String sort, String after,
+                                                                        int limit) {
+        return async(() -> getEventSummaryPage(sort, after, limit));
+    }
+
+    /**
+     * Retrieves the summary of an event without blocking the calling thread
+     * @param eventId - the id of the event
+     * @return - a future with the summary
+     */
+    public CompletableFuture<EventSummary> getEventSummaryAsync(long eventId) {
+        return async(() -> getEventSummary(eventId));
+    }
+
+    /**
+     * Adds a participant to an event without blocking the calling thread
+     * @param eventId - the id of the event
+     * @param participant - the participant to add
+     * @return - a future with the change, holding the added participant
+     */
+    public CompletableFuture<EventChange> addParticipantAsync(long eventId,
+                                                              Participant participant) {
+        return async(() -> addParticipant(eventId, participant));
+    }
+
+    /**
+     * Updates a participant without blocking the calling thread
+     * @param userId - participant's id
+     * @param editedParticipant - new updated participant
+     * @return - a future with the updated participant
+     */
+    public CompletableFuture<Participant> updateParticipantAsync(long userId,
+                                                                 Participant editedParticipant) {
+        return async(() -> updateParticipant(userId, editedParticipant));
+    }
+
+    /**
+     * Retrieves the tags of an event without blocking the calling thread
+     * @param event - the event
+     * @return - a future with the tags of the event
+     */
+    public CompletableFuture<List<Tag>> getTagsAsync(Event event) {
+        return async(() -> getTags(event));
+    }
+}
@@ -1,6 +1,7 @@
 package client.utils;
 
 import commons.Expense;
+import commons.Money;
 import commons.Tag;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -27,13 +28,13 @@ public class StatisticsUtils {
     /**
      * Calculate the total expense amount
      * @param expenses - the list of expneses
-     * @return - double represnting total event expense amount
+     * @return - the total event expense amount
      */
-    public double calculateTotalExpense(List<Expense> expenses) {
-        double totalExpense = 0;
+    public Money calculateTotalExpense(List<Expense> expenses) {
+        Money totalExpense = Money.zero(null);
         for (Expense expense : expenses) {
             if (!expense.getTag().getName().equals("debt settlement")) {
-                totalExpense += expense.getAmount();
+                totalExpense = totalExpense.plus(expense.getAmount());
             }
         }
         return totalExpense;
@@ -46,27 +47,25 @@ public class StatisticsUtils {
      */
 
     public ObservableList<PieChart.Data> generatePieChartData(List<Expense> expenses) {
-        Map<Tag, Double> tagExpenses = new HashMap<>();
-        double totalExpense = 0;
+        Map<Tag, Money> tagExpenses = new HashMap<>();
+        Money totalExpense = Money.zero(null);
 
         for (Expense e : expenses) {
             if (!e.getTag().getName().equals("debt settlement")) {
-                totalExpense += e.getAmount();
-                Tag tag = e.getTag();
-                double amount = e.getAmount();
-                tagExpenses.put(tag, tagExpenses.getOrDefault(tag, 0.0) + amount);
+                totalExpense = totalExpense.plus(e.getAmount());
+                tagExpenses.merge(e.getTag(), e.getAmount(), Money::plus);
             }
         }
 
         ObservableList<PieChart.Data> pieChartData = FXCollections.observableArrayList();
 
-        for (Map.Entry<Tag, Double> entry : tagExpenses.entrySet()) {
-            double absoluteValue = entry.getValue();
-            double relativeValue = (absoluteValue / totalExpense) * 100;
+        for (Map.Entry<Tag, Money> entry : tagExpenses.entrySet()) {
+            Money absoluteValue = entry.getValue();
+            double relativeValue = (absoluteValue.getCents() * 100.0) / totalExpense.getCents();
             Tag tag = entry.getKey();
-            String label = tag.getName() + "\n" + String.format("%.2f", absoluteValue)
+            String label = tag.getName() + "\n" + absoluteValue.format()
                     + " (" + String.format("%.2f", relativeValue) + "%)";
-            PieChart.Data data = new PieChart.Data(label, absoluteValue);
+            PieChart.Data data = new PieChart.Data(label, absoluteValue.toDouble());
             pieChartData.add(data);
         }
 
@@ -109,20 +108,21 @@ public class StatisticsUtils {
             if (!expense.getTag().getName().equals("debt settlement")) {
                 Tag tag = expense.getTag();
                 if (!tagRectangles.containsKey(tag)) {
-                    double absoluteValue = 0;
-                    double totalExpense = calculateTotalExpense(expenses);
+                    Money absoluteValue = Money.zero(null);
+                    Money totalExpense = calculateTotalExpense(expenses);
                     for (Expense e : expenses) {
                         if (e.getTag().equals(tag)) {
-                            absoluteValue += e.getAmount();
+                            absoluteValue = absoluteValue.plus(e.getAmount());
                         }
                     }
-                    double relativeValue = (absoluteValue / totalExpense) * 100;
+                    double relativeValue =
+                            (absoluteValue.getCents() * 100.0) / totalExpense.getCents();
 
                     Rectangle rect = new Rectangle(10, 10, Color.web(tag.getColor()));
                     Label nameLabel = new Label(tag.getName());
                     nameLabel.setStyle("-fx-font-weight: bold; -fx-font-size: 14;");
                     Label valuesLabel = new Label("Absolute: "
-                            + String.format("%.2f", absoluteValue) + "\n" +
+                            + absoluteValue.format() + "\n" +
                             "Relative: " + String.format("%.2f", relativeValue) + "%");
                     HBox entry = new HBox(10, rect, nameLabel, valuesLabel);
                     legendBox.getChildren().add(entry);
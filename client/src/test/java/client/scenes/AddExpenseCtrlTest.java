@@ -1,5 +1,6 @@
 package client.scenes;
 
+import client.utils.ExchangeRateCache;
 import client.utils.ServerUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -20,7 +21,8 @@ class AddExpenseCtrlTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        addExpenseCtrl = new AddExpenseCtrl(serverUtils, mainCtrl);
+        addExpenseCtrl = new AddExpenseCtrl(serverUtils, mainCtrl,
+                new ExchangeRateCache(serverUtils));
     }
 
     @Test
@@ -0,0 +1,82 @@
+package client.scenes;
+
+import client.utils.EventChangeTracker;
+import client.utils.ServerUtils;
+import commons.Event;
+import commons.EventChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.*;
+
+public class EventChangeTrackerTest {
+
+    private ServerUtils server;
+    private EventChangeTracker tracker;
+    private Event event;
+
+    /**
+     * setup
+     */
+    @BeforeEach
+    public void setup() {
+        server = mock(ServerUtils.class);
+        tracker = new EventChangeTracker(server);
+        event = new Event("trip");
+        event.setEventId(1);
+        event.setVersion(3);
+    }
+
+    private EventChange rename(String title, long version) {
+        EventChange change = EventChange.titleChanged(1, title);
+        change.setVersion(version);
+        return change;
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void appliesNextChangeOfTrackedEvent() {
+        tracker.track(List.of(event));
+
+        assertSame(event, tracker.apply(event, rename("holiday", 4)));
+        assertEquals("holiday", event.getTitle());
+        assertEquals(4, event.getVersion());
+        verify(server, never()).getEventById(anyLong());
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void skipsChangesTheCopyHolds() {
+        tracker.track(List.of(event));
+
+        assertSame(event, tracker.apply(event, rename("old", 2)));
+        assertEquals("trip", event.getTitle());
+        verify(server, never()).getEventById(anyLong());
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void fetchesAfterGapOrWithoutVersion() {
+        Event fetched = new Event("fetched");
+        fetched.setEventId(1);
+        fetched.setVersion(6);
+        when(server.getEventById(1)).thenReturn(fetched);
+
+        assertSame(fetched, tracker.apply(event, rename("holiday", 4)));
+
+        tracker.track(List.of(event));
+        assertSame(fetched, tracker.apply(event, rename("holiday", 6)));
+        assertSame(fetched, tracker.apply(fetched, rename("holiday", 7)));
+        verify(server, times(2)).getEventById(1);
+    }
+}
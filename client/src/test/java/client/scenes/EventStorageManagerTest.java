@@ -3,6 +3,7 @@ package client.scenes;
 import client.EventStorageManager;
 import client.utils.ServerUtils;
 import commons.Event;
+import commons.EventBatch;
 import org.junit.jupiter.api.*;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -57,7 +58,8 @@ public class EventStorageManagerTest {
         e2.setEventId(2L);
         serverUtils.addEvent(e2);
 
-        when(serverUtils.getEventById(anyLong())).thenReturn(e1, e2);
+        when(serverUtils.getEvents(List.of(1L, 2L)))
+                .thenReturn(new EventBatch(List.of(e1, e2), List.of()));
 
         eventStorageManager.saveEventIdToFile(1L);
         eventStorageManager.saveEventIdToFile(2L);
@@ -67,6 +69,21 @@ public class EventStorageManagerTest {
         assertEquals(2, events.size());
         assertEquals(e1, events.get(0));
         assertEquals(e2, events.get(1));
+        verify(serverUtils, never()).getEventById(anyLong());
+    }
+
+    @Test
+    public void testGetEventsRemovesMissing() throws IOException {
+        Event e1 = new Event("thing");
+        e1.setEventId(1L);
+        when(serverUtils.getEvents(List.of(1L, 2L)))
+                .thenReturn(new EventBatch(List.of(e1), List.of(2L)));
+
+        eventStorageManager.saveEventIdToFile(1L);
+        eventStorageManager.saveEventIdToFile(2L);
+
+        assertEquals(List.of(e1), eventStorageManager.getEventsFromDatabase());
+        assertEquals(List.of(1L), eventStorageManager.loadEventIdsFromFile());
     }
 
     @Test
@@ -0,0 +1,66 @@
+package client.scenes;
+
+import client.utils.EventSubscriptions;
+import client.utils.ServerUtils;
+import commons.Event;
+import commons.EventChange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.mockito.Mockito.*;
+
+public class EventSubscriptionsTest {
+
+    private ServerUtils server;
+    private Consumer<EventChange> consumer;
+    private EventSubscriptions subscriptions;
+
+    /**
+     * setup
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        server = mock(ServerUtils.class);
+        consumer = mock(Consumer.class);
+        subscriptions = new EventSubscriptions(server, consumer);
+    }
+
+    private Event event(long id) {
+        Event event = new Event("event" + id);
+        event.setEventId(id);
+        return event;
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void subscribesOncePerEvent() {
+        subscriptions.subscribe(1);
+        subscriptions.subscribe(1);
+
+        verify(server, times(1)).registerForEventChanges(1, consumer);
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void subscribeToFollowsShownEvents() {
+        subscriptions.subscribeTo(List.of(event(1), event(2)));
+        subscriptions.subscribeTo(List.of(event(2), event(3)));
+
+        verify(server).unregisterForEventChanges(1, consumer);
+        verify(server, times(1)).registerForEventChanges(2, consumer);
+        verify(server).registerForEventChanges(3, consumer);
+
+        subscriptions.clear();
+
+        verify(server).unregisterForEventChanges(2, consumer);
+        verify(server).unregisterForEventChanges(3, consumer);
+    }
+}
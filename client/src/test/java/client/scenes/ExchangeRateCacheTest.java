@@ -0,0 +1,84 @@
+package client.scenes;
+
+import client.utils.ExchangeRateCache;
+import client.utils.ServerUtils;
+import commons.ExchangeRateMatrix;
+import commons.ExchangeRateQuery;
+import commons.Expense;
+import commons.Participant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class ExchangeRateCacheTest {
+
+    @Mock
+    private ServerUtils server;
+
+    private ExchangeRateCache cache;
+    private final Participant payor = new Participant("payor", "payor@mail.com", null, null);
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        cache = new ExchangeRateCache(server);
+    }
+
+    private Expense expense(Date date) {
+        return new Expense(payor, 10, "EUR", List.of(payor), "expense", date, null);
+    }
+
+    @Test
+    public void testDay() {
+        assertEquals("2024-03-05", ExchangeRateCache.day(new Date(124, 2, 5)));
+    }
+
+    @Test
+    public void testGetRateIsCached() {
+        when(server.getExchangeRate("2024-03-05", "EUR", "USD"))
+                .thenReturn(Map.of("EUR", 2.0, "USD", 0.5));
+
+        assertEquals(2.0, cache.getRate(new Date(124, 2, 5), "EUR", "USD"));
+        assertEquals(0.5, cache.getRate(new Date(124, 2, 5, 18, 0), "USD", "EUR"));
+        assertEquals(1.0, cache.getRate(new Date(124, 2, 5), "EUR", "EUR"));
+
+        verify(server, times(1)).getExchangeRate(any(), any(), any());
+    }
+
+    @Test
+    public void testPrefetch() {
+        ExchangeRateMatrix matrix = new ExchangeRateMatrix(List.of("2024-03-05", "2024-03-06"),
+                List.of("CHF", "EUR", "USD"), new double[][][] {
+                    {{1, 1.1, 1.2}, {0.9, 1, 1.3}, {0.8, 0.7, 1}},
+                    {{1, 2.1, 2.2}, {1.9, 1, 2.3}, {1.8, 1.7, 1}}});
+        when(server.getExchangeRates(any())).thenReturn(matrix);
+        List<Expense> expenses = List.of(expense(new Date(124, 2, 5)),
+                expense(new Date(124, 2, 6)), expense(new Date(124, 2, 6, 12, 0)));
+
+        cache.prefetch(expenses, List.of("USD", "CHF"));
+        cache.prefetch(expenses, List.of("USD", "CHF"));
+
+        Set<ExchangeRateQuery> queries = Set.of(
+                new ExchangeRateQuery("2024-03-05", "EUR", "USD"),
+                new ExchangeRateQuery("2024-03-05", "EUR", "CHF"),
+                new ExchangeRateQuery("2024-03-06", "EUR", "USD"),
+                new ExchangeRateQuery("2024-03-06", "EUR", "CHF"));
+        verify(server, times(1)).getExchangeRates(
+                argThat((Collection<ExchangeRateQuery> q) -> Set.copyOf(q).equals(queries)));
+        assertEquals(1.3, cache.getRate(new Date(124, 2, 5), "EUR", "USD"));
+        assertEquals(1.8, cache.getRate(new Date(124, 2, 6), "USD", "CHF"));
+        verify(server, never()).getExchangeRate(any(), any(), any());
+    }
+}
@@ -1,6 +1,7 @@
 package client.scenes;
 
 import client.EventStorageManager;
+import client.utils.ExchangeRateCache;
 import client.utils.ServerUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,7 +23,8 @@ class OverviewCtrlTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        ctrl = new OverviewCtrl(server, mainCtrl, new EventStorageManager(server));
+        ctrl = new OverviewCtrl(server, mainCtrl, new EventStorageManager(server),
+                new ExchangeRateCache(server));
     }
     @Test
     public void hasBackButton() {
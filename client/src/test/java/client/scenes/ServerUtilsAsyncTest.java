@@ -0,0 +1,60 @@
+package client.scenes;
+
+import client.utils.ServerUtils;
+import commons.Event;
+import jakarta.ws.rs.NotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class ServerUtilsAsyncTest {
+
+    private ServerUtils server;
+
+    /**
+     * setup
+     */
+    @BeforeEach
+    public void setup() {
+        server = mock(ServerUtils.class, CALLS_REAL_METHODS);
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void runsOnVirtualThread() throws Exception {
+        assertTrue(server.async(() -> Thread.currentThread().isVirtual()).get());
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void asyncVariantDelegates() throws Exception {
+        Event event = new Event("event");
+        doReturn(event).when(server).getEventById(1);
+
+        assertEquals(event, server.getEventByIdAsync(1).get());
+    }
+
+    /**
+     * checkstyle
+     */
+    @Test
+    public void failureKeepsCause() {
+        NotFoundException notFound = new NotFoundException();
+        doThrow(notFound).when(server).getEventById(1);
+
+        CompletableFuture<Event> future = server.getEventByIdAsync(1);
+        ExecutionException error = assertThrows(ExecutionException.class, future::get);
+        assertSame(notFound, error.getCause());
+        assertSame(notFound, ServerUtils.cause(new CompletionException(notFound)));
+    }
+}
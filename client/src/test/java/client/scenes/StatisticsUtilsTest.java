@@ -2,6 +2,7 @@ package client.scenes;
 
 import client.utils.StatisticsUtils;
 import commons.Expense;
+import commons.Money;
 import commons.Participant;
 import commons.Tag;
 import javafx.collections.ObservableList;
@@ -67,8 +68,8 @@ public class StatisticsUtilsTest {
      */
     @Test
     public void testCalculateTotalExpense() {
-        double totalExpense = utils.calculateTotalExpense(expenses);
-        assertEquals(100.0, totalExpense);
+        Money totalExpense = utils.calculateTotalExpense(expenses);
+        assertEquals(Money.of(100.0, "EUR"), totalExpense);
     }
 
     /**
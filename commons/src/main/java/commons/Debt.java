@@ -20,7 +20,8 @@ public class Debt {
     @ManyToOne
     @JoinColumn(name = "user2_id")
     private Participant user2;
-    private double amount;
+    @Embedded
+    private Money amount;
     private boolean settled;
 
     /**
@@ -29,7 +30,7 @@ public class Debt {
      * @param user2  The user to whom the debt is owed.
      * @param amount The amount of the debt.
      */
-    public Debt( Participant user1, Participant user2, double amount) {
+    public Debt( Participant user1, Participant user2, Money amount) {
         this.user1 = user1;
         this.user2 = user2;
         this.amount = amount;
@@ -85,15 +86,15 @@ public class Debt {
      * @return The amount of the debt.
      */
 
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
     /**
      * setter for the amount of the debt
-     * @param amount - amount - double
+     * @param amount - amount of money
      */
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -121,20 +122,20 @@ public class Debt {
      * @throws IllegalStateException    If the debt is already settled.
      * @throws IllegalArgumentException If the amount paid is negative.
      */
-    public void payDebt(double amountPaid) {
+    public void payDebt(Money amountPaid) {
         if (settled) {
             throw new IllegalStateException("Debt is already settled");
         }
 
-        if (amountPaid < 0) {
+        if (amountPaid.isNegative()) {
             throw new IllegalArgumentException("Amount paid cannot be negative");
         }
 
-        if (amountPaid >= amount) {
-            amount = 0;
+        if (amountPaid.compareTo(amount) >= 0) {
+            amount = Money.zero(amount.getCurrency());
             setSettled(true);
         } else {
-            amount -= amountPaid;
+            amount = amount.minus(amountPaid);
         }
     }
 
@@ -153,7 +154,7 @@ public class Debt {
         Debt debt = (Debt) o;
 
         if (debtId != debt.debtId ||
-                Double.compare(amount, debt.amount) != 0) return false;
+                !Objects.equals(amount, debt.amount)) return false;
         if (settled != debt.settled) return false;
         if (!Objects.equals(user1, debt.user1)) return false;
         return Objects.equals(user2, debt.user2);
@@ -167,12 +168,10 @@ public class Debt {
     @Override
     public int hashCode() {
         int result;
-        long temp;
         result = (int) (debtId ^ (debtId >>> 32));
         result = 31 * result + (user1 != null ? user1.hashCode() : 0);
         result = 31 * result + (user2 != null ? user2.hashCode() : 0);
-        temp = Double.doubleToLongBits(amount);
-        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + (amount != null ? amount.hashCode() : 0);
         result = 31 * result + (settled ? 1 : 0);
         return result;
     }
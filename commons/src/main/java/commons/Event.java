@@ -3,19 +3,63 @@ package commons;
 import jakarta.persistence.*;
 
 import java.security.SecureRandom;
-import java.text.DecimalFormat;
 import java.time.LocalDateTime;
 import java.util.*;
 
 /**
- * Event class, used to manage expenses done within a group of people
+ * Event class, used to manage expenses done within a group of people.
+ * The columns the event listings are sorted on are indexed together with the id,
+ * the order the listings are paged in. Invite codes are unique, so joining by code
+ * is a lookup in their index.
+ * The participants and the expenses are both lists, which can't be fetched in one query,
+ * so each has an entity graph of its own.
  */
 @Entity
+@NamedEntityGraphs({
+    @NamedEntityGraph(name = Event.WITH_PARTICIPANTS,
+            attributeNodes = @NamedAttributeNode("participantList")),
+    @NamedEntityGraph(name = Event.WITH_EXPENSES,
+            attributeNodes = @NamedAttributeNode(value = "expenseList", subgraph = "expense"),
+            subgraphs = @NamedSubgraph(name = "expense", attributeNodes = {
+                @NamedAttributeNode("payor"),
+                @NamedAttributeNode("tag")
+            }))
+})
+@Table(indexes = {
+    @Index(name = "idx_event_creation_date", columnList = "creation_date, event_id"),
+    @Index(name = "idx_event_last_activity", columnList = "last_activity, event_id"),
+    @Index(name = "idx_event_title", columnList = "title, event_id"),
+    @Index(name = Event.INVITE_CODE_INDEX, columnList = "invite_code", unique = true)
+})
 public class Event {
 
+    /**
+     * The name of the unique index on the invite codes
+     */
+    public static final String INVITE_CODE_INDEX = "uk_event_invite_code";
+    /**
+     * The entity graph that fetches the participants of an event
+     */
+    public static final String WITH_PARTICIPANTS = "Event.participants";
+    /**
+     * The entity graph that fetches the expenses of an event with their payors and tags
+     */
+    public static final String WITH_EXPENSES = "Event.expenses";
+    private static final SettlementStrategy DEFAULT_SETTLEMENT = new MinCashFlowSettlement();
+    private static final String INVITE_CODE_CHARACTERS =
+            "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    /**
+     * One random source for all invite codes, it is thread safe
+     * and seeding a new one for every code is slow
+     */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private long eventId;
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private long version;
     private String title;
     @ManyToMany(cascade = CascadeType.ALL)
     private List<Participant> participantList;
@@ -203,13 +247,11 @@ public class Event {
      * Generates an invite code randomly
      */
     public void inviteCodeGeneratorAndSetter() {
-        String characters = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
         int codeLength = 8;
-        SecureRandom random = new SecureRandom();
         StringBuilder code = new StringBuilder();
         for (int i=0; i<codeLength; i++) {
-            int randomIndex = random.nextInt(characters.length());
-            code.append(characters.charAt(randomIndex));
+            int randomIndex = RANDOM.nextInt(INVITE_CODE_CHARACTERS.length());
+            code.append(INVITE_CODE_CHARACTERS.charAt(randomIndex));
         }
         inviteCode = code.toString();
     }
@@ -238,73 +280,93 @@ public class Event {
         this.eventId = eventId;
     }
 
+    /**
+     * Getter for the version, raised whenever the event or its lists are changed
+     * @return - the version
+     */
+    public long getVersion() {
+        return version;
+    }
 
     /**
-     * Generates a list of debts based on the list of expenses in the event
+     * Setter for the version
+     * @param version - the version this copy of the event was read at
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+
+    /**
+     * Generates a list of debts based on the list of expenses in the event,
+     * using the minimum number of transfers
      *
      * @return list of debts
      */
     public List<Debt> generateDebts() {
-        Map<Participant, Double> netBalance = getNetBalance();
-        List<Debt> debts = new ArrayList<>();
-        for (Map.Entry<Participant, Double> entry : netBalance.entrySet()) {
-            Participant user = entry.getKey();
-            double balance = entry.getValue();
-            if (balance < 0) {
-                debts.addAll(generateDebtsForUser(user, balance, netBalance));
-            }
-        }
-        return debts;
+        return generateDebts(DEFAULT_SETTLEMENT);
     }
 
     /**
-     * Generates debts for a specific user based on their
-     * net balance and the net balance of other users.
+     * Generates a list of debts based on the list of expenses in the event
      *
-     * @param user       The user for whom to generate debts.
-     * @param balance    The net balance of the user.
-     * @param netBalance The net balances of all users.
-     * @return The list of debts generated for the user.
-     */
-    private List<Debt> generateDebtsForUser(Participant user,
-                                            double balance, Map<Participant, Double> netBalance) {
-        List<Debt> debts = new ArrayList<>();
-        for (Map.Entry<Participant, Double> otherEntry : netBalance.entrySet()) {
-            Participant otherUser = otherEntry.getKey();
-            double otherBalance = otherEntry.getValue();
-            if (otherBalance > 0 && !user.equals(otherUser)) {
-                double amountToSettle = Math.min(Math.abs(balance), otherBalance);
-                DecimalFormat df = new DecimalFormat("0.00");
-                String formattedAmount = df.format(amountToSettle);
-                double res = Double.parseDouble(formattedAmount);
-                debts.add(new Debt(otherUser, user, res));
-                balance += amountToSettle;
-                if (balance == 0) {
-                    break;
-                }
-            }
-        }
-        return debts;
+     * @param strategy - the strategy used to settle the balances
+     * @return list of debts
+     */
+    public List<Debt> generateDebts(SettlementStrategy strategy) {
+        Map<Participant, Integer> indices = new HashMap<>();
+        List<Participant> participants = new ArrayList<>();
+        long[] balances = getNetBalance(indices, participants);
+        String currency = expenseList.isEmpty() ? null : expenseList.get(0).getCurrency();
+        return strategy.generateDebts(participants, balances, currency);
     }
 
     /**
-     * Gets the balance of users, after taking into account all event expenses
-     * @return - return A map representing net balance where the user is the key
+     * Gets the balance of users in cents, after taking into account all event expenses.
+     * A positive balance means the user owes money.
+     * Shares are split in whole cents, so the balances always add up to zero.
+     *
+     * @param indices - filled with the index of every user in the returned array
+     * @param participants - filled with the user at every index of the returned array
+     * @return - the net balance of every user
      */
-    private Map<Participant, Double> getNetBalance() {
-        Map<Participant, Double> netBalance = new HashMap<>();
+    private long[] getNetBalance(Map<Participant, Integer> indices,
+                                 List<Participant> participants) {
+        for (Expense expense : expenseList) {
+            assignIndex(expense.getPayor(), indices, participants);
+            for (Participant u : expense.getBeneficiaries()) {
+                assignIndex(u, indices, participants);
+            }
+        }
+        long[] netBalance = new long[participants.size()];
         for (Expense expense : expenseList) {
-            Participant payor = expense.getPayor();
-            double amount = expense.getAmount();
             List<Participant> beneficiaries = expense.getBeneficiaries();
-            netBalance.put(payor, netBalance.getOrDefault(payor, 0.0) - amount);
-            double beneficiaryShare = amount / beneficiaries.size();
-            for (Participant u : beneficiaries) {
-                netBalance.put(u, netBalance.getOrDefault(u, 0.0) + beneficiaryShare);
+            if (beneficiaries.isEmpty()) {
+                continue;
+            }
+            netBalance[indices.get(expense.getPayor())] -= expense.amountInCents();
+            for (int i = 0; i < beneficiaries.size(); i++) {
+                netBalance[indices.get(beneficiaries.get(i))] += expense.shareInCents(i);
             }
         }
         return netBalance;
     }
+
+    /**
+     * Looks up the index of a user, assigning the next free index if it has none yet
+     *
+     * @param user - the user to look up
+     * @param indices - the index of every user seen so far
+     * @param participants - the user at every index
+     */
+    private static void assignIndex(Participant user, Map<Participant, Integer> indices,
+                                List<Participant> participants) {
+        if (!indices.containsKey(user)) {
+            indices.put(user, participants.size());
+            participants.add(user);
+        }
+    }
+
         /**
      * Sets the participant list
      * @param participantList - the list of participants
@@ -0,0 +1,94 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The answer to a request for several events at once,
+ * the events that were found and the ids of the ones that don't exist (anymore).
+ */
+public class EventBatch {
+    private List<Event> events;
+    private List<Long> missing;
+
+    /**
+     * Empty constructor - required for the object mappers
+     */
+    public EventBatch() {
+        this(new ArrayList<>(), new ArrayList<>());
+    }
+
+    /**
+     * Creates a batch
+     * @param events - the events that were found, in the order they were asked for
+     * @param missing - the ids without an event
+     */
+    public EventBatch(List<Event> events, List<Long> missing) {
+        this.events = events;
+        this.missing = missing;
+    }
+
+    /**
+     * Gets the events that were found
+     * @return - the events
+     */
+    public List<Event> getEvents() {
+        return events;
+    }
+
+    /**
+     * Sets the events that were found
+     * @param events - the events
+     */
+    public void setEvents(List<Event> events) {
+        this.events = events;
+    }
+
+    /**
+     * Gets the ids that don't belong to an event
+     * @return - the missing ids
+     */
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    /**
+     * Sets the ids that don't belong to an event
+     * @param missing - the missing ids
+     */
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+
+    /**
+     * Checks for equality
+     * @param o - object to compare
+     * @return - true if o holds the same events and missing ids
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventBatch that = (EventBatch) o;
+        return Objects.equals(events, that.events) && Objects.equals(missing, that.missing);
+    }
+
+    /**
+     * hashcode method
+     * @return - int representing the batch
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(events, missing);
+    }
+
+    /**
+     * Turns the object into a human-readable format
+     * @return the number of found events and the missing ids
+     */
+    @Override
+    public String toString() {
+        return "EventBatch{" + events.size() + " events, missing " + missing + "}";
+    }
+}
@@ -0,0 +1,383 @@
+package commons;
+
+import java.util.*;
+import java.util.function.ToLongFunction;
+
+/**
+ * A single change to an event, sent to clients instead of the whole event.
+ * Every change carries the version of the event after the write that made it.
+ * The version goes up by one with every write and the changes of one write share it,
+ * so a client can tell when it missed one.
+ * Applying a change is idempotent, applying it to an event that already contains it
+ * leaves the event the same.
+ */
+public class EventChange {
+
+    /**
+     * The kind of change
+     */
+    public enum Type {
+        TITLE_CHANGED,
+        PARTICIPANT_ADDED,
+        PARTICIPANT_UPDATED,
+        PARTICIPANT_REMOVED,
+        EXPENSE_ADDED,
+        EXPENSE_UPDATED,
+        EXPENSE_REMOVED,
+        EVENT_DELETED
+    }
+
+    private long eventId;
+    private long version;
+    private Type type;
+    private String title;
+    private Participant participant;
+    private Expense expense;
+    private long removedId;
+
+    /**
+     * Empty constructor - required for the object mappers
+     */
+    public EventChange() {
+    }
+
+    /**
+     * Creates a change
+     * @param eventId - the id of the changed event
+     * @param type - the kind of change
+     */
+    private EventChange(long eventId, Type type) {
+        this.eventId = eventId;
+        this.type = type;
+    }
+
+    /**
+     * Creates a change of the title of an event
+     * @param eventId - the id of the event
+     * @param title - the new title
+     * @return - the change
+     */
+    public static EventChange titleChanged(long eventId, String title) {
+        EventChange change = new EventChange(eventId, Type.TITLE_CHANGED);
+        change.title = title;
+        return change;
+    }
+
+    /**
+     * Creates a change that adds or updates a participant
+     * @param eventId - the id of the event
+     * @param participant - the new state of the participant
+     * @param added - true if the participant joined the event
+     * @return - the change
+     */
+    public static EventChange participantChanged(long eventId, Participant participant,
+                                                 boolean added) {
+        EventChange change = new EventChange(eventId,
+                added ? Type.PARTICIPANT_ADDED : Type.PARTICIPANT_UPDATED);
+        change.participant = participant;
+        return change;
+    }
+
+    /**
+     * Creates a change that removes a participant
+     * @param eventId - the id of the event
+     * @param userId - the id of the removed participant
+     * @return - the change
+     */
+    public static EventChange participantRemoved(long eventId, long userId) {
+        EventChange change = new EventChange(eventId, Type.PARTICIPANT_REMOVED);
+        change.removedId = userId;
+        return change;
+    }
+
+    /**
+     * Creates a change that adds or updates an expense
+     * @param eventId - the id of the event
+     * @param expense - the new state of the expense
+     * @param added - true if the expense is new
+     * @return - the change
+     */
+    public static EventChange expenseChanged(long eventId, Expense expense, boolean added) {
+        EventChange change = new EventChange(eventId,
+                added ? Type.EXPENSE_ADDED : Type.EXPENSE_UPDATED);
+        change.expense = expense;
+        return change;
+    }
+
+    /**
+     * Creates a change that removes an expense
+     * @param eventId - the id of the event
+     * @param expenseId - the id of the removed expense
+     * @return - the change
+     */
+    public static EventChange expenseRemoved(long eventId, long expenseId) {
+        EventChange change = new EventChange(eventId, Type.EXPENSE_REMOVED);
+        change.removedId = expenseId;
+        return change;
+    }
+
+    /**
+     * Creates a change that tells the event was deleted
+     * @param eventId - the id of the deleted event
+     * @return - the change
+     */
+    public static EventChange eventDeleted(long eventId) {
+        return new EventChange(eventId, Type.EVENT_DELETED);
+    }
+
+    /**
+     * Computes the changes that turn one state of an event into another
+     * @param before - the old state of the event
+     * @param after - the new state of the event
+     * @return - the changes, without versions
+     */
+    public static List<EventChange> diff(Event before, Event after) {
+        long eventId = before.getEventId();
+        List<EventChange> changes = new ArrayList<>();
+        if (!Objects.equals(before.getTitle(), after.getTitle())) {
+            changes.add(titleChanged(eventId, after.getTitle()));
+        }
+
+        Map<Long, Participant> oldParticipants =
+                byId(before.getParticipants(), Participant::getUserId);
+        for (Participant participant : listOf(after.getParticipants())) {
+            Participant old = oldParticipants.remove(participant.getUserId());
+            if (!participant.equals(old)) {
+                changes.add(participantChanged(eventId, participant, old == null));
+            }
+        }
+        oldParticipants.keySet().forEach(id -> changes.add(participantRemoved(eventId, id)));
+
+        Map<Long, Expense> oldExpenses = byId(before.getExpenses(), Expense::getExpenseId);
+        for (Expense expense : listOf(after.getExpenses())) {
+            Expense old = oldExpenses.remove(expense.getExpenseId());
+            if (!expense.equals(old)) {
+                changes.add(expenseChanged(eventId, expense, old == null));
+            }
+        }
+        oldExpenses.keySet().forEach(id -> changes.add(expenseRemoved(eventId, id)));
+        return changes;
+    }
+
+    /**
+     * Applies this change to an event. A deletion leaves the event as it is,
+     * it is up to the holder of the event to drop it.
+     * The event takes the version of the change when it is the next one, so it can be
+     * sent back as the version an update is based on. After a gap the version stays,
+     * as the event misses the writes in between.
+     * @param event - the event to change
+     */
+    public void applyTo(Event event) {
+        if (version == event.getVersion() + 1) {
+            event.setVersion(version);
+        }
+        switch (type) {
+            case TITLE_CHANGED -> event.setTitle(title);
+            case PARTICIPANT_ADDED, PARTICIPANT_UPDATED -> {
+                replace(event.getParticipants(), participant, Participant::getUserId);
+                event.getExpenses().forEach(this::replaceParticipant);
+            }
+            case PARTICIPANT_REMOVED ->
+                    event.getParticipants().removeIf(p -> p.getUserId() == removedId);
+            case EXPENSE_ADDED, EXPENSE_UPDATED ->
+                    replace(event.getExpenses(), expense, Expense::getExpenseId);
+            case EXPENSE_REMOVED ->
+                    event.getExpenses().removeIf(e -> e.getExpenseId() == removedId);
+            case EVENT_DELETED -> {
+            }
+            default -> throw new IllegalStateException("Unknown change " + type);
+        }
+    }
+
+    /**
+     * Makes an expense refer to the new state of the changed participant
+     */
+    private void replaceParticipant(Expense e) {
+        long id = participant.getUserId();
+        if (e.getPayor() != null && e.getPayor().getUserId() == id) {
+            e.setPayor(participant);
+        }
+        if (e.getBeneficiaries() != null) {
+            List<Participant> beneficiaries = new ArrayList<>(e.getBeneficiaries());
+            beneficiaries.replaceAll(p -> p.getUserId() == id ? participant : p);
+            e.setBeneficiaries(beneficiaries);
+        }
+    }
+
+    /**
+     * Replaces the element with the same id, or adds it at the end if there is none
+     */
+    private static <T> void replace(List<T> list, T element, ToLongFunction<T> id) {
+        for (int i = 0; i < list.size(); i++) {
+            if (id.applyAsLong(list.get(i)) == id.applyAsLong(element)) {
+                list.set(i, element);
+                return;
+            }
+        }
+        list.add(element);
+    }
+
+    /**
+     * Indexes a list by id, keeping its order
+     */
+    private static <T> Map<Long, T> byId(List<T> list, ToLongFunction<T> id) {
+        Map<Long, T> result = new LinkedHashMap<>();
+        for (T element : listOf(list)) {
+            result.put(id.applyAsLong(element), element);
+        }
+        return result;
+    }
+
+    /**
+     * Treats a missing list as an empty one
+     */
+    private static <T> List<T> listOf(List<T> list) {
+        return list == null ? List.of() : list;
+    }
+
+    /**
+     * Gets the id of the changed event
+     * @return - the event id
+     */
+    public long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Sets the id of the changed event
+     * @param eventId - the event id
+     */
+    public void setEventId(long eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * Gets the version of the event after this change
+     * @return - the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the event after this change
+     * @param version - the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    /**
+     * Gets the kind of change
+     * @return - the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Sets the kind of change
+     * @param type - the type
+     */
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the new title, for title changes
+     * @return - the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the new title
+     * @param title - the title
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the added or updated participant, for participant changes
+     * @return - the participant
+     */
+    public Participant getParticipant() {
+        return participant;
+    }
+
+    /**
+     * Sets the added or updated participant
+     * @param participant - the participant
+     */
+    public void setParticipant(Participant participant) {
+        this.participant = participant;
+    }
+
+    /**
+     * Gets the added or updated expense, for expense changes
+     * @return - the expense
+     */
+    public Expense getExpense() {
+        return expense;
+    }
+
+    /**
+     * Sets the added or updated expense
+     * @param expense - the expense
+     */
+    public void setExpense(Expense expense) {
+        this.expense = expense;
+    }
+
+    /**
+     * Gets the id of the removed participant or expense
+     * @return - the id
+     */
+    public long getRemovedId() {
+        return removedId;
+    }
+
+    /**
+     * Sets the id of the removed participant or expense
+     * @param removedId - the id
+     */
+    public void setRemovedId(long removedId) {
+        this.removedId = removedId;
+    }
+
+    /**
+     * Checks for equality
+     * @param o - object to compare
+     * @return - true if o is the same change
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventChange that = (EventChange) o;
+        return eventId == that.eventId && version == that.version && type == that.type
+                && removedId == that.removedId && Objects.equals(title, that.title)
+                && Objects.equals(participant, that.participant)
+                && Objects.equals(expense, that.expense);
+    }
+
+    /**
+     * hashcode method
+     * @return - int representing the change
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventId, version, type, title, removedId);
+    }
+
+    /**
+     * Turns the object into a human-readable format
+     * @return the type, event and version of the change
+     */
+    @Override
+    public String toString() {
+        return "EventChange{" + type + " of event " + eventId + ", version " + version + "}";
+    }
+}
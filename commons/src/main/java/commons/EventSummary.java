@@ -0,0 +1,239 @@
+package commons;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * The fields of an event that list views show, without its participants and expenses.
+ * The server builds summaries straight from a query, so listing events
+ * doesn't load any participant or expense.
+ */
+public class EventSummary {
+    private long eventId;
+    private String title;
+    private String inviteCode;
+    private LocalDateTime creationDate;
+    private LocalDateTime lastActivity;
+    private int participantCount;
+    private int expenseCount;
+    private long totalCents;
+
+    /**
+     * Empty constructor - required for the object mappers
+     */
+    public EventSummary() {
+    }
+
+    /**
+     * Creates a summary, the constructor the summary queries call
+     * @param eventId - the id of the event
+     * @param title - the title
+     * @param inviteCode - the invite code
+     * @param creationDate - when the event was created
+     * @param lastActivity - when the event was last changed
+     * @param participantCount - the number of participants
+     * @param expenseCount - the number of expenses
+     * @param totalCents - the sum of the amounts of the expenses in cents
+     */
+    public EventSummary(Long eventId, String title, String inviteCode,
+                        LocalDateTime creationDate, LocalDateTime lastActivity,
+                        Integer participantCount, Integer expenseCount, Long totalCents) {
+        this.eventId = eventId;
+        this.title = title;
+        this.inviteCode = inviteCode;
+        this.creationDate = creationDate;
+        this.lastActivity = lastActivity;
+        this.participantCount = participantCount;
+        this.expenseCount = expenseCount;
+        this.totalCents = totalCents == null ? 0 : totalCents;
+    }
+
+    /**
+     * Creates the summary of an event that is already loaded
+     * @param event - the event
+     * @return - the summary
+     */
+    public static EventSummary of(Event event) {
+        long total = 0;
+        for (Expense expense : event.getExpenses()) {
+            total += expense.getAmount().getCents();
+        }
+        return new EventSummary(event.getEventId(), event.getTitle(), event.getInviteCode(),
+                event.getCreationDate(), event.getLastActivity(),
+                event.getParticipants().size(), event.getExpenses().size(), total);
+    }
+
+    /**
+     * Gets the id of the event
+     * @return - the id
+     */
+    public long getEventId() {
+        return eventId;
+    }
+
+    /**
+     * Sets the id of the event
+     * @param eventId - the id
+     */
+    public void setEventId(long eventId) {
+        this.eventId = eventId;
+    }
+
+    /**
+     * Gets the title
+     * @return - the title
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * Sets the title
+     * @param title - the title
+     */
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    /**
+     * Gets the invite code
+     * @return - the invite code
+     */
+    public String getInviteCode() {
+        return inviteCode;
+    }
+
+    /**
+     * Sets the invite code
+     * @param inviteCode - the invite code
+     */
+    public void setInviteCode(String inviteCode) {
+        this.inviteCode = inviteCode;
+    }
+
+    /**
+     * Gets when the event was created
+     * @return - the creation date
+     */
+    public LocalDateTime getCreationDate() {
+        return creationDate;
+    }
+
+    /**
+     * Sets when the event was created
+     * @param creationDate - the creation date
+     */
+    public void setCreationDate(LocalDateTime creationDate) {
+        this.creationDate = creationDate;
+    }
+
+    /**
+     * Gets when the event was last changed
+     * @return - the last activity
+     */
+    public LocalDateTime getLastActivity() {
+        return lastActivity;
+    }
+
+    /**
+     * Sets when the event was last changed
+     * @param lastActivity - the last activity
+     */
+    public void setLastActivity(LocalDateTime lastActivity) {
+        this.lastActivity = lastActivity;
+    }
+
+    /**
+     * Gets the number of participants
+     * @return - the participant count
+     */
+    public int getParticipantCount() {
+        return participantCount;
+    }
+
+    /**
+     * Sets the number of participants
+     * @param participantCount - the participant count
+     */
+    public void setParticipantCount(int participantCount) {
+        this.participantCount = participantCount;
+    }
+
+    /**
+     * Gets the number of expenses
+     * @return - the expense count
+     */
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+
+    /**
+     * Sets the number of expenses
+     * @param expenseCount - the expense count
+     */
+    public void setExpenseCount(int expenseCount) {
+        this.expenseCount = expenseCount;
+    }
+
+    /**
+     * Gets the sum of the amounts of the expenses in cents,
+     * the amounts are added up as they are, whatever their currency
+     * @return - the total in cents
+     */
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    /**
+     * Sets the sum of the amounts of the expenses in cents
+     * @param totalCents - the total in cents
+     */
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    /**
+     * Checks for equality
+     * @param o - object to compare
+     * @return - true if o summarizes the same event in the same state
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventSummary that = (EventSummary) o;
+        return eventId == that.eventId && participantCount == that.participantCount
+                && expenseCount == that.expenseCount && totalCents == that.totalCents
+                && Objects.equals(title, that.title)
+                && Objects.equals(inviteCode, that.inviteCode)
+                && Objects.equals(creationDate, that.creationDate)
+                && Objects.equals(lastActivity, that.lastActivity);
+    }
+
+    /**
+     * hashcode method
+     * @return - int representing the summary
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(eventId, title, inviteCode, creationDate, lastActivity,
+                participantCount, expenseCount, totalCents);
+    }
+
+    /**
+     * Turns the object into a human-readable format
+     * @return the fields of the summary
+     */
+    @Override
+    public String toString() {
+        return "Event {" +
+                "\n  Title: '" + title + '\'' +
+                "\n  Id: " + eventId +
+                "\n  Participants: " + participantCount +
+                "\n  Expenses: " + expenseCount +
+                "\n  Created: " + creationDate +
+                "\n  Last Activity: " + lastActivity +
+                "\n  inviteCode: '" + inviteCode + '\'' +
+                "\n}";
+    }
+}
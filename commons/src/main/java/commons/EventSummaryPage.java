@@ -0,0 +1,94 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A page of event summaries in a sorted listing,
+ * with the cursor to ask for the page after it.
+ */
+public class EventSummaryPage {
+    private List<EventSummary> summaries;
+    private String next;
+
+    /**
+     * Empty constructor - required for the object mappers
+     */
+    public EventSummaryPage() {
+        this(new ArrayList<>(), null);
+    }
+
+    /**
+     * Creates a page
+     * @param summaries - the summaries on the page, in order
+     * @param next - the cursor of the next page, or null if this is the last page
+     */
+    public EventSummaryPage(List<EventSummary> summaries, String next) {
+        this.summaries = summaries;
+        this.next = next;
+    }
+
+    /**
+     * Gets the summaries on the page
+     * @return - the summaries
+     */
+    public List<EventSummary> getSummaries() {
+        return summaries;
+    }
+
+    /**
+     * Sets the summaries on the page
+     * @param summaries - the summaries
+     */
+    public void setSummaries(List<EventSummary> summaries) {
+        this.summaries = summaries;
+    }
+
+    /**
+     * Gets the cursor of the next page
+     * @return - the cursor, or null if this is the last page
+     */
+    public String getNext() {
+        return next;
+    }
+
+    /**
+     * Sets the cursor of the next page
+     * @param next - the cursor, or null if this is the last page
+     */
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    /**
+     * Checks for equality
+     * @param o - object to compare
+     * @return - true if o holds the same summaries and cursor
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EventSummaryPage that = (EventSummaryPage) o;
+        return Objects.equals(summaries, that.summaries) && Objects.equals(next, that.next);
+    }
+
+    /**
+     * hashcode method
+     * @return - int representing the page
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(summaries, next);
+    }
+
+    /**
+     * Turns the object into a human-readable format
+     * @return the number of summaries and the next cursor
+     */
+    @Override
+    public String toString() {
+        return "EventSummaryPage{" + summaries.size() + " events, next " + next + "}";
+    }
+}
@@ -0,0 +1,134 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The answer to a batch of rate queries: the rates between every two of the currencies
+ * asked for, on every day asked for. rates[d][i][j] is what one unit of currencies[i]
+ * is worth in currencies[j] on dates[d].
+ */
+public class ExchangeRateMatrix {
+    private List<String> dates;
+    private List<String> currencies;
+    private double[][][] rates;
+
+    /**
+     * Empty constructor - required for the object mappers
+     */
+    public ExchangeRateMatrix() {
+        this(new ArrayList<>(), new ArrayList<>(), new double[0][][]);
+    }
+
+    /**
+     * Creates a matrix
+     * @param dates - the days, as yyyy-mm-dd
+     * @param currencies - the currencies
+     * @param rates - the rates, by day, currency converted from and currency converted to
+     */
+    public ExchangeRateMatrix(List<String> dates, List<String> currencies, double[][][] rates) {
+        this.dates = dates;
+        this.currencies = currencies;
+        this.rates = rates;
+    }
+
+    /**
+     * Looks up a rate
+     * @param date - the day, as yyyy-mm-dd
+     * @param from - the currency converted from
+     * @param to - the currency converted to
+     * @return - what one unit of from is worth in to on that day
+     * @throws IllegalArgumentException if the matrix doesn't hold the day or a currency
+     */
+    public double getRate(String date, String from, String to) {
+        int d = dates.indexOf(date);
+        int i = currencies.indexOf(from);
+        int j = currencies.indexOf(to);
+        if (d < 0 || i < 0 || j < 0) {
+            throw new IllegalArgumentException("No rate for " + date + " " + from + "->" + to);
+        }
+        return rates[d][i][j];
+    }
+
+    /**
+     * Gets the days
+     * @return - the dates, as yyyy-mm-dd
+     */
+    public List<String> getDates() {
+        return dates;
+    }
+
+    /**
+     * Sets the days
+     * @param dates - the dates, as yyyy-mm-dd
+     */
+    public void setDates(List<String> dates) {
+        this.dates = dates;
+    }
+
+    /**
+     * Gets the currencies
+     * @return - the currencies
+     */
+    public List<String> getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * Sets the currencies
+     * @param currencies - the currencies
+     */
+    public void setCurrencies(List<String> currencies) {
+        this.currencies = currencies;
+    }
+
+    /**
+     * Gets the rates
+     * @return - the rates, by day, currency converted from and currency converted to
+     */
+    public double[][][] getRates() {
+        return rates;
+    }
+
+    /**
+     * Sets the rates
+     * @param rates - the rates, by day, currency converted from and currency converted to
+     */
+    public void setRates(double[][][] rates) {
+        this.rates = rates;
+    }
+
+    /**
+     * Checks for equality
+     * @param o - object to compare
+     * @return - true if o holds the same rates for the same days and currencies
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExchangeRateMatrix that = (ExchangeRateMatrix) o;
+        return Objects.equals(dates, that.dates) && Objects.equals(currencies, that.currencies)
+                && Arrays.deepEquals(rates, that.rates);
+    }
+
+    /**
+     * hashcode method
+     * @return - int representing the matrix
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(dates, currencies, Arrays.deepHashCode(rates));
+    }
+
+    /**
+     * Turns the object into a human-readable format
+     * @return the days and currencies
+     */
+    @Override
+    public String toString() {
+        return "ExchangeRateMatrix{" + dates + " x " + currencies + "}";
+    }
+}
@@ -0,0 +1,110 @@
+package commons;
+
+import java.util.Objects;
+
+/**
+ * One rate asked for in a batch: what one unit of a currency is worth in another on a day
+ */
+public class ExchangeRateQuery {
+    private String date;
+    private String from;
+    private String to;
+
+    /**
+     * Empty constructor - required for the object mappers
+     */
+    public ExchangeRateQuery() {
+    }
+
+    /**
+     * Creates a query
+     * @param date - the day, as yyyy-mm-dd
+     * @param from - the currency converted from
+     * @param to - the currency converted to
+     */
+    public ExchangeRateQuery(String date, String from, String to) {
+        this.date = date;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Gets the day
+     * @return - the date, as yyyy-mm-dd
+     */
+    public String getDate() {
+        return date;
+    }
+
+    /**
+     * Sets the day
+     * @param date - the date, as yyyy-mm-dd
+     */
+    public void setDate(String date) {
+        this.date = date;
+    }
+
+    /**
+     * Gets the currency converted from
+     * @return - the currency
+     */
+    public String getFrom() {
+        return from;
+    }
+
+    /**
+     * Sets the currency converted from
+     * @param from - the currency
+     */
+    public void setFrom(String from) {
+        this.from = from;
+    }
+
+    /**
+     * Gets the currency converted to
+     * @return - the currency
+     */
+    public String getTo() {
+        return to;
+    }
+
+    /**
+     * Sets the currency converted to
+     * @param to - the currency
+     */
+    public void setTo(String to) {
+        this.to = to;
+    }
+
+    /**
+     * Checks for equality
+     * @param o - object to compare
+     * @return - true if o asks for the same rate
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExchangeRateQuery that = (ExchangeRateQuery) o;
+        return Objects.equals(date, that.date) && Objects.equals(from, that.from)
+                && Objects.equals(to, that.to);
+    }
+
+    /**
+     * hashcode method
+     * @return - int representing the query
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(date, from, to);
+    }
+
+    /**
+     * Turns the object into a human-readable format
+     * @return the date and currencies
+     */
+    @Override
+    public String toString() {
+        return date + " " + from + "->" + to;
+    }
+}
@@ -13,11 +13,14 @@ public class Expense {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private long expenseId;
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private long version;
     @ManyToOne
     @JoinColumn(name = "payor_id")
     private Participant payor;
-    private double amount;
-    private String currency;
+    @Embedded
+    private Money amount;
 
     @ManyToMany(cascade = CascadeType.DETACH)
     private List<Participant> beneficiaries;
@@ -39,9 +42,22 @@ public class Expense {
     public Expense(Participant payor, double amount, String currency,
                    List<Participant> beneficiaries,
                    String expenseName, Date date, Tag tag) {
+        this(payor, Money.of(amount, currency), beneficiaries, expenseName, date, tag);
+    }
+
+    /**
+     * Contructor for the Expense class
+     * @param payor - user who pays for the expense
+     * @param amount - amount of money the expense cost, in its currency
+     * @param beneficiaries - list of users for which the expense was paid for
+     * @param expenseName - name of the expense
+     * @param date - the date when the expense happened
+     * @param tag - the type of expense the user made
+     */
+    public Expense(Participant payor, Money amount, List<Participant> beneficiaries,
+                   String expenseName, Date date, Tag tag) {
         this.payor = payor;
         this.amount = amount;
-        this.currency = currency;
         this.beneficiaries = beneficiaries;
         this.expenseName = expenseName;
         this.date = date;
@@ -81,12 +97,31 @@ public class Expense {
 
     /**
      * Getter for the cost of expense
-     * @return - a double which represents the cost of the expense
+     * @return - the money the expense cost
      */
-    public double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
+    /**
+     * Gets the amount of the expense in cents
+     * @return - the amount in cents
+     */
+    public long amountInCents() {
+        return amount.getCents();
+    }
+
+    /**
+     * Gets the part of the expense paid for the beneficiary at the given position.
+     * The cents that can't be split evenly go to the first beneficiaries,
+     * so the shares always add up to the whole amount.
+     * @param index - position of the beneficiary in the list of beneficiaries
+     * @return - the share of the beneficiary in cents
+     */
+    public long shareInCents(int index) {
+        return amount.share(beneficiaries.size(), index);
+    }
+
     /**
      * Getter for the beneficiaries of the expense
      * @return - list of Users for which the expense is paid for
@@ -124,7 +159,7 @@ public class Expense {
      * edits the cost of the expense
      * @param amount - new amount to be set
      */
-    public void setAmount(double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -170,6 +205,22 @@ public class Expense {
         this.expenseId = expenseId;
     }
 
+    /**
+     * Getter for the version, which goes up every time the expense is saved
+     * @return - the version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Setter for the version, a save with an outdated version is refused
+     * @param version - the version this copy of the expense is based on
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
 
     /**
      * Checks equality between an Object and an Expense
@@ -183,12 +234,12 @@ public class Expense {
 
         Expense expense = (Expense) o;
 
-        if (Double.compare(amount, expense.amount) != 0) return false;
+        if (!Objects.equals(amount, expense.amount)) return false;
         if (!Objects.equals(payor, expense.payor)
                 || !Objects.equals(beneficiaries, expense.beneficiaries)) return false;
         if (!Objects.equals(expenseName, expense.expenseName)
                 || !Objects.equals(date, expense.date)) return false;
-        return this.tag.equals(expense.tag);
+        return Objects.equals(tag, expense.tag);
     }
 
     /**
@@ -198,10 +249,8 @@ public class Expense {
     @Override
     public int hashCode() {
         int result;
-        long temp;
         result = payor != null ? payor.hashCode() : 0;
-        temp = Double.doubleToLongBits(amount);
-        result = 31 * result + (int) (temp ^ (temp >>> 32));
+        result = 31 * result + (amount != null ? amount.hashCode() : 0);
         result = 31 * result + (beneficiaries != null ? beneficiaries.hashCode() : 0);
         result = 31 * result + (expenseName != null ? expenseName.hashCode() : 0);
         result = 31 * result + (date != null ? date.hashCode() : 0);
@@ -225,14 +274,14 @@ public class Expense {
      * @return the currency
      */
     public String getCurrency() {
-        return currency;
+        return amount == null ? null : amount.getCurrency();
     }
 
     /**
-     * sets the currency
+     * sets the currency, keeping the amount
      * @param currency the new currency
      */
     public void setCurrency(String currency) {
-        this.currency = currency;
+        amount = Money.ofCents(amount == null ? 0 : amount.getCents(), currency);
     }
 }
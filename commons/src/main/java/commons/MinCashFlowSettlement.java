@@ -0,0 +1,119 @@
+package commons;
+
+/**
+ * Greedy minimum cash flow settlement.
+ * The biggest debtor always pays the biggest creditor, so every transfer
+ * settles at least one of the two and at most n - 1 transfers are made.
+ * Both sides are kept in binary max heaps of participant indices,
+ * which makes the whole settlement O(n log n) without allocating per transfer.
+ */
+public class MinCashFlowSettlement implements SettlementStrategy {
+
+    /**
+     * Computes the transfers that settle the given balances.
+     * @param balances - net balance in cents for every participant index
+     * @param transfers - receives every transfer that has to be made
+     */
+    @Override
+    public void settle(long[] balances, TransferConsumer transfers) {
+        int n = balances.length;
+        long[] remaining = new long[n];
+        IndexHeap debtors = new IndexHeap(remaining, n);
+        IndexHeap creditors = new IndexHeap(remaining, n);
+        for (int i = 0; i < n; i++) {
+            remaining[i] = Math.abs(balances[i]);
+            if (balances[i] > 0) {
+                debtors.push(i);
+            } else if (balances[i] < 0) {
+                creditors.push(i);
+            }
+        }
+
+        while (!debtors.isEmpty() && !creditors.isEmpty()) {
+            int debtor = debtors.pop();
+            int creditor = creditors.pop();
+            long amount = Math.min(remaining[debtor], remaining[creditor]);
+            transfers.accept(debtor, creditor, amount);
+            remaining[debtor] -= amount;
+            remaining[creditor] -= amount;
+            if (remaining[debtor] > 0) {
+                debtors.push(debtor);
+            }
+            if (remaining[creditor] > 0) {
+                creditors.push(creditor);
+            }
+        }
+    }
+
+    /**
+     * Binary max heap of indices, ordered by the values they point to
+     */
+    private static final class IndexHeap {
+        private final long[] keys;
+        private final int[] heap;
+        private int size;
+
+        /**
+         * Creates an empty heap
+         * @param keys - the values the indices are ordered by
+         * @param capacity - maximum number of indices in the heap
+         */
+        IndexHeap(long[] keys, int capacity) {
+            this.keys = keys;
+            this.heap = new int[capacity];
+        }
+
+        /**
+         * Checks if the heap is empty
+         * @return - true if there are no indices left
+         */
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        /**
+         * Adds an index to the heap
+         * @param index - the index to add
+         */
+        void push(int index) {
+            int pos = size++;
+            while (pos > 0) {
+                int parent = (pos - 1) >>> 1;
+                if (keys[heap[parent]] >= keys[index]) {
+                    break;
+                }
+                heap[pos] = heap[parent];
+                pos = parent;
+            }
+            heap[pos] = index;
+        }
+
+        /**
+         * Removes the index with the largest key
+         * @return - the removed index
+         */
+        int pop() {
+            int top = heap[0];
+            int last = heap[--size];
+            int pos = 0;
+            while (true) {
+                int child = 2 * pos + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && keys[heap[child + 1]] > keys[heap[child]]) {
+                    child++;
+                }
+                if (keys[heap[child]] <= keys[last]) {
+                    break;
+                }
+                heap[pos] = heap[child];
+                pos = child;
+            }
+            if (size > 0) {
+                heap[pos] = last;
+            }
+            return top;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package commons;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * An amount of money, stored exactly as a whole number of cents plus a currency code.
+ * Money is immutable, all arithmetic returns a new instance.
+ * A currency of null means the currency is not known, it takes over
+ * the currency of whatever it is combined with.
+ */
+@Embeddable
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public class Money implements Comparable<Money> {
+
+    @Column(name = "amount_cents")
+    private long cents;
+    @Column(name = "currency")
+    private String currency;
+
+    /**
+     * Empty constructor - required for the database connection
+     */
+    protected Money() {
+    }
+
+    /**
+     * Creates an amount of money
+     * @param cents - the amount in cents
+     * @param currency - the currency code
+     */
+    private Money(long cents, String currency) {
+        this.cents = cents;
+        this.currency = currency;
+    }
+
+    /**
+     * Creates an amount of money from a number of cents
+     * @param cents - the amount in cents
+     * @param currency - the currency code, or null if unknown
+     * @return - the money
+     */
+    public static Money ofCents(long cents, String currency) {
+        return new Money(cents, currency);
+    }
+
+    /**
+     * Creates an amount of money from a decimal amount, rounded half up to whole cents
+     * @param amount - the amount, for example 12.34
+     * @param currency - the currency code, or null if unknown
+     * @return - the money
+     */
+    public static Money of(double amount, String currency) {
+        return new Money(BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP)
+                .unscaledValue().longValueExact(), currency);
+    }
+
+    /**
+     * Creates zero money
+     * @param currency - the currency code, or null if unknown
+     * @return - zero in the given currency
+     */
+    public static Money zero(String currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Gets the amount in cents
+     * @return - the amount in cents
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Gets the currency code
+     * @return - the currency code, or null if unknown
+     */
+    public String getCurrency() {
+        return currency;
+    }
+
+    /**
+     * Gets the amount as a decimal number, only meant for displaying it
+     * @return - the amount, for example 12.34
+     */
+    public double toDouble() {
+        return cents / 100.0;
+    }
+
+    /**
+     * Adds two amounts of money
+     * @param other - the money to add
+     * @return - the sum
+     * @throws IllegalArgumentException if the currencies differ
+     */
+    public Money plus(Money other) {
+        return new Money(Math.addExact(cents, other.cents), combine(other));
+    }
+
+    /**
+     * Subtracts an amount of money
+     * @param other - the money to subtract
+     * @return - the difference
+     * @throws IllegalArgumentException if the currencies differ
+     */
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(cents, other.cents), combine(other));
+    }
+
+    /**
+     * Negates the amount
+     * @return - the same amount with the opposite sign
+     */
+    public Money negate() {
+        return new Money(-cents, currency);
+    }
+
+    /**
+     * Converts the money to another currency, rounded half up to whole cents
+     * @param rate - the exchange rate from this currency to the new one
+     * @param newCurrency - the currency to convert to
+     * @return - the converted money
+     */
+    public Money convert(double rate, String newCurrency) {
+        return new Money(BigDecimal.valueOf(cents).multiply(BigDecimal.valueOf(rate))
+                .setScale(0, RoundingMode.HALF_UP).longValueExact(), newCurrency);
+    }
+
+    /**
+     * Gets one part of the money when it is split into equal parts.
+     * The cents that can't be split evenly go to the first parts,
+     * so all the parts add up to the whole amount.
+     * @param parts - the number of parts
+     * @param index - which part to get, starting at 0
+     * @return - the part in cents
+     */
+    public long share(int parts, int index) {
+        long part = cents / parts;
+        long remainder = cents % parts;
+        if (remainder >= 0) {
+            return part + (index < remainder ? 1 : 0);
+        }
+        return part - (index < -remainder ? 1 : 0);
+    }
+
+    /**
+     * Checks if the amount is zero
+     * @return - true if the amount is zero
+     */
+    public boolean isZero() {
+        return cents == 0;
+    }
+
+    /**
+     * Checks if the amount is more than zero
+     * @return - true if the amount is positive
+     */
+    public boolean isPositive() {
+        return cents > 0;
+    }
+
+    /**
+     * Checks if the amount is less than zero
+     * @return - true if the amount is negative
+     */
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    /**
+     * Compares the amounts of two moneys
+     * @param other - the money to compare with
+     * @return - a negative number, zero or a positive number if this amount
+     * is less than, equal to or more than the other one
+     */
+    @Override
+    public int compareTo(Money other) {
+        combine(other);
+        return Long.compare(cents, other.cents);
+    }
+
+    /**
+     * Gets the currency of the result of combining two moneys
+     */
+    private String combine(Money other) {
+        if (currency == null) {
+            return other.currency;
+        }
+        if (other.currency != null && !currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Cannot combine " + currency
+                    + " with " + other.currency);
+        }
+        return currency;
+    }
+
+    /**
+     * Checks for equality
+     * @param o - object to compare
+     * @return - true if o is the same amount in the same currency
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Money money = (Money) o;
+        return cents == money.cents && Objects.equals(currency, money.currency);
+    }
+
+    /**
+     * hashcode method
+     * @return - int representing the money
+     */
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(cents) + (currency != null ? currency.hashCode() : 0);
+    }
+
+    /**
+     * Gets the amount without currency, for example 12.34
+     * @return - the formatted amount
+     */
+    public String format() {
+        return BigDecimal.valueOf(cents, 2).toPlainString();
+    }
+
+    /**
+     * Turns the object into a human-readable format
+     * @return the amount followed by the currency, for example 12.34 EUR
+     */
+    @Override
+    public String toString() {
+        return currency == null ? format() : format() + " " + currency;
+    }
+
+    /**
+     * Writes money as {"cents": 1234, "currency": "EUR"}
+     */
+    public static class Serializer extends StdSerializer<Money> {
+
+        /**
+         * Constructor
+         */
+        public Serializer() {
+            super(Money.class);
+        }
+
+        /**
+         * Writes the money
+         * @param value - the money
+         * @param gen - the generator to write to
+         * @param provider - the serializer provider
+         * @throws IOException if writing fails
+         */
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider)
+                throws IOException {
+            gen.writeStartObject();
+            gen.writeNumberField("cents", value.cents);
+            gen.writeStringField("currency", value.currency);
+            gen.writeEndObject();
+        }
+    }
+
+    /**
+     * Reads money written by the serializer. A plain number is read as a decimal
+     * amount without currency, so old backups that stored amounts as doubles still load.
+     */
+    public static class Deserializer extends StdDeserializer<Money> {
+
+        /**
+         * Constructor
+         */
+        public Deserializer() {
+            super(Money.class);
+        }
+
+        /**
+         * Reads the money
+         * @param p - the parser to read from
+         * @param ctxt - the deserialization context
+         * @return - the money
+         * @throws IOException if reading fails or there are no cents
+         */
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_INT
+                    || p.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.of(p.getDoubleValue(), null);
+            }
+            JsonNode node = ctxt.readTree(p);
+            JsonNode cents = node.get("cents");
+            if (cents == null || !cents.isIntegralNumber() || !cents.canConvertToLong()) {
+                throw JsonMappingException.from(p,
+                        "Money needs a whole number of cents, got " + node);
+            }
+            JsonNode currency = node.get("currency");
+            return Money.ofCents(cents.asLong(),
+                    currency == null || currency.isNull() ? null : currency.asText());
+        }
+    }
+}
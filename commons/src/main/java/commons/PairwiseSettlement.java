@@ -0,0 +1,29 @@
+package commons;
+
+/**
+ * Settlement that pays off every creditor by scanning all debtors in index order.
+ * This is the original way debts were generated, it takes O(n^2) time
+ * and usually needs more transfers than {@link MinCashFlowSettlement}.
+ */
+public class PairwiseSettlement implements SettlementStrategy {
+
+    /**
+     * Computes the transfers that settle the given balances.
+     * @param balances - net balance in cents for every participant index
+     * @param transfers - receives every transfer that has to be made
+     */
+    @Override
+    public void settle(long[] balances, TransferConsumer transfers) {
+        for (int creditor = 0; creditor < balances.length; creditor++) {
+            for (int debtor = 0; debtor < balances.length && balances[creditor] < 0; debtor++) {
+                if (balances[debtor] <= 0) {
+                    continue;
+                }
+                long amount = Math.min(-balances[creditor], balances[debtor]);
+                transfers.accept(debtor, creditor, amount);
+                balances[creditor] += amount;
+                balances[debtor] -= amount;
+            }
+        }
+    }
+}
@@ -10,6 +10,9 @@ public class Participant {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     public long userId;
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    private long version;
     private String name;
     private String email;
     private String bankAccount;
@@ -51,6 +54,22 @@ public class Participant {
         this.userId = userId;
     }
 
+    /**
+     * Getter for the version of the participant
+     * @return - the version, one more for every update
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Setter for the version, an update sent with an old version is refused
+     * @param version - the version
+     */
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     /**
      * Getter for hte participants name
      * @return - String representing the name
@@ -0,0 +1,53 @@
+package commons;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Strategy that turns the net balances of the participants of an event into
+ * a set of transfers which settles all of them.
+ * Balances are given in cents and indexed by participant, a positive balance
+ * means the participant owes money, a negative one means they are owed money.
+ * The balances are expected to sum up to zero.
+ */
+public interface SettlementStrategy {
+
+    /**
+     * Computes the transfers that settle the given balances.
+     * Implementations may use the array as scratch space.
+     * @param balances - net balance in cents for every participant index
+     * @param transfers - receives every transfer that has to be made
+     */
+    void settle(long[] balances, TransferConsumer transfers);
+
+    /**
+     * Settles the given balances and turns the transfers into debts
+     * @param participants - the participant at every index of the balances
+     * @param balances - net balance in cents for every participant index
+     * @param currency - the currency of the balances
+     * @return - the debts that settle the balances
+     */
+    default List<Debt> generateDebts(List<Participant> participants, long[] balances,
+                                     String currency) {
+        List<Debt> debts = new ArrayList<>();
+        settle(balances, (debtor, creditor, cents) ->
+                debts.add(new Debt(participants.get(debtor),
+                        participants.get(creditor), Money.ofCents(cents, currency))));
+        return debts;
+    }
+
+    /**
+     * Receives the transfers produced by a settlement strategy
+     */
+    @FunctionalInterface
+    interface TransferConsumer {
+
+        /**
+         * Called once for every transfer
+         * @param debtor - index of the participant who has to pay
+         * @param creditor - index of the participant who receives the money
+         * @param cents - the amount of the transfer in cents
+         */
+        void accept(int debtor, int creditor, long cents);
+    }
+}
@@ -16,14 +16,15 @@ class DebtTest {
         event = new Event("Holiday");
         user1 = new Participant("Peter", "mm@gmail.com", "893494", null);
         user2 = new Participant("Juan", "dklajd@gmail.com", null, null);
-        debt = new Debt( user1, user2, 50.0); // Example debt with an amount of 50.0
+        // Example debt with an amount of 50.0
+        debt = new Debt( user1, user2, Money.of(50.0, "EUR"));
     }
 
     @Test
     void testDebtGettersAndSettlement() {
         assertEquals(user1, debt.getUser1());
         assertEquals(user2, debt.getUser2());
-        assertEquals(50.0, debt.getAmount());
+        assertEquals(Money.of(50.0, "EUR"), debt.getAmount());
         assertFalse(debt.isSettled());
 
         debt.setSettled(true);
@@ -33,61 +34,62 @@ class DebtTest {
 
     @Test
     void testDebtPayment() {
-        debt.payDebt(30.0);
+        debt.payDebt(Money.of(30.0, "EUR"));
 
         assertFalse(debt.isSettled());
-        assertEquals(20.0, debt.getAmount());
+        assertEquals(Money.of(20.0, "EUR"), debt.getAmount());
 
-        debt.payDebt(20.0);
+        debt.payDebt(Money.of(20.0, "EUR"));
 
         assertTrue(debt.isSettled());
-        assertEquals(0.0, debt.getAmount());
+        assertEquals(Money.of(0.0, "EUR"), debt.getAmount());
     }
 
     @Test
     void testPayNegativeAmount() {
-        assertThrows(IllegalArgumentException.class, () -> debt.payDebt(-10.0));
+        assertThrows(IllegalArgumentException.class, () -> debt.payDebt(Money.of(-10.0, "EUR")));
         assertFalse(debt.isSettled());
-        assertEquals(50.0, debt.getAmount());
+        assertEquals(Money.of(50.0, "EUR"), debt.getAmount());
     }
 
     @Test
     void testPayWhileAlreadySettled() {
-        debt.payDebt(50.0);
+        debt.payDebt(Money.of(50.0, "EUR"));
 
-        assertThrows(IllegalStateException.class, () -> debt.payDebt(10.0));
+        assertThrows(IllegalStateException.class, () -> debt.payDebt(Money.of(10.0, "EUR")));
         assertTrue(debt.isSettled());
-        assertEquals(0.0, debt.getAmount());
+        assertEquals(Money.of(0.0, "EUR"), debt.getAmount());
     }
 
 
     @Test
     void testDebtEquality() {
-        Debt debtCopy = new Debt( user1, user2, 50.0);
+        Debt debtCopy = new Debt( user1, user2, Money.of(50.0, "EUR"));
         assertEquals(debt, debtCopy);
     }
 
     @Test
     void testDebtInequality() {
-        Debt debt2 = new Debt( user1, user2, 100.0);
+        Debt debt2 = new Debt( user1, user2, Money.of(100.0, "EUR"));
         assertNotEquals(debt, debt2);
     }
 
     @Test
     public void testToString() {
-        String expectedString = "Debt{debtor= " + user1 + ", creditor= " + user2 + ", amount= 50.0}";
+        String expectedString = "Debt{debtor= " + user1 + ", creditor= " + user2
+                + ", amount= 50.00 EUR}";
         assertEquals(expectedString, debt.toString());
     }
 
     @Test
     public void testHashCodeEquality() {
-        Debt debtCopy = new Debt( user1, user2, 50.0);
+        Debt debtCopy = new Debt( user1, user2, Money.of(50.0, "EUR"));
         assertEquals(debt.hashCode(), debtCopy.hashCode());
     }
 
     @Test
     void testDebtHashCodeInequality() {
-        Debt debt2 = new Debt( user1, user2, 100.0);
+        Debt debt2 = new Debt( user1, user2, Money.of(100.0, "EUR"));
         assertNotEquals(debt.hashCode(), debt2.hashCode());
     }
 }
\ No newline at end of file
@@ -0,0 +1,108 @@
+package commons;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventChangeTest {
+    private Participant alice;
+    private Participant bob;
+    private Event before;
+    private Expense dinner;
+
+    @BeforeEach
+    public void setUp() {
+        alice = new Participant("Alice", null, null, null);
+        alice.setUserId(1);
+        bob = new Participant("Bob", null, null, null);
+        bob.setUserId(2);
+        dinner = expense(10, "dinner", 30.0);
+        before = event("Trip", List.of(alice, bob), List.of(dinner));
+    }
+
+    private Expense expense(long id, String name, double amount) {
+        Expense expense = new Expense(alice, amount, "EUR", List.of(alice, bob),
+                name, new Date(0), new Tag());
+        expense.setExpenseId(id);
+        return expense;
+    }
+
+    private Event event(String title, List<Participant> participants, List<Expense> expenses) {
+        Event event = new Event(title);
+        event.setEventId(5);
+        event.setParticipants(new ArrayList<>(participants));
+        event.setExpenses(new ArrayList<>(expenses));
+        return event;
+    }
+
+    @Test
+    void testNoChanges() {
+        Event same = event("Trip", List.of(alice, bob), List.of(expense(10, "dinner", 30.0)));
+
+        assertTrue(EventChange.diff(before, same).isEmpty());
+    }
+
+    @Test
+    void testDiff() {
+        Participant renamed = new Participant("Robert", null, null, null);
+        renamed.setUserId(2);
+        Expense taxi = expense(11, "taxi", 12.5);
+        Event after = event("Road trip", List.of(renamed), List.of(taxi));
+
+        List<EventChange> changes = EventChange.diff(before, after);
+
+        assertEquals(List.of(EventChange.titleChanged(5, "Road trip"),
+                EventChange.participantChanged(5, renamed, false),
+                EventChange.participantRemoved(5, 1),
+                EventChange.expenseChanged(5, taxi, true),
+                EventChange.expenseRemoved(5, 10)), changes);
+    }
+
+    @Test
+    void testApplyingDiffGivesNewState() {
+        Participant renamed = new Participant("Robert", null, null, null);
+        renamed.setUserId(2);
+        Expense lunch = expense(10, "lunch", 30.0);
+        Event after = event("Road trip", List.of(alice, renamed),
+                List.of(lunch, expense(11, "taxi", 12.5)));
+
+        for (EventChange change : EventChange.diff(before, after)) {
+            change.applyTo(before);
+            change.applyTo(before);
+        }
+
+        assertEquals("Road trip", before.getTitle());
+        assertEquals(after.getParticipants(), before.getParticipants());
+        assertEquals(after.getExpenses(), before.getExpenses());
+    }
+
+    @Test
+    void testParticipantChangeUpdatesExpenses() {
+        Participant renamed = new Participant("Robert", null, null, null);
+        renamed.setUserId(2);
+
+        EventChange.participantChanged(5, renamed, false).applyTo(before);
+
+        assertEquals(List.of(alice, renamed), before.getParticipants());
+        assertEquals(List.of(alice, renamed), dinner.getBeneficiaries());
+        assertEquals(alice, dinner.getPayor());
+    }
+
+    @Test
+    void testApplyingNextChangeRaisesVersion() {
+        EventChange next = EventChange.titleChanged(5, "Road trip");
+        next.setVersion(before.getVersion() + 1);
+        next.applyTo(before);
+        assertEquals(next.getVersion(), before.getVersion());
+
+        EventChange afterGap = EventChange.titleChanged(5, "Holiday");
+        afterGap.setVersion(before.getVersion() + 2);
+        afterGap.applyTo(before);
+        assertEquals(next.getVersion(), before.getVersion());
+    }
+}
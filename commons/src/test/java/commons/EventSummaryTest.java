@@ -0,0 +1,43 @@
+package commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventSummaryTest {
+
+    @Test
+    public void testOf() {
+        Participant alice = new Participant("Alice", null, null, null);
+        Participant bob = new Participant("Bob", null, null, null);
+        Event event = new Event("Trip");
+        event.setEventId(5);
+        event.setParticipants(new ArrayList<>(List.of(alice, bob)));
+        event.setExpenses(new ArrayList<>(List.of(
+                new Expense(alice, 30.0, "EUR", List.of(bob), "dinner", new Date(0), new Tag()),
+                new Expense(bob, 12.5, "EUR", List.of(alice), "taxi", new Date(0), new Tag()))));
+
+        EventSummary summary = EventSummary.of(event);
+
+        assertEquals(5, summary.getEventId());
+        assertEquals("Trip", summary.getTitle());
+        assertEquals(event.getInviteCode(), summary.getInviteCode());
+        assertEquals(event.getCreationDate(), summary.getCreationDate());
+        assertEquals(2, summary.getParticipantCount());
+        assertEquals(2, summary.getExpenseCount());
+        assertEquals(4250, summary.getTotalCents());
+    }
+
+    @Test
+    public void testQueryConstructor() {
+        EventSummary summary = new EventSummary(1L, "Trip", "code", null, null, 0, 0, null);
+
+        assertEquals(0, summary.getTotalCents());
+        assertEquals(summary, new EventSummary(1L, "Trip", "code", null, null, 0, 0, 0L));
+        assertNotEquals(summary, new EventSummary(1L, "Other", "code", null, null, 0, 0, 0L));
+    }
+}
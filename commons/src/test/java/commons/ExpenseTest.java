@@ -38,7 +38,7 @@ class ExpenseTest {
 
     @Test
     void getAmount() {
-        assertEquals(20, e.getAmount());
+        assertEquals(Money.ofCents(2000, "EUR"), e.getAmount());
     }
 
     @Test
@@ -76,7 +76,7 @@ class ExpenseTest {
 
     @Test
     void setAmount() {
-        double newAmount = 30.05;
+        Money newAmount = Money.of(30.05, "EUR");
         assertNotEquals(newAmount, e.getAmount());
         e.setAmount(newAmount);
         assertEquals(newAmount, e.getAmount());
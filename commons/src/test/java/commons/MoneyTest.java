@@ -0,0 +1,32 @@
+package commons;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void readsCents() throws Exception {
+        assertEquals(Money.ofCents(1250, "EUR"),
+                mapper.readValue("{\"cents\":1250,\"currency\":\"EUR\"}", Money.class));
+        assertEquals(Money.ofCents(1250, null),
+                mapper.readValue("{\"cents\":1250}", Money.class));
+    }
+
+    @Test
+    void readsPlainAmount() throws Exception {
+        assertEquals(Money.ofCents(1250, null), mapper.readValue("12.5", Money.class));
+    }
+
+    @Test
+    void rejectsMissingCents() {
+        assertThrows(JsonMappingException.class,
+                () -> mapper.readValue("{\"currency\":\"EUR\"}", Money.class));
+        assertThrows(JsonMappingException.class,
+                () -> mapper.readValue("{\"cents\":\"many\"}", Money.class));
+    }
+}
@@ -0,0 +1,103 @@
+package commons;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SettlementStrategyTest {
+    private Participant alice;
+    private Participant bob;
+    private Participant charlie;
+    private Event event;
+
+    @BeforeEach
+    public void setUp() {
+        alice = new Participant("Alice", null, null, null);
+        bob = new Participant("Bob", null, null, null);
+        charlie = new Participant("Charlie", null, null, null);
+        event = new Event("Trip");
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        event.addParticipant(charlie);
+    }
+
+    private long[] settle(SettlementStrategy strategy, long[] balances, List<long[]> transfers) {
+        long[] result = balances.clone();
+        strategy.settle(balances, (debtor, creditor, cents) -> {
+            transfers.add(new long[]{debtor, creditor, cents});
+            result[debtor] -= cents;
+            result[creditor] += cents;
+        });
+        return result;
+    }
+
+    @Test
+    void testMinCashFlowSettlesEverything() {
+        List<long[]> transfers = new ArrayList<>();
+        long[] result = settle(new MinCashFlowSettlement(),
+                new long[]{500, -1200, 300, 400, 0}, transfers);
+
+        assertArrayEquals(new long[5], result);
+        assertEquals(3, transfers.size());
+        for (long[] transfer : transfers) {
+            assertEquals(1, transfer[1]);
+            assertTrue(transfer[2] > 0);
+        }
+    }
+
+    @Test
+    void testMinCashFlowUsesFewerTransfers() {
+        long[] balances = {100, 100, -100, -100, 200, -200};
+        List<long[]> minimal = new ArrayList<>();
+        List<long[]> pairwise = new ArrayList<>();
+
+        assertArrayEquals(new long[6],
+                settle(new MinCashFlowSettlement(), balances.clone(), minimal));
+        assertArrayEquals(new long[6],
+                settle(new PairwiseSettlement(), balances.clone(), pairwise));
+        assertEquals(3, minimal.size());
+        assertTrue(pairwise.size() >= minimal.size());
+    }
+
+    @Test
+    void testNothingToSettle() {
+        List<long[]> transfers = new ArrayList<>();
+        settle(new MinCashFlowSettlement(), new long[]{0, 0, 0}, transfers);
+        settle(new PairwiseSettlement(), new long[0], transfers);
+
+        assertTrue(transfers.isEmpty());
+    }
+
+    @Test
+    void testGenerateDebts() {
+        event.addExpense(new Expense(alice, 30.0, "EUR",
+                List.of(alice, bob, charlie), "dinner", new Date(), new Tag()));
+
+        List<Debt> debts = event.generateDebts();
+
+        assertEquals(2, debts.size());
+        for (Debt debt : debts) {
+            assertEquals(alice, debt.getUser2());
+            assertEquals(Money.ofCents(1000, "EUR"), debt.getAmount());
+        }
+    }
+
+    @Test
+    void testGenerateDebtsSplitsRemainderCents() {
+        event.addExpense(new Expense(alice, 10.0, "EUR",
+                List.of(alice, bob, charlie), "taxi", new Date(), new Tag()));
+
+        Money total = Money.zero("EUR");
+        for (Debt debt : event.generateDebts(new PairwiseSettlement())) {
+            assertEquals(alice, debt.getUser2());
+            total = total.plus(debt.getAmount());
+        }
+
+        assertEquals(Money.ofCents(666, "EUR"), total);
+    }
+}
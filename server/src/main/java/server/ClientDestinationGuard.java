@@ -0,0 +1,59 @@
+package server;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import server.services.ClusterInvalidator;
+
+/**
+ * Checks what websocket clients ask of the broker, before it gets there.
+ * Clients only listen, so they can't send to the broker at all,
+ * and they can't subscribe to the announcements the servers make to each other,
+ * see ClusterInvalidator. Refused frames close the session with an error.
+ */
+public class ClientDestinationGuard implements ChannelInterceptor {
+
+    /**
+     * The prefix of the destinations the broker handles
+     */
+    public static final String BROKER_PREFIX = "/topic";
+
+    /**
+     * Refuses a send to the broker and a subscription to the server announcements
+     * @param message - the message received from a client
+     * @param channel - the client inbound channel
+     * @return - the message, if it is allowed
+     * @throws MessageDeliveryException if the message isn't allowed
+     */
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return message;
+        }
+        if (type == SimpMessageType.MESSAGE && destination.startsWith(BROKER_PREFIX)) {
+            throw new MessageDeliveryException(message, "Clients can't send to " + destination);
+        }
+        if (type == SimpMessageType.SUBSCRIBE && isInternal(destination)) {
+            throw new MessageDeliveryException(message,
+                    "Clients can't subscribe to " + destination);
+        }
+        return message;
+    }
+
+    /**
+     * Checks if a subscription could receive the announcements of the servers.
+     * Patterns are refused as well, as they could match the destination of the announcements.
+     * @param destination - the destination subscribed to
+     * @return - true if clients may not subscribe to it
+     */
+    private static boolean isInternal(String destination) {
+        return destination.startsWith(ClusterInvalidator.TOPIC)
+                || destination.startsWith(BROKER_PREFIX) && (destination.contains("*")
+                        || destination.contains("#") || destination.contains("{"));
+    }
+}
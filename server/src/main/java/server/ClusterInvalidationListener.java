@@ -0,0 +1,197 @@
+package server;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.support.AbstractMessageChannel;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.tcp.reactor.ReactorNettyTcpStompClient;
+import org.springframework.stereotype.Component;
+import server.services.ClusterInvalidator;
+import server.services.ClusterInvalidator.Invalidation;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Delivers the writes the other servers announce to the cluster invalidator of this server.
+ * With the embedded relay the announcements of the other instances arrive on the broker
+ * channel. With an external broker this server subscribes to the topic itself, the relay
+ * only passes messages on to the websocket clients.
+ */
+@Component
+public class ClusterInvalidationListener implements ChannelInterceptor,
+        SmartInitializingSingleton {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ClusterInvalidationListener.class);
+    /**
+     * How long to wait in milliseconds before connecting to the broker again
+     */
+    private static final long RECONNECT_DELAY = 5000;
+
+    private final ClusterInvalidator invalidator;
+    private final MessageChannel brokerChannel;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Value("${broker.mode:simple}")
+    private String mode;
+    @Value("${broker.relay.host:localhost}")
+    private String relayHost;
+    @Value("${broker.relay.port:61613}")
+    private int relayPort;
+    @Value("${broker.relay.login:guest}")
+    private String relayLogin;
+    @Value("${broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    private ReactorNettyTcpStompClient stompClient;
+    private volatile StompSession session;
+    private volatile boolean closed;
+    private final AtomicBoolean reconnecting = new AtomicBoolean();
+
+    /**
+     * Constructor for the listener
+     * @param invalidator - the cluster invalidator of this server
+     * @param brokerChannel - the broker channel of this server
+     */
+    public ClusterInvalidationListener(ClusterInvalidator invalidator,
+                                       @Qualifier("brokerChannel") MessageChannel brokerChannel) {
+        this.invalidator = invalidator;
+        this.brokerChannel = brokerChannel;
+    }
+
+    /**
+     * Starts listening once the broker channel is set up
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        switch (mode) {
+            case "embedded" -> ((AbstractMessageChannel) brokerChannel).addInterceptor(this);
+            case "relay" -> {
+                stompClient = new ReactorNettyTcpStompClient(relayHost, relayPort);
+                stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+                connect();
+            }
+            default -> {
+                // a single server has nothing to hear from
+            }
+        }
+    }
+
+    /**
+     * Picks the announcements the embedded relay forwarded from other instances
+     * out of the broker channel
+     * @param message - the sent message
+     * @param channel - the broker channel
+     * @param sent - whether the message was sent
+     */
+    @Override
+    public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
+        if (!sent || !message.getHeaders().containsKey(EmbeddedBrokerRelay.ORIGIN_HEADER)
+                || !ClusterInvalidator.TOPIC.equals(
+                        SimpMessageHeaderAccessor.getDestination(message.getHeaders()))
+                || !(message.getPayload() instanceof byte[] payload)) {
+            return;
+        }
+        try {
+            invalidator.receive(mapper.readValue(payload, Invalidation.class));
+        } catch (IOException e) {
+            LOG.warn("Ignored an unreadable cluster announcement", e);
+        }
+    }
+
+    /**
+     * Connects to the external broker and subscribes to the announcements.
+     * Announcements can be missed while not connected, so every ledger of this server
+     * is dropped once the subscription is back.
+     */
+    private void connect() {
+        StompHeaders connect = new StompHeaders();
+        connect.setLogin(relayLogin);
+        connect.setPasscode(relayPasscode);
+        stompClient.connectAsync(connect, new StompSessionHandlerAdapter() {
+            @Override
+            public void afterConnected(StompSession connected, StompHeaders headers) {
+                session = connected;
+                invalidator.reset();
+                connected.subscribe(ClusterInvalidator.TOPIC, new StompFrameHandler() {
+                    @Override
+                    public Type getPayloadType(StompHeaders headers) {
+                        return Invalidation.class;
+                    }
+
+                    @Override
+                    public void handleFrame(StompHeaders headers, Object payload) {
+                        invalidator.receive((Invalidation) payload);
+                    }
+                });
+            }
+
+            @Override
+            public void handleException(StompSession failed, StompCommand command,
+                                        StompHeaders headers, byte[] payload,
+                                        Throwable exception) {
+                LOG.warn("Failed to handle a cluster announcement", exception);
+            }
+
+            @Override
+            public void handleTransportError(StompSession failed, Throwable exception) {
+                LOG.warn("Lost the connection to the broker, reconnecting", exception);
+                reconnect();
+            }
+        }).exceptionally(error -> {
+            LOG.warn("Could not connect to the broker, retrying", error);
+            reconnect();
+            return null;
+        });
+    }
+
+    /**
+     * Connects again after a pause, unless the server is shutting down
+     */
+    private void reconnect() {
+        if (closed || !reconnecting.compareAndSet(false, true)) {
+            return;
+        }
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(RECONNECT_DELAY);
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                reconnecting.set(false);
+            }
+            if (!closed) {
+                connect();
+            }
+        });
+    }
+
+    /**
+     * Closes the connection to the external broker when the server shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+        if (stompClient != null) {
+            stompClient.shutdown();
+        }
+    }
+}
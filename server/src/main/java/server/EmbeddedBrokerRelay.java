@@ -0,0 +1,97 @@
+package server;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A small in-JVM stand-in for an external STOMP broker, meant for tests and local runs.
+ * Every server instance in the same JVM that joins the same network gets the messages
+ * published on the other instances, just like they would with a shared broker.
+ * It is installed as an interceptor on the broker channel of every instance,
+ * messages it forwards are marked so they are not forwarded again.
+ */
+public class EmbeddedBrokerRelay implements ChannelInterceptor {
+
+    /**
+     * Header that marks a message as forwarded, holding the id of the instance it came from
+     */
+    public static final String ORIGIN_HEADER = "relayOrigin";
+
+    private static final Map<String, Set<EmbeddedBrokerRelay>> NETWORKS =
+            new ConcurrentHashMap<>();
+
+    private final String network;
+    private final String id = UUID.randomUUID().toString();
+    private volatile MessageChannel brokerChannel;
+
+    /**
+     * Creates a relay for a network
+     * @param network - the name of the network
+     */
+    private EmbeddedBrokerRelay(String network) {
+        this.network = network;
+    }
+
+    /**
+     * Joins a network, creating it if it doesn't exist yet
+     * @param network - the name of the network
+     * @return - the relay of the joining instance
+     */
+    public static EmbeddedBrokerRelay join(String network) {
+        EmbeddedBrokerRelay relay = new EmbeddedBrokerRelay(network);
+        NETWORKS.computeIfAbsent(network, n -> ConcurrentHashMap.newKeySet()).add(relay);
+        return relay;
+    }
+
+    /**
+     * Sets the broker channel that messages from the other instances are delivered to
+     * @param brokerChannel - the broker channel of this instance
+     */
+    public void attach(MessageChannel brokerChannel) {
+        this.brokerChannel = brokerChannel;
+    }
+
+    /**
+     * Leaves the network, this instance stops sending and receiving messages
+     */
+    public void leave() {
+        Set<EmbeddedBrokerRelay> relays = NETWORKS.get(network);
+        if (relays != null) {
+            relays.remove(this);
+        }
+        brokerChannel = null;
+    }
+
+    /**
+     * Forwards every message published on this instance to the other instances
+     * @param message - the sent message
+     * @param channel - the broker channel of this instance
+     * @param sent - whether the message was sent
+     */
+    @Override
+    public void postSend(Message<?> message, MessageChannel channel, boolean sent) {
+        if (!sent || message.getHeaders().containsKey(ORIGIN_HEADER)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders())
+                != SimpMessageType.MESSAGE) {
+            return;
+        }
+        Message<?> forwarded = MessageBuilder.fromMessage(message)
+                .setHeader(ORIGIN_HEADER, id)
+                .build();
+        for (EmbeddedBrokerRelay relay : NETWORKS.getOrDefault(network, Set.of())) {
+            MessageChannel target = relay.brokerChannel;
+            if (relay != this && target != null) {
+                target.send(forwarded);
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package server;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import server.services.ExchangeRateProvider;
+import server.services.FixtureExchangeRateProvider;
+import server.services.SeededExchangeRateProvider;
+
+import java.nio.file.Paths;
+
+/**
+ * Picks where exchange rates come from with rates.provider:
+ * "seeded" makes them up, the same ones every time,
+ * "fixture" reads them from the file at rates.fixture.
+ */
+@Configuration
+public class ExchangeRateConfig {
+
+    @Value("${rates.provider:seeded}")
+    private String provider;
+    @Value("${rates.fixture:rates-fixture.csv}")
+    private String fixture;
+
+    /**
+     * Creates the provider the exchange rate service gets missing rates from
+     * @return - the provider
+     */
+    @Bean
+    public ExchangeRateProvider exchangeRateProvider() {
+        return switch (provider) {
+            case "seeded" -> new SeededExchangeRateProvider();
+            case "fixture" -> new FixtureExchangeRateProvider(Paths.get(fixture));
+            default -> throw new IllegalArgumentException("Unknown rate provider " + provider);
+        };
+    }
+}
@@ -1,15 +1,65 @@
 package server;
 
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * Configures the websocket endpoint and the message broker behind it.
+ * The broker is chosen with broker.mode:
+ * "simple" keeps the messages inside this server,
+ * "relay" relays them through an external STOMP broker so every server instance
+ * gets the messages published on the others,
+ * "embedded" does the same through an in-JVM relay, for tests and local runs.
+ * With a shared broker every write is also announced to the other servers, which drop their
+ * ledger of the event and update their long polling clients, see ClusterInvalidator.
+ * Clients can't send to the broker or subscribe to these announcements.
+ * The changes sent to clients carry the version of the event in the database,
+ * so any server can take the writes to any event.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${broker.mode:simple}")
+    private String mode;
+    @Value("${broker.relay.host:localhost}")
+    private String relayHost;
+    @Value("${broker.relay.port:61613}")
+    private int relayPort;
+    @Value("${broker.relay.login:guest}")
+    private String relayLogin;
+    @Value("${broker.relay.passcode:guest}")
+    private String relayPasscode;
+    @Value("${broker.embedded.network:splitty}")
+    private String embeddedNetwork;
+    @Value("${broker.heartbeat:10000}")
+    private long heartbeat;
+    @Value("${broker.outbound.pool-size:4}")
+    private int outboundPoolSize;
+    @Value("${broker.outbound.max-pool-size:16}")
+    private int outboundMaxPoolSize;
+    @Value("${broker.outbound.queue-capacity:1000}")
+    private int outboundQueueCapacity;
+    @Value("${broker.send-time-limit:10000}")
+    private int sendTimeLimit;
+    @Value("${broker.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    private EmbeddedBrokerRelay embeddedRelay;
+    private ThreadPoolTaskScheduler heartbeatScheduler;
+
     /**
      * Registers the "/websocket" endpoint.
      * @param registry StompEndpointRegistry
@@ -25,7 +75,95 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        switch (mode) {
+            case "relay" -> config.enableStompBrokerRelay("/topic")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    .setSystemHeartbeatSendInterval(heartbeat)
+                    .setSystemHeartbeatReceiveInterval(heartbeat);
+            case "simple", "embedded" -> {
+                var broker = config.enableSimpleBroker("/topic");
+                if (heartbeat > 0) {
+                    heartbeatScheduler = new ThreadPoolTaskScheduler();
+                    heartbeatScheduler.setPoolSize(1);
+                    heartbeatScheduler.setThreadNamePrefix("broker-heartbeat-");
+                    heartbeatScheduler.initialize();
+                    broker.setHeartbeatValue(new long[]{heartbeat, heartbeat})
+                            .setTaskScheduler(heartbeatScheduler);
+                }
+                if (mode.equals("embedded")) {
+                    embeddedRelay = EmbeddedBrokerRelay.join(embeddedNetwork);
+                    config.configureBrokerChannel().interceptors(embeddedRelay);
+                }
+            }
+            default -> throw new IllegalArgumentException("Unknown broker mode " + mode);
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
+
+    /**
+     * Keeps clients from sending to the broker and from listening to the servers,
+     * see ClientDestinationGuard
+     * @param registration ChannelRegistration
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(new ClientDestinationGuard());
+    }
+
+    /**
+     * Bounds the threads and the queue used to send messages to clients,
+     * so a burst of updates queues up instead of starting a thread per message.
+     * @param registration ChannelRegistration
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    /**
+     * Limits how long and how much can be buffered for a slow client
+     * before its session is closed.
+     * @param registration WebSocketTransportRegistration
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
+    }
+
+    /**
+     * Connects the embedded relay to the broker channel once it exists
+     * @param brokerChannel the broker channel of this server
+     * @return the initializer
+     */
+    @Bean
+    public SmartInitializingSingleton embeddedRelayAttacher(
+            @Qualifier("brokerChannel") MessageChannel brokerChannel) {
+        return () -> {
+            if (embeddedRelay != null) {
+                embeddedRelay.attach(brokerChannel);
+            }
+        };
+    }
+
+    /**
+     * Leaves the embedded relay and stops the heartbeats when the server shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (embeddedRelay != null) {
+            embeddedRelay.leave();
+        }
+        if (heartbeatScheduler != null) {
+            heartbeatScheduler.shutdown();
+        }
+    }
 }
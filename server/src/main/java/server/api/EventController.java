@@ -1,18 +1,25 @@
 package server.api;
 
 import com.google.inject.Inject;
+import commons.Debt;
 import commons.Event;
+import commons.EventBatch;
+import commons.EventChange;
+import commons.EventSummary;
+import commons.EventSummaryPage;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.context.request.async.DeferredResult;
+import server.services.EventChangePublisher;
 import server.services.EventService;
+import server.services.EventSubscriptionRegistry;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
 
 
 @RestController
@@ -20,17 +27,25 @@ import java.util.function.Consumer;
 public class EventController {
     private final EventService service;
     private final SimpMessagingTemplate msgs;
+    private final EventSubscriptionRegistry subscriptions;
+    private final EventChangePublisher changes;
 
 
     /**
      * Constructor with the event service
      * @param service - the event service
      * @param msgs the SimpMessagingTemplate to handle WebSocket messaging
+     * @param subscriptions - the clients long polling for changes of an event
+     * @param changes - sends the changes made to events over websockets
      */
     @Inject
-    public EventController(EventService service, SimpMessagingTemplate msgs) {
+    public EventController(EventService service, SimpMessagingTemplate msgs,
+                           EventSubscriptionRegistry subscriptions,
+                           EventChangePublisher changes) {
         this.service = service;
         this.msgs = msgs;
+        this.subscriptions = subscriptions;
+        this.changes = changes;
     }
 
     /**
@@ -43,12 +58,119 @@ public class EventController {
     }
     /**
      * Get a certain event by id
-     * @return - one event
+     * @return - one event with its entity tag, not modified if the client already has it,
+     *         or an empty body if the event doesn't exist
      * @param id - event to get
+     * @param ifNoneMatch - the entity tags of the copies the client has, if any
      */
     @GetMapping(path = {"/{id}"})
-    public Event getOne(@PathVariable long id) {
-        return service.findEvent(id);
+    public ResponseEntity<Event> getOne(
+            @PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) {
+        Event event = service.findEvent(id);
+        if (event == null) {
+            return ResponseEntity.ok().build();
+        }
+        return conditional(EventService.etag(event), ifNoneMatch, event);
+    }
+
+    /**
+     * Get the summaries of all events, for list views that don't need
+     * the participants and expenses
+     * @return - the summaries, ordered by event id
+     */
+    @GetMapping("/summaries")
+    public ResponseEntity<List<EventSummary>> getSummaries() {
+        try {
+            return ResponseEntity.ok(service.getSummaries());
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get a page of the summaries of all events, sorted by the database
+     * @param sort - the field to sort on: creationDate, lastActivity or title
+     * @param after - the cursor the previous page ended with, or none for the first page
+     * @param limit - the number of summaries on the page
+     * @return - the page with the cursor of the next one,
+     *         or bad request if the sort, cursor or limit isn't valid
+     */
+    @GetMapping("/summaries/page")
+    public ResponseEntity<EventSummaryPage> getSummaryPage(
+            @RequestParam(defaultValue = "creationDate") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(service.getSummaryPage(sort, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get the summary of an event
+     * @param id - the id of the event
+     * @return - the summary, or not found if the event doesn't exist
+     */
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<EventSummary> getSummary(@PathVariable long id) {
+        try {
+            return ResponseEntity.ok(service.getSummary(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get several events at once, with a single query
+     * @param ids - the ids of the events
+     * @return - the events that were found and the ids without an event,
+     *         or bad request if too many events are asked for
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<EventBatch> getBatch(@RequestParam List<Long> ids) {
+        try {
+            return ResponseEntity.ok(service.findEvents(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Get the debts that settle an event, with the minimum number of transfers
+     * @param id - the event to settle
+     * @param ifNoneMatch - the entity tags of the copies the client has, if any
+     * @return - the list of debts, not modified if the client already has them,
+     *         or not found if the event doesn't exist
+     */
+    @GetMapping(path = {"/{id}/debts"})
+    public ResponseEntity<List<Debt>> getDebts(
+            @PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) {
+        try {
+            String etag = service.getDebtsTag(id);
+            if (matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok().eTag(etag).body(service.getDebts(id));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
     }
 
     /**
@@ -78,6 +200,8 @@ public class EventController {
             Event deletedEvent = service.findEvent(id);
             msgs.convertAndSend("/topic/events/delete", deletedEvent);
             service.deleteEvent(id);
+            subscriptions.remove(id);
+            changes.remove(id);
             return ResponseEntity.ok("Event with ID " + id + " deleted successfully");
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -98,18 +222,27 @@ public class EventController {
      *
      * @param id       - event to update
      * @param newEvent - updated event
-     * @return - ok message or error message
+     * @return - ok message or error message,
+     *         or a conflict with the current event if it was changed in the meantime,
+     *         or not found if it was deleted in the meantime
      */
     @PutMapping(path = {"/{id}"})
     public ResponseEntity<Event> updateEvent(@PathVariable long id, @RequestBody Event newEvent) {
         try {
-            System.out.println("listener for each was reached");
-            listeners.forEach((k,l) -> l.accept(newEvent));
-
+            List<EventChange> eventChanges = service.getChanges(id, newEvent);
             Event updated = service.updateEvent(id, newEvent);
-            msgs.convertAndSend("/topic/events/update", updated);
+            eventChanges.forEach(change -> change.setVersion(updated.getVersion()));
+            subscriptions.publish(updated);
+            changes.publish(eventChanges);
             return ResponseEntity.ok(updated);
-        }catch (IllegalArgumentException e) {
+        } catch (OptimisticLockingFailureException e) {
+            Event current = service.findEvent(id);
+            if (current == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .eTag(EventService.etag(current)).body(current);
+        } catch (IllegalArgumentException e) {
             e.printStackTrace();
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
@@ -118,6 +251,109 @@ public class EventController {
         }
     }
 
+    /**
+     * Patch method - changes only the fields of an event that are in the JSON merge patch
+     * @param id - event to change
+     * @param ifMatch - the entity tag of the event the patch was made against, if any.
+     *                The patch is refused when the event changed since.
+     * @param patch - the fields to change with their new values
+     * @return - the changes that were made, with the entity tag of the patched event,
+     *         or not found if the event doesn't exist (anymore)
+     */
+    @PatchMapping(path = {"/{id}"},
+            consumes = {"application/merge-patch+json", "application/json"})
+    public ResponseEntity<List<EventChange>> patchEvent(
+            @PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Map<String, Object> patch) {
+        try {
+            if (!service.exists(id)) {
+                return ResponseEntity.notFound().build();
+            }
+            List<EventChange> made = changes.publish(
+                    service.patchEvent(id, patch, parseVersion(ifMatch)));
+            Event patched = service.findEvent(id);
+            if (patched == null) {
+                return ResponseEntity.notFound().build();
+            }
+            if (!made.isEmpty() && subscriptions.getSubscriberCount(id) > 0) {
+                subscriptions.publish(patched);
+            }
+            return ResponseEntity.ok().eTag(EventService.etag(patched)).body(made);
+        } catch (OptimisticLockingFailureException e) {
+            Event current = service.findEvent(id);
+            if (current == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .eTag(EventService.etag(current)).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Reads the version of the event out of an If-Match header.
+     * The entity tags of an event start with its version, see EventService.etag,
+     * and a bare version is accepted too.
+     * @param ifMatch - the header, a single entity tag or *
+     * @return - the version, or null if any version matches
+     * @throws IllegalArgumentException if the header isn't an entity tag of an event
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        tag = tag.replace("\"", "");
+        int end = tag.indexOf('-');
+        return Long.valueOf(end < 0 ? tag : tag.substring(0, end));
+    }
+
+    /**
+     * Answers a read with its entity tag,
+     * leaving out the body if the client already has the current one
+     * @param etag - the entity tag of the current body
+     * @param ifNoneMatch - the If-None-Match header the client sent, if any
+     * @param body - the current body
+     * @return - ok with the body, or not modified
+     * @param <T> - the type of the body
+     */
+    private static <T> ResponseEntity<T> conditional(String etag, String ifNoneMatch, T body) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(body);
+    }
+
+    /**
+     * Checks if an If-None-Match header holds an entity tag
+     * @param ifNoneMatch - the header, a list of entity tags or *
+     * @param etag - the entity tag, without quotes
+     * @return - true if the header matches the entity tag
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String value = tag.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.replace("\"", "").equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Orders events by creation date
      * @return - ok message or error message
@@ -163,14 +399,19 @@ public class EventController {
     /**
      * retrieves the event which has the invite code provided
      * @param inviteCode - the invite code of the wanted event
-     * @return - Event corresponding to invite code, or an error message
+     * @param ifNoneMatch - the entity tags of the copies the client has, if any
+     * @return - Event corresponding to invite code, not modified if the client already has it,
+     *         or an error message
      */
     @GetMapping("/invite/{inviteCode}")
-    public ResponseEntity<?> getEventByInviteCode(@PathVariable String inviteCode) {
+    public ResponseEntity<?> getEventByInviteCode(
+            @PathVariable String inviteCode,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+            String ifNoneMatch) {
         try {
             Event event = service.getEventByInviteCode(inviteCode);
             if (event != null) {
-                return ResponseEntity.ok(event);
+                return conditional(EventService.etag(event), ifNoneMatch, event);
             } else {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body("Invite code does correspond to any event");
@@ -181,32 +422,19 @@ public class EventController {
         }
     }
 
-    private Map<Object, Consumer<Event>> listeners = new ConcurrentHashMap<>();
-
     /**
-     * long polling
+     * long polling - waits for the next update of an event
      * @param id - the id
-     * @return - response message
+     * @param since - the version of the last update the client received, if any.
+     *              Updates published after it are returned right away.
+     * @return - the updated event with its version in the Event-Version header,
+     *         no content if nothing changed in time, or not found if the event was deleted
      */
     @GetMapping("/updates/{id}")
-    public DeferredResult<ResponseEntity<Event>> getUpdates(@PathVariable long id){
-        try {
-            var noContent = ResponseEntity.status(HttpStatus.NO_CONTENT).build();
-            var res = new DeferredResult<ResponseEntity<Event>>(5000L, noContent);
-
-            var key = new Object();
-            listeners.put(key, e -> {
-                res.setResult(ResponseEntity.ok(e));
-            });
-            res.onCompletion(() -> {
-                listeners.remove(key);
-            });
-            return res;
-        } catch(Exception e){
-            System.out.println("Exception in deferred result method.");
-            e.printStackTrace();
-        }
-        return null;
+    public DeferredResult<ResponseEntity<Event>> getUpdates(@PathVariable long id,
+                                                            @RequestParam(required = false)
+                                                            Long since) {
+        return subscriptions.subscribe(id, since, 5000L);
     }
 
 }
@@ -0,0 +1,148 @@
+package server.api;
+
+import com.google.inject.Inject;
+import commons.EventChange;
+import commons.Expense;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import server.services.EventChangePublisher;
+import server.services.EventService;
+import server.services.EventSubscriptionRegistry;
+import server.services.ExpenseService;
+
+import java.util.List;
+
+/**
+ * Adds, updates and removes the expenses of an event in a single call.
+ * Every call answers with the change it made instead of the whole event, holding the saved
+ * expense and the @Version the write raised the event to, which clients send back
+ * as the version their next update of the event is based on.
+ */
+@RestController
+@RequestMapping("/api/events/{eventId}/expenses")
+public class EventExpenseController {
+    private final ExpenseService expenseService;
+    private final EventService eventService;
+    private final EventSubscriptionRegistry subscriptions;
+    private final EventChangePublisher changes;
+
+    /**
+     * Constructor for the event expense controller
+     * @param expenseService - saves the expenses together with their event
+     * @param eventService - the event service
+     * @param subscriptions - the clients long polling for changes of an event
+     * @param changes - sends the changes made to events over websockets
+     */
+    @Inject
+    public EventExpenseController(ExpenseService expenseService, EventService eventService,
+                                  EventSubscriptionRegistry subscriptions,
+                                  EventChangePublisher changes) {
+        this.expenseService = expenseService;
+        this.eventService = eventService;
+        this.subscriptions = subscriptions;
+        this.changes = changes;
+    }
+
+    /**
+     * Adds an expense to an event
+     * @param eventId - the id of the event
+     * @param expense - the expense to add
+     * @return - the change, or not found if the event doesn't exist
+     */
+    @PostMapping(path = { "", "/" })
+    public ResponseEntity<EventChange> addExpense(@PathVariable long eventId,
+                                                  @RequestBody Expense expense) {
+        if (!isValid(expense)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(publish(expenseService.addExpense(eventId, expense)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Updates an expense of an event
+     * @param eventId - the id of the event
+     * @param id - the id of the expense
+     * @param expense - the updated expense
+     * @return - the change, not found if the event doesn't have the expense,
+     *         or a conflict holding the current expense if it was changed in the meantime,
+     *         or not found if it was deleted in the meantime
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<EventChange> updateExpense(@PathVariable long eventId,
+                                                     @PathVariable long id,
+                                                     @RequestBody Expense expense) {
+        if (!isValid(expense)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(
+                    publish(expenseService.updateExpense(eventId, id, expense)));
+        } catch (OptimisticLockingFailureException e) {
+            Expense current = expenseService.getExpenseById(id);
+            if (current == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .eTag(Long.toString(current.getVersion()))
+                    .body(EventChange.expenseChanged(eventId, current, false));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Removes an expense from an event and deletes it
+     * @param eventId - the id of the event
+     * @param id - the id of the expense
+     * @return - the change, or not found if the event doesn't have the expense
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<EventChange> deleteExpense(@PathVariable long eventId,
+                                                     @PathVariable long id) {
+        try {
+            return ResponseEntity.ok(publish(expenseService.deleteExpense(eventId, id)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Checks the fields an expense needs
+     * @param expense - the expense
+     * @return - true if the expense can be saved
+     */
+    private static boolean isValid(Expense expense) {
+        return expense.getAmount() != null && expense.getAmount().isPositive()
+                && expense.getExpenseName() != null && !expense.getExpenseName().isEmpty()
+                && expense.getBeneficiaries() != null && !expense.getBeneficiaries().isEmpty();
+    }
+
+    /**
+     * Sends a change to the clients that follow its event.
+     * The whole event is only loaded when a client is long polling for it.
+     * @param change - the change, with the new version of the event
+     * @return - the change
+     */
+    private EventChange publish(EventChange change) {
+        changes.publish(List.of(change));
+        if (subscriptions.getSubscriberCount(change.getEventId()) > 0) {
+            subscriptions.publish(eventService.findEvent(change.getEventId()));
+        }
+        return change;
+    }
+}
@@ -0,0 +1,99 @@
+package server.api;
+
+import com.google.inject.Inject;
+import commons.EventChange;
+import commons.Participant;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import server.services.EventChangePublisher;
+import server.services.EventService;
+import server.services.EventSubscriptionRegistry;
+import server.services.UserService;
+
+import java.util.List;
+
+/**
+ * Adds participants to and removes them from an event, without sending the rest of the event.
+ * Every call answers with the change it made.
+ */
+@RestController
+@RequestMapping("/api/events/{eventId}/participants")
+public class EventParticipantController {
+    private final UserService userService;
+    private final EventService eventService;
+    private final EventSubscriptionRegistry subscriptions;
+    private final EventChangePublisher changes;
+
+    /**
+     * Constructor for the event participant controller
+     * @param userService - saves the participants together with their event
+     * @param eventService - the event service
+     * @param subscriptions - the clients long polling for changes of an event
+     * @param changes - sends the changes made to events over websockets
+     */
+    @Inject
+    public EventParticipantController(UserService userService, EventService eventService,
+                                      EventSubscriptionRegistry subscriptions,
+                                      EventChangePublisher changes) {
+        this.userService = userService;
+        this.eventService = eventService;
+        this.subscriptions = subscriptions;
+        this.changes = changes;
+    }
+
+    /**
+     * Adds a new participant to an event
+     * @param eventId - the id of the event
+     * @param participant - the participant to add
+     * @return - the change, holding the saved participant, or not found if there is no event
+     */
+    @PostMapping(path = { "", "/" })
+    public ResponseEntity<EventChange> addParticipant(@PathVariable long eventId,
+                                                      @RequestBody Participant participant) {
+        if (participant.getName() == null || participant.getName().isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(publish(userService.addUser(eventId, participant)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Removes a participant from an event
+     * @param eventId - the id of the event
+     * @param userId - the id of the participant
+     * @return - the change, or not found if the event doesn't have the participant
+     */
+    @DeleteMapping("/{userId}")
+    public ResponseEntity<EventChange> removeParticipant(@PathVariable long eventId,
+                                                         @PathVariable long userId) {
+        try {
+            return ResponseEntity.ok(publish(eventService.removeParticipant(eventId, userId)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Sends a change to the clients that follow its event,
+     * the whole event is only loaded when a client is long polling for it
+     * @param change - the change, with the new version of the event
+     * @return - the change
+     */
+    private EventChange publish(EventChange change) {
+        changes.publish(List.of(change));
+        if (subscriptions.getSubscriberCount(change.getEventId()) > 0) {
+            subscriptions.publish(eventService.findEvent(change.getEventId()));
+        }
+        return change;
+    }
+}
@@ -1,15 +1,20 @@
 package server.api;
 
+import commons.ExchangeRateMatrix;
+import commons.ExchangeRateQuery;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import server.services.ExchangeRateService;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -44,4 +49,24 @@ public class ExchangeRateController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Gets many rates in one call, like converting every expense of an event.
+     * Queries for the same day and currencies are answered once.
+     * @param queries - the rates asked for
+     * @return - the rates between every two currencies of the queries on every day of them,
+     *          or bad request if a query isn't valid or there are too many
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ExchangeRateMatrix> getRateMatrix(
+            @RequestBody List<ExchangeRateQuery> queries) {
+        try {
+            return ResponseEntity.ok(exchangeRateService.getRateMatrix(queries));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -2,6 +2,7 @@ package server.api;
 
 import com.google.inject.Inject;
 import commons.Expense;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -60,7 +61,8 @@ public class ExpenseController {
     @PostMapping(path = { "", "/" })
     public ResponseEntity<Expense> addExpense(@RequestBody Expense expense){
         try {
-            if (expense.getAmount() <= 0 || expense.getExpenseName().isEmpty()
+            if (expense.getAmount() == null || !expense.getAmount().isPositive()
+                    || expense.getExpenseName().isEmpty()
                     || expense.getBeneficiaries().isEmpty()){
                 return ResponseEntity.badRequest().build();
             }
@@ -117,7 +119,8 @@ public class ExpenseController {
      * Update an expense in the database via REST API
      * @param id - id of the expense to be edited
      * @param updatedExpense - the updated expense
-     * @return the updated expense
+     * @return the updated expense, or a conflict with the current expense if it was changed,
+     *         or not found if it was deleted in the meantime
      */
     @PutMapping("/{id}")
     public ResponseEntity<Expense> updateExpense(@PathVariable("id") long id,
@@ -126,7 +129,8 @@ public class ExpenseController {
             if (id < 0 || expenseService.getExpenseById(id)==null) {
                 return ResponseEntity.notFound().build();
             }
-            if (updatedExpense.getAmount() <= 0 || updatedExpense.getExpenseName().isEmpty()
+            if (updatedExpense.getAmount() == null || !updatedExpense.getAmount().isPositive()
+                    || updatedExpense.getExpenseName().isEmpty()
                     || updatedExpense.getBeneficiaries().isEmpty()){
                 return ResponseEntity.badRequest().build();
             }
@@ -135,6 +139,13 @@ public class ExpenseController {
             Expense updated = expenseService.updateExpense(id, updatedExpense);
             updateQueue.add(updated);
             return ResponseEntity.ok(updated);
+        } catch (OptimisticLockingFailureException e) {
+            Expense current = expenseService.getExpenseById(id);
+            if (current == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .eTag(Long.toString(current.getVersion())).body(current);
         } catch(Exception e){
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
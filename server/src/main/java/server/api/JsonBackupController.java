@@ -6,10 +6,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import commons.Event;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import server.services.EventChangePublisher;
 import server.services.EventService;
+import server.services.EventSubscriptionRegistry;
 
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -20,13 +24,24 @@ import java.util.List;
 @RequestMapping("/api/JSON")
 public class JsonBackupController {
     private final EventService eventService;
+    private final SimpMessagingTemplate msgs;
+    private final EventChangePublisher changes;
+    private final EventSubscriptionRegistry subscriptions;
 
     /**
      * I need some EventService methods
      * @param eventService
+     * @param msgs - tells clients about the events an import adds
+     * @param changes - sends the changes an import makes to existing events
+     * @param subscriptions - the clients long polling for changes of an event
      */
-    public JsonBackupController(EventService eventService) {
+    public JsonBackupController(EventService eventService, SimpMessagingTemplate msgs,
+                                EventChangePublisher changes,
+                                EventSubscriptionRegistry subscriptions) {
         this.eventService = eventService;
+        this.msgs = msgs;
+        this.changes = changes;
+        this.subscriptions = subscriptions;
     }
 
     /**
@@ -94,4 +109,31 @@ public class JsonBackupController {
         return ResponseEntity.ok().headers(headers).body(responseBytes);
     }
 
+    /**
+     * Restores a backup, adding the events that don't exist and overwriting the ones that do,
+     * all in one transaction that is written in batches
+     * @param events - the events of the backup
+     * @return - the saved events, or bad request if an event has no title
+     */
+    @PostMapping(path = {"/import"})
+    public ResponseEntity<List<Event>> importBackup(@RequestBody List<Event> events) {
+        try {
+            EventService.ImportResult result = eventService.importEvents(events);
+            for (Event created : result.created()) {
+                msgs.convertAndSend("/topic/events/create", created);
+            }
+            changes.publish(result.changes());
+            for (Event event : result.updated()) {
+                if (subscriptions.getSubscriberCount(event.getEventId()) > 0) {
+                    subscriptions.publish(event);
+                }
+            }
+            return ResponseEntity.ok(result.events());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
@@ -1,6 +1,7 @@
 package server.api;
 
 import com.google.inject.Inject;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -8,6 +9,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import commons.Participant;
 import org.springframework.web.bind.annotation.*;
+import server.services.EventChangePublisher;
 import server.services.UserService;
 
 import java.util.List;
@@ -19,15 +21,18 @@ import java.util.List;
 public class UserController {
 
     private UserService service;
+    private EventChangePublisher changes;
 
     /**
      * Constructor for the user controller
      *
      * @param service for the user
+     * @param changes - sends the new state of updated users to their events
      */
     @Inject
-    public UserController(UserService service) {
+    public UserController(UserService service, EventChangePublisher changes) {
         this.service = service;
+        this.changes = changes;
     }
 
     /**
@@ -84,7 +89,8 @@ public class UserController {
      *
      * @param id   the ID of the user
      * @param user the updated details of the user
-     * @return the updated user
+     * @return the updated user, or a conflict with the current user if it was changed,
+     *         or not found if it was deleted in the meantime
      */
     @PutMapping("/{id}")
     public ResponseEntity<Participant> updateUser(@PathVariable Long id,
@@ -94,8 +100,16 @@ public class UserController {
                     !service.isValidEmail(user.getEmail())) {
                 return ResponseEntity.badRequest().build();
             }
-            Participant updatedUser = service.updateUser(id, user);
-            return ResponseEntity.ok(updatedUser);
+            UserService.Update update = service.updateUser(id, user);
+            changes.publish(update.changes());
+            return ResponseEntity.ok(update.user());
+        } catch (OptimisticLockingFailureException e) {
+            Participant current = service.getUserById(id);
+            if (current == null) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .eTag(Long.toString(current.getVersion())).body(current);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (Exception e) {
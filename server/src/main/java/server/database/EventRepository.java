@@ -1,7 +1,20 @@
 package server.database;
 
 import commons.Event;
+import commons.Expense;
+import commons.EventSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 
 public interface EventRepository extends JpaRepository<Event, Long> {
@@ -11,4 +24,267 @@ public interface EventRepository extends JpaRepository<Event, Long> {
      * @return - the event with the corresponding invite code
      */
     Event findByInviteCode(String inviteCode);
+
+    /**
+     * Retrieves the events a participant takes part in
+     * @param userId - the id of the participant
+     * @return - the events with the participant in their participant list
+     */
+    List<Event> findByParticipantListUserId(long userId);
+
+    /**
+     * Retrieves the ids of the events a participant takes part in, without loading the events
+     * @param userId - the id of the participant
+     * @return - the ids of the events with the participant in their participant list
+     */
+    @Query("select e.eventId from Event e join e.participantList p where p.userId = :userId")
+    List<Long> findIdsByParticipant(@Param("userId") long userId);
+
+    /**
+     * Changes the title of an event, without loading or rewriting its participants and expenses.
+     * The check of the version and the update happen in the same statement.
+     * @param id - the id of the event
+     * @param title - the new title
+     * @param lastActivity - the time of the change
+     * @param version - the version the event has to be at, or null to update any version
+     * @return - the number of updated events, 0 if the event doesn't exist
+     *         or is at another version
+     */
+    @Modifying
+    @Transactional
+    @Query("update Event e set e.title = :title, e.lastActivity = :lastActivity, "
+            + "e.version = e.version + 1 "
+            + "where e.eventId = :id and (:version is null or e.version = :version)")
+    int updateTitle(@Param("id") long id, @Param("title") String title,
+                    @Param("lastActivity") LocalDateTime lastActivity,
+                    @Param("version") Long version);
+
+    /**
+     * Retrieves the version of an event, without loading the event
+     * @param id - the id of the event
+     * @return - the version, or null if the event doesn't exist
+     */
+    @Query("select e.version from Event e where e.eventId = :id")
+    Long findVersion(@Param("id") long id);
+
+    /**
+     * Selects the summary of an event, counting its participants and expenses
+     * and adding up its expenses in the database
+     */
+    String SUMMARY = "select new commons.EventSummary(e.eventId, e.title, e.inviteCode, "
+            + "e.creationDate, e.lastActivity, size(e.participantList), size(e.expenseList), "
+            + "(select sum(x.amount.cents) from Event s join s.expenseList x "
+            + "where s.eventId = e.eventId)) from Event e";
+
+    /**
+     * Retrieves the summaries of all events, without loading their participants and expenses
+     * @return - the summaries, ordered by event id
+     */
+    @Query(SUMMARY + " order by e.eventId")
+    List<EventSummary> findSummaries();
+
+    /**
+     * Retrieves the summary of an event, without loading its participants and expenses
+     * @param id - the id of the event
+     * @return - the summary, or null if the event doesn't exist
+     */
+    @Query(SUMMARY + " where e.eventId = :id")
+    EventSummary findSummary(@Param("id") long id);
+
+    /**
+     * Retrieves all events ordered by creation date in the database
+     * @return - the events, oldest first
+     */
+    List<Event> findAllByOrderByCreationDateAscEventIdAsc();
+
+    /**
+     * Retrieves all events ordered by last activity in the database
+     * @return - the events, least recently changed first
+     */
+    List<Event> findAllByOrderByLastActivityAscEventIdAsc();
+
+    /**
+     * Retrieves all events ordered by title in the database
+     * @return - the events, by title
+     */
+    List<Event> findAllByOrderByTitleAscEventIdAsc();
+
+    /**
+     * Retrieves the first page of summaries ordered by creation date
+     * @param page - the size of the page
+     * @return - the summaries
+     */
+    @Query(SUMMARY + " order by e.creationDate, e.eventId")
+    List<EventSummary> findSummariesByCreationDate(Pageable page);
+
+    /**
+     * Retrieves the page of summaries ordered by creation date after an event,
+     * seeking in the index instead of skipping the events before it
+     * @param creationDate - the creation date of the last event of the previous page
+     * @param id - the id of the last event of the previous page
+     * @param page - the size of the page
+     * @return - the summaries
+     */
+    @Query(SUMMARY + " where e.creationDate > :creationDate "
+            + "or (e.creationDate = :creationDate and e.eventId > :id) "
+            + "order by e.creationDate, e.eventId")
+    List<EventSummary> findSummariesByCreationDateAfter(
+            @Param("creationDate") LocalDateTime creationDate, @Param("id") long id,
+            Pageable page);
+
+    /**
+     * Retrieves the first page of summaries ordered by last activity
+     * @param page - the size of the page
+     * @return - the summaries
+     */
+    @Query(SUMMARY + " order by e.lastActivity, e.eventId")
+    List<EventSummary> findSummariesByLastActivity(Pageable page);
+
+    /**
+     * Retrieves the page of summaries ordered by last activity after an event
+     * @param lastActivity - the last activity of the last event of the previous page
+     * @param id - the id of the last event of the previous page
+     * @param page - the size of the page
+     * @return - the summaries
+     */
+    @Query(SUMMARY + " where e.lastActivity > :lastActivity "
+            + "or (e.lastActivity = :lastActivity and e.eventId > :id) "
+            + "order by e.lastActivity, e.eventId")
+    List<EventSummary> findSummariesByLastActivityAfter(
+            @Param("lastActivity") LocalDateTime lastActivity, @Param("id") long id,
+            Pageable page);
+
+    /**
+     * Retrieves the first page of summaries ordered by title
+     * @param page - the size of the page
+     * @return - the summaries
+     */
+    @Query(SUMMARY + " order by e.title, e.eventId")
+    List<EventSummary> findSummariesByTitle(Pageable page);
+
+    /**
+     * Retrieves the page of summaries ordered by title after an event
+     * @param title - the title of the last event of the previous page
+     * @param id - the id of the last event of the previous page
+     * @param page - the size of the page
+     * @return - the summaries
+     */
+    @Query(SUMMARY + " where e.title > :title or (e.title = :title and e.eventId > :id) "
+            + "order by e.title, e.eventId")
+    List<EventSummary> findSummariesByTitleAfter(@Param("title") String title,
+                                                 @Param("id") long id, Pageable page);
+
+    /**
+     * Retrieves events with their participants
+     * @param ids - the ids of the events
+     * @return - the events that exist
+     */
+    @EntityGraph(Event.WITH_PARTICIPANTS)
+    List<Event> findWithParticipantsByEventIdIn(Collection<Long> ids);
+
+    /**
+     * Retrieves events with their expenses and the payors and tags of the expenses
+     * @param ids - the ids of the events
+     * @return - the events that exist
+     */
+    @EntityGraph(Event.WITH_EXPENSES)
+    List<Event> findWithExpensesByEventIdIn(Collection<Long> ids);
+
+    /**
+     * Retrieves all events with their participants
+     * @return - the events
+     */
+    @EntityGraph(Event.WITH_PARTICIPANTS)
+    @Query("select e from Event e")
+    List<Event> findAllWithParticipants();
+
+    /**
+     * Retrieves all events with their expenses and the payors and tags of the expenses
+     * @return - the events
+     */
+    @EntityGraph(Event.WITH_EXPENSES)
+    @Query("select e from Event e")
+    List<Event> findAllWithExpenses();
+
+    /**
+     * Loads the beneficiaries of the expenses of events, going through the events
+     * so only their ids are bound, however many expenses they have
+     * @param ids - the ids of the events
+     * @return - the expenses of the events, with their beneficiaries
+     */
+    @Query("select distinct x from Event e join e.expenseList x left join fetch x.beneficiaries "
+            + "where e.eventId in :ids")
+    List<Expense> fetchBeneficiariesByEventIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Loads the beneficiaries of the expenses of all events
+     * @return - the expenses of the events, with their beneficiaries
+     */
+    @Query("select distinct x from Event e join e.expenseList x left join fetch x.beneficiaries")
+    List<Expense> fetchAllBeneficiaries();
+
+    /**
+     * Retrieves an event with everything that is sent along with it in three queries,
+     * instead of one query for every participant, expense, payor, beneficiary list and tag
+     * @param id - the id of the event
+     * @return - the event, or empty if it doesn't exist
+     */
+    @Transactional(readOnly = true)
+    default Optional<Event> findGraphById(long id) {
+        return findGraphsByIds(List.of(id)).stream().findFirst();
+    }
+
+    /**
+     * Retrieves events with everything that is sent along with them in three queries,
+     * however many events there are
+     * @param ids - the ids of the events
+     * @return - the events that exist
+     */
+    @Transactional(readOnly = true)
+    default List<Event> findGraphsByIds(Collection<Long> ids) {
+        return loadGraphs(ids);
+    }
+
+    /**
+     * Retrieves events with everything that is sent along with them like findGraphsByIds,
+     * in a transaction that can write, so changes made to the events inside
+     * the transaction of the caller are stored when it commits
+     * @param ids - the ids of the events
+     * @return - the events that exist
+     */
+    @Transactional
+    default List<Event> findGraphsForUpdate(Collection<Long> ids) {
+        return loadGraphs(ids);
+    }
+
+    /**
+     * Retrieves all events with everything that is sent along with them in three queries
+     * @return - the events
+     */
+    @Transactional(readOnly = true)
+    default List<Event> findAllGraphs() {
+        List<Event> events = findAllWithExpenses();
+        if (!events.isEmpty()) {
+            findAllWithParticipants();
+            fetchAllBeneficiaries();
+        }
+        return events;
+    }
+
+    /**
+     * Loads events with their participants, expenses and beneficiaries in three queries
+     * @param ids - the ids of the events
+     * @return - the events that exist
+     */
+    private List<Event> loadGraphs(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Event> events = findWithExpensesByEventIdIn(ids);
+        if (!events.isEmpty()) {
+            findWithParticipantsByEventIdIn(ids);
+            fetchBeneficiariesByEventIdIn(ids);
+        }
+        return events;
+    }
 }
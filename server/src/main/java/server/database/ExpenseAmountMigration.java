@@ -0,0 +1,80 @@
+package server.database;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Moves the amounts of expenses stored by older versions, as a decimal amount column,
+ * into the amount_cents column the amount is stored in now.
+ * It runs before Hibernate updates the schema, and does nothing once the old column is gone.
+ */
+@Component
+public class ExpenseAmountMigration implements InitializingBean {
+    /**
+     * The currency given to old expenses that were stored without one
+     */
+    static final String DEFAULT_CURRENCY = "EUR";
+
+    private final DataSource dataSource;
+
+    /**
+     * Constructor for the migration
+     * @param dataSource - the database
+     */
+    public ExpenseAmountMigration(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Copies the old amounts into cents, fills in missing currencies and drops the old column
+     * @throws SQLException if the schema can't be read
+     */
+    @Override
+    public void afterPropertiesSet() throws SQLException {
+        if (!hasColumn("EXPENSE", "AMOUNT")) {
+            return;
+        }
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        if (!hasColumn("EXPENSE", "AMOUNT_CENTS")) {
+            jdbc.execute("alter table expense add column amount_cents bigint");
+        }
+        jdbc.update("update expense set amount_cents = round(amount * 100)");
+        jdbc.update("update expense set currency = ? where currency is null", DEFAULT_CURRENCY);
+        jdbc.execute("alter table expense alter column amount_cents set not null");
+        jdbc.execute("alter table expense drop column amount");
+    }
+
+    /**
+     * Checks if a table has a column
+     * @param table - the name of the table, in upper case
+     * @param column - the name of the column, in upper case
+     * @return - true if the column exists
+     * @throws SQLException if the schema can't be read
+     */
+    private boolean hasColumn(String table, String column) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             ResultSet columns = connection.getMetaData().getColumns(null, null, table, column)) {
+            return columns.next();
+        }
+    }
+
+    /**
+     * Makes the entity manager factory, which updates the schema, wait for the migration
+     */
+    @Component
+    public static class Order extends EntityManagerFactoryDependsOnPostProcessor {
+        /**
+         * Constructor
+         */
+        public Order() {
+            super(ExpenseAmountMigration.class);
+        }
+    }
+}
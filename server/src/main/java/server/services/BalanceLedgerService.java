@@ -0,0 +1,458 @@
+package server.services;
+
+import com.google.inject.Inject;
+import commons.Debt;
+import commons.Event;
+import commons.Expense;
+import commons.MinCashFlowSettlement;
+import commons.Participant;
+import commons.SettlementStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import server.database.EventRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the net balance of every participant of an event up to date.
+ * Instead of going over the whole expense history every time debts are requested,
+ * every added, updated or deleted expense applies its difference to the ledger
+ * of its event. Ledgers are built lazily from the database the first time
+ * an event is read, so they survive a restart of the server.
+ * Every ledger carries a version that changes with every write,
+ * the debts generated from it are cached until the version changes.
+ * Writes made inside a transaction reach the ledger once it commits,
+ * so a rolled back write never shows up in the balances.
+ */
+@Service
+public class BalanceLedgerService {
+
+    private static final SettlementStrategy DEFAULT_SETTLEMENT = new MinCashFlowSettlement();
+    private static final Logger LOG = LoggerFactory.getLogger(BalanceLedgerService.class);
+
+    private final EventRepository repository;
+    private final Map<Long, Ledger> ledgers = new ConcurrentHashMap<>();
+    private final Map<Long, Long> expenseOwners = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private boolean verifying;
+
+    /**
+     * Constructor for the balance ledger service
+     * @param repository - the event database, used to build missing ledgers
+     */
+    @Inject
+    public BalanceLedgerService(EventRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Turns the verification mode on or off. When it is on, every read rebuilds
+     * the ledger from scratch and replaces the stored one if they differ.
+     * @param verifying - whether reads should be verified
+     */
+    @Value("${ledger.verify:false}")
+    public void setVerifying(boolean verifying) {
+        this.verifying = verifying;
+    }
+
+    /**
+     * Gets the net balance of every participant of an event, in cents.
+     * A positive balance means the participant owes money.
+     * @param eventId - the id of the event
+     * @return - the balance of every participant, or an empty map if the event doesn't exist
+     */
+    public Map<Participant, Long> getBalances(long eventId) {
+        Ledger ledger = read(eventId);
+        if (ledger == null) {
+            return Map.of();
+        }
+        synchronized (ledger) {
+            Map<Participant, Long> balances = new LinkedHashMap<>();
+            ledger.balances.forEach((id, cents) ->
+                    balances.put(ledger.participants.get(id), cents));
+            return balances;
+        }
+    }
+
+    /**
+     * Gets the debts of an event using the minimum number of transfers.
+     * The result is cached and only recomputed after the event changed.
+     * @param eventId - the id of the event
+     * @return - the debts of the event, or an empty list if the event doesn't exist
+     */
+    public List<Debt> getDebts(long eventId) {
+        Ledger ledger = read(eventId);
+        if (ledger == null) {
+            return List.of();
+        }
+        synchronized (ledger) {
+            if (ledger.debts == null || ledger.debtsVersion != ledger.version) {
+                ledger.debts = List.copyOf(settle(ledger, DEFAULT_SETTLEMENT));
+                ledger.debtsVersion = ledger.version;
+            }
+            return ledger.debts;
+        }
+    }
+
+    /**
+     * Generates the debts of an event from its ledger
+     * @param eventId - the id of the event
+     * @param strategy - the strategy used to settle the balances
+     * @return - the debts of the event, or an empty list if the event doesn't exist
+     */
+    public List<Debt> getDebts(long eventId, SettlementStrategy strategy) {
+        Ledger ledger = read(eventId);
+        if (ledger == null) {
+            return new ArrayList<>();
+        }
+        synchronized (ledger) {
+            return settle(ledger, strategy);
+        }
+    }
+
+    /**
+     * Gets the version of the ledger of an event, which changes with every write
+     * @param eventId - the id of the event
+     * @return - the version, or -1 if the event doesn't exist
+     */
+    public long getVersion(long eventId) {
+        Ledger ledger = read(eventId);
+        if (ledger == null) {
+            return -1;
+        }
+        synchronized (ledger) {
+            return ledger.version;
+        }
+    }
+
+    /**
+     * Runs a write to the ledgers once the transaction of the caller commits,
+     * or right away if there is no transaction
+     * @param write - the write
+     */
+    private static void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            write.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write.run();
+                }
+            });
+    }
+
+    /**
+     * Applies a new expense to the ledger of an event
+     * @param eventId - the id of the event the expense belongs to
+     * @param expense - the added expense
+     */
+    public void addExpense(long eventId, Expense expense) {
+        afterCommit(() -> {
+            Ledger ledger = ledgers.get(eventId);
+            if (ledger == null) {
+                return;
+            }
+            synchronized (ledger) {
+                ledger.apply(expense);
+            }
+            expenseOwners.put(expense.getExpenseId(), eventId);
+        });
+    }
+
+    /**
+     * Replaces the old version of an expense in the ledger of its event.
+     * Expenses that don't belong to a known event are picked up
+     * once their event is updated.
+     * @param expense - the updated expense
+     */
+    public void updateExpense(Expense expense) {
+        afterCommit(() -> {
+            Ledger ledger = ledgerOf(expense.getExpenseId());
+            if (ledger == null) {
+                return;
+            }
+            synchronized (ledger) {
+                ledger.apply(expense);
+            }
+        });
+    }
+
+    /**
+     * Removes an expense from the ledger of its event
+     * @param expenseId - the id of the deleted expense
+     */
+    public void removeExpense(long expenseId) {
+        afterCommit(() -> {
+            Ledger ledger = ledgerOf(expenseId);
+            expenseOwners.remove(expenseId);
+            if (ledger == null) {
+                return;
+            }
+            synchronized (ledger) {
+                ledger.revert(expenseId);
+            }
+        });
+    }
+
+    /**
+     * Brings the ledger of an event in line with its expense list,
+     * only re-applying the expenses that were added, changed or removed
+     * @param event - the saved event
+     */
+    public void syncEvent(Event event) {
+        afterCommit(() -> {
+            Ledger ledger = ledgers.get(event.getEventId());
+            if (ledger == null) {
+                return;
+            }
+            synchronized (ledger) {
+                Set<Long> removed = new HashSet<>(ledger.contributions.keySet());
+                for (Expense expense : event.getExpenses()) {
+                    removed.remove(expense.getExpenseId());
+                    ledger.apply(expense);
+                    expenseOwners.put(expense.getExpenseId(), event.getEventId());
+                }
+                for (Long expenseId : removed) {
+                    ledger.revert(expenseId);
+                    expenseOwners.remove(expenseId);
+                }
+                for (Participant participant : event.getParticipants()) {
+                    ledger.participants.computeIfPresent(participant.getUserId(),
+                        (id, old) -> participant);
+                }
+                ledger.version = versions.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Drops the ledger of a deleted event
+     * @param eventId - the id of the event
+     */
+    public void removeEvent(long eventId) {
+        afterCommit(() -> drop(eventId));
+    }
+
+    /**
+     * Drops the ledgers of all events, they are built again on their next read
+     */
+    public void clear() {
+        ledgers.clear();
+        expenseOwners.clear();
+    }
+
+    /**
+     * Drops the ledger of an event right away
+     * @param eventId - the id of the event
+     */
+    private void drop(long eventId) {
+        Ledger ledger = ledgers.remove(eventId);
+        if (ledger != null) {
+            synchronized (ledger) {
+                ledger.contributions.keySet().forEach(expenseOwners::remove);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the ledger of an event from scratch and compares it with the stored one.
+     * If they differ the stored ledger is replaced by the rebuilt one.
+     * @param eventId - the id of the event
+     * @return - true if the stored ledger was correct or didn't exist yet
+     */
+    public boolean verify(long eventId) {
+        Optional<Event> event = repository.findById(eventId);
+        if (event.isEmpty()) {
+            drop(eventId);
+            return true;
+        }
+        Ledger rebuilt = build(event.get());
+        Ledger stored = ledgers.put(eventId, rebuilt);
+        if (stored == null) {
+            return true;
+        }
+        synchronized (stored) {
+            if (nonZero(stored.balances).equals(nonZero(rebuilt.balances))) {
+                return true;
+            }
+        }
+        LOG.warn("Balance ledger of event {} was out of sync, rebuilt it", eventId);
+        return false;
+    }
+
+    /**
+     * Settles the balances of a ledger, the caller has to hold its lock
+     */
+    private static List<Debt> settle(Ledger ledger, SettlementStrategy strategy) {
+        List<Participant> participants = new ArrayList<>();
+        long[] balances = new long[ledger.balances.size()];
+        for (Map.Entry<Long, Long> entry : ledger.balances.entrySet()) {
+            balances[participants.size()] = entry.getValue();
+            participants.add(ledger.participants.get(entry.getKey()));
+        }
+        return strategy.generateDebts(participants, balances, ledger.currency);
+    }
+
+    /**
+     * Gets the ledger of an event for reading, building it if needed
+     */
+    private Ledger read(long eventId) {
+        if (verifying) {
+            verify(eventId);
+        }
+        return ledgers.computeIfAbsent(eventId,
+            id -> repository.findById(id).map(this::build).orElse(null));
+    }
+
+    /**
+     * Gets the ledger of the event an expense belongs to
+     */
+    private Ledger ledgerOf(long expenseId) {
+        Long eventId = expenseOwners.get(expenseId);
+        return eventId == null ? null : ledgers.get(eventId);
+    }
+
+    /**
+     * Builds a ledger by applying every expense of an event
+     */
+    private Ledger build(Event event) {
+        Ledger ledger = new Ledger();
+        for (Participant participant : event.getParticipants()) {
+            ledger.participants.put(participant.getUserId(), participant);
+            ledger.balances.put(participant.getUserId(), 0L);
+        }
+        for (Expense expense : event.getExpenses()) {
+            ledger.apply(expense);
+            expenseOwners.put(expense.getExpenseId(), event.getEventId());
+        }
+        return ledger;
+    }
+
+    /**
+     * Copies the balances that aren't zero
+     */
+    private static Map<Long, Long> nonZero(Map<Long, Long> balances) {
+        Map<Long, Long> result = new HashMap<>(balances);
+        result.values().removeIf(cents -> cents == 0);
+        return result;
+    }
+
+    /**
+     * The balances of a single event, together with the
+     * contribution of every expense so it can be undone later
+     */
+    private final class Ledger {
+        private final Map<Long, Participant> participants = new LinkedHashMap<>();
+        private final Map<Long, Long> balances = new LinkedHashMap<>();
+        private final Map<Long, Contribution> contributions = new HashMap<>();
+        private long version = versions.incrementAndGet();
+        private List<Debt> debts;
+        private long debtsVersion;
+        private String currency;
+
+        /**
+         * Applies an expense, replacing its previous contribution if it had one
+         */
+        private void apply(Expense expense) {
+            Contribution contribution = Contribution.of(expense);
+            Contribution old = contributions.put(expense.getExpenseId(), contribution);
+            if (contribution.equals(old)) {
+                return;
+            }
+            if (old != null) {
+                old.addTo(balances, -1);
+            }
+            participants.putIfAbsent(expense.getPayor().getUserId(), expense.getPayor());
+            for (Participant beneficiary : expense.getBeneficiaries()) {
+                participants.putIfAbsent(beneficiary.getUserId(), beneficiary);
+            }
+            contribution.addTo(balances, 1);
+            currency = expense.getCurrency();
+            version = versions.incrementAndGet();
+        }
+
+        /**
+         * Undoes the contribution of an expense
+         */
+        private void revert(long expenseId) {
+            Contribution old = contributions.remove(expenseId);
+            if (old != null) {
+                old.addTo(balances, -1);
+                version = versions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * The change in balance an expense causes for every participant involved
+     */
+    private static final class Contribution {
+        private final long[] participantIds;
+        private final long[] cents;
+
+        private Contribution(long[] participantIds, long[] cents) {
+            this.participantIds = participantIds;
+            this.cents = cents;
+        }
+
+        /**
+         * Computes the contribution of an expense
+         */
+        private static Contribution of(Expense expense) {
+            List<Participant> beneficiaries = expense.getBeneficiaries();
+            if (beneficiaries == null || beneficiaries.isEmpty()) {
+                return new Contribution(new long[0], new long[0]);
+            }
+            long[] ids = new long[beneficiaries.size() + 1];
+            long[] cents = new long[ids.length];
+            ids[0] = expense.getPayor().getUserId();
+            cents[0] = -expense.amountInCents();
+            for (int i = 0; i < beneficiaries.size(); i++) {
+                ids[i + 1] = beneficiaries.get(i).getUserId();
+                cents[i + 1] = expense.shareInCents(i);
+            }
+            return new Contribution(ids, cents);
+        }
+
+        /**
+         * Adds this contribution to the balances, multiplied by the given sign
+         */
+        private void addTo(Map<Long, Long> balances, int sign) {
+            for (int i = 0; i < participantIds.length; i++) {
+                balances.merge(participantIds[i], sign * cents[i], Long::sum);
+            }
+        }
+
+        /**
+         * Checks if two contributions change the same balances by the same amounts
+         * @param o - object to compare
+         * @return - true if o is an identical contribution
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Contribution that = (Contribution) o;
+            return Arrays.equals(participantIds, that.participantIds)
+                    && Arrays.equals(cents, that.cents);
+        }
+
+        /**
+         * hashcode method
+         * @return - int representing the contribution
+         */
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(participantIds) + Arrays.hashCode(cents);
+        }
+    }
+}
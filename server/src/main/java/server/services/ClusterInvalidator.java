@@ -0,0 +1,111 @@
+package server.services;
+
+import com.google.inject.Inject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import server.database.EventRepository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Keeps the caches of every server instance in line when they share a broker.
+ * The balance ledgers and the long poll registry only see the writes made on their own
+ * server, so every write is announced on a topic of the broker, and the other servers drop
+ * their ledger of the event and hand the new state to their long polling clients.
+ * With the simple broker there is only one server and nothing is announced.
+ */
+@Service
+public class ClusterInvalidator {
+
+    /**
+     * The destination the writes are announced on, clients don't subscribe to it
+     */
+    public static final String TOPIC = "/topic/cluster.invalidate";
+
+    /**
+     * A write to an event made on a server
+     * @param node - the id of the server the write was made on
+     * @param eventId - the id of the event
+     */
+    public record Invalidation(String node, long eventId) {
+    }
+
+    private final SimpMessagingTemplate msgs;
+    private final BalanceLedgerService ledger;
+    private final EventSubscriptionRegistry subscriptions;
+    private final EventRepository events;
+    private final String node = UUID.randomUUID().toString();
+    private boolean clustered;
+
+    /**
+     * Constructor for the cluster invalidator
+     * @param msgs - the messaging template writes are announced through
+     * @param ledger - the balance ledgers of this server
+     * @param subscriptions - the long polling clients of this server
+     * @param events - the event database, the new state of an event is loaded from it
+     */
+    @Inject
+    public ClusterInvalidator(SimpMessagingTemplate msgs, BalanceLedgerService ledger,
+                              EventSubscriptionRegistry subscriptions, EventRepository events) {
+        this.msgs = msgs;
+        this.ledger = ledger;
+        this.subscriptions = subscriptions;
+        this.events = events;
+    }
+
+    /**
+     * Announces writes only when the broker is shared with other servers
+     * @param mode - the broker mode, simple, relay or embedded
+     */
+    @Value("${broker.mode:simple}")
+    public void setMode(String mode) {
+        this.clustered = !mode.equals("simple");
+    }
+
+    /**
+     * Gets the id of this server, which its announcements carry
+     * @return - the id
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Tells the other servers that events were written
+     * @param eventIds - the ids of the events
+     */
+    public void announce(Collection<Long> eventIds) {
+        if (!clustered) {
+            return;
+        }
+        for (Long eventId : eventIds) {
+            msgs.convertAndSend(TOPIC, new Invalidation(node, eventId));
+        }
+    }
+
+    /**
+     * Handles a write announced by a server, ignoring the ones of this server
+     * @param invalidation - the announced write
+     */
+    public void receive(Invalidation invalidation) {
+        if (node.equals(invalidation.node())) {
+            return;
+        }
+        long eventId = invalidation.eventId();
+        ledger.removeEvent(eventId);
+        if (subscriptions.getSubscriberCount(eventId) > 0) {
+            events.findGraphById(eventId).ifPresentOrElse(subscriptions::publish,
+                () -> subscriptions.remove(eventId));
+        }
+    }
+
+    /**
+     * Forgets everything cached from before announcements may have been missed,
+     * like after the connection to the broker was lost
+     */
+    public void reset() {
+        ledger.clear();
+    }
+}
@@ -0,0 +1,75 @@
+package server.services;
+
+import com.google.inject.Inject;
+import commons.EventChange;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Sends the changes made to events to the clients over websockets.
+ * Every event has its own topic, so a change only reaches the clients that have the event open.
+ * Every change carries the version of its event after the write that made it, which the
+ * write raised in its own transaction. The version lives in the database, so the changes
+ * of one event keep counting up by one whichever server made them, and clients can detect
+ * a missed change and fetch the whole event again.
+ * Every sent change is also announced to the other servers, see ClusterInvalidator.
+ */
+@Service
+public class EventChangePublisher {
+
+    /**
+     * Prefix of the destinations the changes are sent to, followed by the event id
+     */
+    public static final String TOPIC = "/topic/events/";
+
+    private final SimpMessagingTemplate msgs;
+    private final ClusterInvalidator cluster;
+
+    /**
+     * Constructor for the event change publisher
+     * @param msgs - the SimpMessagingTemplate to handle WebSocket messaging
+     * @param cluster - tells the other servers which events changed
+     */
+    @Inject
+    public EventChangePublisher(SimpMessagingTemplate msgs, ClusterInvalidator cluster) {
+        this.msgs = msgs;
+        this.cluster = cluster;
+    }
+
+    /**
+     * Sends changes, which already carry the version of their event
+     * @param changes - the changes to send, in the order they were made
+     * @return - the sent changes
+     */
+    public List<EventChange> publish(List<EventChange> changes) {
+        Set<Long> changed = new LinkedHashSet<>();
+        for (EventChange change : changes) {
+            changed.add(change.getEventId());
+            msgs.convertAndSend(topic(change.getEventId()), change);
+        }
+        cluster.announce(changed);
+        return changes;
+    }
+
+    /**
+     * Tells the clients that have an event open that it was deleted.
+     * The event has no version left, so the change has none either.
+     * @param eventId - the id of the event
+     */
+    public void remove(long eventId) {
+        publish(List.of(EventChange.eventDeleted(eventId)));
+    }
+
+    /**
+     * Gets the destination the changes of an event are sent to
+     * @param eventId - the id of the event
+     * @return - the destination
+     */
+    public static String topic(long eventId) {
+        return TOPIC + eventId;
+    }
+}
@@ -1,48 +1,148 @@
 package server.services;
 
+import commons.Debt;
 import commons.Event;
+import commons.EventBatch;
+import commons.EventChange;
+import commons.EventSummary;
+import commons.EventSummaryPage;
+import commons.Expense;
+import commons.Participant;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import server.database.EventRepository;
 import com.google.inject.Inject;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 
 @Service
 public class EventService {
 
+    /**
+     * Ledger versions start over when the server restarts,
+     * so the entity tags of debts also hold which run of the server made them.
+     */
+    private static final String RUN = Long.toHexString(ThreadLocalRandom.current().nextLong());
+
+    /**
+     * How often a new event is given another invite code when its code was taken
+     */
+    private static final int INVITE_CODE_ATTEMPTS = 5;
+
+    /**
+     * The most events that can be asked for at once
+     */
+    public static final int MAX_BATCH = 500;
+
+    /**
+     * The most summaries on one page of a listing
+     */
+    public static final int MAX_PAGE = 500;
+
     private final EventRepository repository;
+    private final BalanceLedgerService ledger;
 
     /**
      * Constructor for the event service
      * @param repository - the database
+     * @param ledger - the balance ledger kept up to date with every change
      */
     @Inject
-    public EventService(EventRepository repository){
+    public EventService(EventRepository repository, BalanceLedgerService ledger){
         this.repository = repository;
+        this.ledger = ledger;
     }
 
     /**
-     * find and return either event or null in case of id not being found
+     * find and return either event or null in case of id not being found,
+     * the event comes with its participants and expenses, loaded in a fixed number of queries
      * @param id
      * @return event or null
      */
     public Event findEvent(long id){
-        if(repository.existsById(id)){
-            return(repository.findById(id).get());
+        return repository.findGraphById(id).orElse(null);
+    }
+
+    /**
+     * Finds several events with a single query
+     * @param ids - the ids of the events
+     * @return - the events that exist, in the order of the ids, and the ids without an event
+     * @throws IllegalArgumentException if more than MAX_BATCH events are asked for
+     */
+    public EventBatch findEvents(List<Long> ids) {
+        LinkedHashSet<Long> wanted = new LinkedHashSet<>(ids);
+        if (wanted.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH + " events at once");
+        }
+        Map<Long, Event> found = new HashMap<>();
+        for (Event event : repository.findGraphsByIds(wanted)) {
+            found.put(event.getEventId(), event);
+        }
+        List<Event> events = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : wanted) {
+            Event event = found.get(id);
+            if (event != null) {
+                events.add(event);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new EventBatch(events, missing);
+    }
+
+    /**
+     * Gets the summaries of all events, without loading their participants and expenses
+     * @return - the summaries
+     */
+    public List<EventSummary> getSummaries() {
+        return repository.findSummaries();
+    }
+
+    /**
+     * Gets the summary of an event, without loading its participants and expenses
+     * @param id - the id of the event
+     * @return - the summary
+     * @throws IllegalArgumentException if the event doesn't exist
+     */
+    public EventSummary getSummary(long id) {
+        EventSummary summary = repository.findSummary(id);
+        if (summary == null) {
+            throw new IllegalArgumentException();
         }
-        return null;
+        return summary;
     }
 
     /**
-     *  Method that returns all the events in the database
+     * Checks if an event exists, without loading it
+     * @param id - the id of the event
+     * @return - true if the event exists
+     */
+    public boolean exists(long id) {
+        return repository.existsById(id);
+    }
+
+    /**
+     *  Method that returns all the events in the database, with their participants and expenses
      * @return - a list containing all the events
      */
     public List<Event> getAllEvents(){
-        return repository.findAll();
+        return repository.findAllGraphs();
     }
 
     /**
@@ -51,6 +151,7 @@ public class EventService {
      */
     public void deleteEvent(long id) {
         repository.deleteById(id);
+        ledger.removeEvent(id);
 
     }
 
@@ -59,6 +160,8 @@ public class EventService {
      * @param id - the id of the event to be updated
      * @param newEvent - the event containing the new information
      * @return the updated event
+     * @throws OptimisticLockingFailureException if the event was changed
+     *          since the version the new event is based on
      */
     public Event updateEvent(long id, Event newEvent) {
         if (id < 0 || !repository.existsById(id) || newEvent.getTitle() == null) {
@@ -67,6 +170,9 @@ public class EventService {
         Optional<Event> optionalEvent = repository.findById(id);
         if(optionalEvent.isPresent()){
             Event event = optionalEvent.get();
+            if (event.getVersion() != newEvent.getVersion()) {
+                throw new OptimisticLockingFailureException("Event " + id + " was changed");
+            }
             event.setTitle(newEvent.getTitle());
 
             event.setExpenses(newEvent.getExpenses());
@@ -75,7 +181,8 @@ public class EventService {
                 event.inviteCodeGeneratorAndSetter();
             event.setParticipants(newEvent.getParticipants());
             event.setLastActivity(LocalDateTime.now());
-            repository.save(event);
+            event = repository.save(event);
+            ledger.syncEvent(event);
             return event;
         }
         else throw new IllegalArgumentException();
@@ -84,7 +191,170 @@ public class EventService {
     }
 
     /**
-     * Adds an event to the database
+     * Applies a JSON merge patch to an event, only writing the fields it contains.
+     * The title is the only field that can be patched,
+     * participants and expenses have their own endpoints.
+     * @param id - the id of the event
+     * @param patch - the fields to change with their new values
+     * @param version - the version the patch was made against, or null to patch any version
+     * @return - the changes that were made, with the new version of the event
+     * @throws IllegalArgumentException if the patch contains a field that can't be changed
+     *          or an invalid value
+     * @throws OptimisticLockingFailureException if the event is missing
+     *          or no longer at the given version
+     */
+    @Transactional
+    public List<EventChange> patchEvent(long id, Map<String, Object> patch, Long version) {
+        for (String field : patch.keySet()) {
+            if (!field.equals("title")) {
+                throw new IllegalArgumentException("Field " + field + " can't be patched");
+            }
+        }
+        if (!patch.containsKey("title")) {
+            return List.of();
+        }
+        if (!(patch.get("title") instanceof String title) || title.isEmpty()) {
+            throw new IllegalArgumentException("Invalid title");
+        }
+        if (repository.updateTitle(id, title, LocalDateTime.now(), version) == 0) {
+            throw new OptimisticLockingFailureException("Event " + id + " was changed");
+        }
+        // the updated row stays locked until the commit, so this is the version of this patch
+        EventChange change = EventChange.titleChanged(id, title);
+        change.setVersion(repository.findVersion(id));
+        return List.of(change);
+    }
+
+    /**
+     * Removes a participant from an event, leaving the rest of the event as it is
+     * @param id - the id of the event
+     * @param userId - the id of the participant
+     * @return - the change that was made, with the new version of the event
+     * @throws IllegalArgumentException if the event doesn't have the participant
+     */
+    public EventChange removeParticipant(long id, long userId) {
+        Event event = repository.findById(id).orElseThrow(IllegalArgumentException::new);
+        if (!event.getParticipants().removeIf(p -> p.getUserId() == userId)) {
+            throw new IllegalArgumentException();
+        }
+        event.setLastActivity(LocalDateTime.now());
+        event = repository.save(event);
+        ledger.syncEvent(event);
+        EventChange change = EventChange.participantRemoved(id, userId);
+        change.setVersion(event.getVersion());
+        return change;
+    }
+
+    /**
+     * Computes the changes an update would make to an event
+     * @param id - the id of the event to be updated
+     * @param newEvent - the event containing the new information
+     * @return - the changes, or an empty list if the event doesn't exist
+     */
+    public List<EventChange> getChanges(long id, Event newEvent) {
+        return repository.findById(id)
+                .map(event -> EventChange.diff(event, newEvent))
+                .orElse(List.of());
+    }
+
+    /**
+     * The events an import wrote and the changes it made to events that already existed
+     * @param events - the saved events, in the order they were imported
+     * @param created - the events that didn't exist before
+     * @param updated - the events that did exist and were overwritten
+     * @param changes - the changes made to the events that did exist,
+     *                with the versions the import raised them to
+     */
+    public record ImportResult(List<Event> events, List<Event> created, List<Event> updated,
+                               List<EventChange> changes) {
+    }
+
+    /**
+     * Adds or overwrites many events at once, like restoring a backup.
+     * Events that exist are overwritten whatever their version, the rest are added.
+     * Everything is saved in one transaction, so the writes go out in JDBC batches
+     * instead of one statement per event, participant and expense.
+     * @param imported - the events to import
+     * @return - the saved events, the added ones and the changes to the overwritten ones
+     * @throws IllegalArgumentException if an event has no title
+     */
+    @Transactional
+    public ImportResult importEvents(List<Event> imported) {
+        for (Event event : imported) {
+            if (event.getTitle() == null || event.getTitle().isEmpty()) {
+                throw new IllegalArgumentException("Every event needs a title");
+            }
+        }
+        Map<Long, Event> existing = new HashMap<>();
+        for (Event event : repository.findGraphsForUpdate(
+                imported.stream().map(Event::getEventId).toList())) {
+            existing.put(event.getEventId(), event);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Event> added = new ArrayList<>();
+        List<Event> overwritten = new ArrayList<>();
+        List<EventChange> changes = new ArrayList<>();
+        for (Event event : imported) {
+            Event current = existing.get(event.getEventId());
+            if (current == null) {
+                if (event.getCreationDate() == null) {
+                    event.setCreationDate(now);
+                }
+                if (event.getInviteCode() == null) {
+                    event.inviteCodeGeneratorAndSetter();
+                }
+                event.setLastActivity(now);
+                added.add(event);
+                continue;
+            }
+            changes.addAll(EventChange.diff(current, event));
+            overwriteVersions(event, current);
+            current.setTitle(event.getTitle());
+            current.setParticipants(event.getParticipants());
+            current.setExpenses(event.getExpenses());
+            current.setLastActivity(now);
+            overwritten.add(current);
+        }
+        // saveAll keeps the order, the added events come first as they may get any new id
+        List<Event> toSave = new ArrayList<>(added);
+        toSave.addAll(overwritten);
+        List<Event> saved = repository.saveAll(toSave);
+        repository.flush();
+        List<Event> created = List.copyOf(saved.subList(0, added.size()));
+        List<Event> updated = List.copyOf(saved.subList(added.size(), saved.size()));
+        Map<Long, Long> versions = new HashMap<>();
+        updated.forEach(event -> versions.put(event.getEventId(), event.getVersion()));
+        changes.forEach(change -> change.setVersion(versions.get(change.getEventId())));
+        updated.forEach(ledger::syncEvent);
+        return new ImportResult(saved, created, updated, changes);
+    }
+
+    /**
+     * Gives the participants and expenses of an imported event the versions
+     * they have in the database, so importing overwrites them instead of being refused
+     * @param imported - the imported event
+     * @param current - the event as it is in the database
+     */
+    private static void overwriteVersions(Event imported, Event current) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Participant participant : current.getParticipants()) {
+            versions.put(participant.getUserId(), participant.getVersion());
+        }
+        for (Participant participant : imported.getParticipants()) {
+            participant.setVersion(versions.getOrDefault(participant.getUserId(), 0L));
+        }
+        versions.clear();
+        for (Expense expense : current.getExpenses()) {
+            versions.put(expense.getExpenseId(), expense.getVersion());
+        }
+        for (Expense expense : imported.getExpenses()) {
+            expense.setVersion(versions.getOrDefault(expense.getExpenseId(), 0L));
+        }
+    }
+
+    /**
+     * Adds an event to the database with a new invite code,
+     * drawing another code when the unique index says it is taken
      * @param event - the event to be added
      * @return - the added event
      */
@@ -94,12 +364,77 @@ public class EventService {
         }
         event.setCreationDate(LocalDateTime.now());
         event.setLastActivity(LocalDateTime.now());
-        event.inviteCodeGeneratorAndSetter();
-        while (repository.findByInviteCode(event.getInviteCode()) != null) {
+        Runnable undo = undoSave(event);
+        for (int attempt = 1; ; attempt++) {
             event.inviteCodeGeneratorAndSetter();
+            try {
+                repository.save(event);
+                return event;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == INVITE_CODE_ATTEMPTS || !isInviteCodeTaken(e)) {
+                    throw e;
+                }
+                undo.run();
+            }
+        }
+    }
+
+    /**
+     * Remembers the ids and versions of a new event and the participants and expenses
+     * saving it cascades to. A failed save hands out ids and wraps the lists,
+     * saving again after undoing that persists the event instead of being refused.
+     * @param event - the event about to be saved
+     * @return - puts the event back the way it was before saving
+     */
+    private static Runnable undoSave(Event event) {
+        long eventId = event.getEventId();
+        long version = event.getVersion();
+        List<Participant> participants = new ArrayList<>(event.getParticipants());
+        long[][] participantIds = new long[participants.size()][];
+        for (int i = 0; i < participants.size(); i++) {
+            Participant participant = participants.get(i);
+            participantIds[i] = new long[]{participant.getUserId(), participant.getVersion()};
+        }
+        List<Expense> expenses = new ArrayList<>(event.getExpenses());
+        long[][] expenseIds = new long[expenses.size()][];
+        for (int i = 0; i < expenses.size(); i++) {
+            Expense expense = expenses.get(i);
+            expenseIds[i] = new long[]{expense.getExpenseId(), expense.getVersion()};
         }
-        repository.save(event);
-        return event;
+        return () -> {
+            event.setEventId(eventId);
+            event.setVersion(version);
+            for (int i = 0; i < participants.size(); i++) {
+                participants.get(i).setUserId(participantIds[i][0]);
+                participants.get(i).setVersion(participantIds[i][1]);
+            }
+            for (int i = 0; i < expenses.size(); i++) {
+                Expense expense = expenses.get(i);
+                expense.setExpenseId(expenseIds[i][0]);
+                expense.setVersion(expenseIds[i][1]);
+                if (expense.getBeneficiaries() != null) {
+                    expense.setBeneficiaries(new ArrayList<>(expense.getBeneficiaries()));
+                }
+            }
+            event.setParticipants(new ArrayList<>(participants));
+            event.setExpenses(new ArrayList<>(expenses));
+        };
+    }
+
+    /**
+     * Checks if saving failed because the invite code belongs to another event.
+     * The unique index decides, instead of looking the code up before every insert.
+     * @param e - the exception saving threw
+     * @return - true if the violated constraint is the index on the invite codes
+     */
+    private static boolean isInviteCodeTaken(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName();
+                return name != null && name.toLowerCase().contains(Event.INVITE_CODE_INDEX);
+            }
+        }
+        return false;
     }
 
     /**
@@ -107,9 +442,7 @@ public class EventService {
      * @return - the sorted list containing all the events
      */
     public List<Event> getEventsOrderedByCreationDate() {
-        List<Event> events = repository.findAll();
-        events.sort(Comparator.comparing(Event::getCreationDate));
-        return events;
+        return repository.findAllByOrderByCreationDateAscEventIdAsc();
     }
 
     /**
@@ -117,9 +450,7 @@ public class EventService {
      * @return - the sorted list containing all the events
      */
     public List<Event> getEventsOrderedByLastActivity() {
-        List<Event> events = repository.findAll();
-        events.sort(Comparator.comparing(Event::getLastActivity));
-        return events;
+        return repository.findAllByOrderByLastActivityAscEventIdAsc();
     }
 
     /**
@@ -127,9 +458,118 @@ public class EventService {
      * @return - the sorted list containing all the events
      */
     public List<Event> getEventsOrderedByTitle() {
-        List<Event> events = repository.findAll();
-        events.sort(Comparator.comparing(Event::getTitle));
-        return events;
+        return repository.findAllByOrderByTitleAscEventIdAsc();
+    }
+
+    /**
+     * Gets a page of the summaries of all events, sorted in the database.
+     * Pages are found by seeking past the last event of the previous page,
+     * so every page takes as long as the first.
+     * @param sort - the field to sort on: creationDate, lastActivity or title
+     * @param after - the cursor of the page, from the previous page, or null for the first page
+     * @param limit - the number of summaries on the page
+     * @return - the page, with the cursor of the next one if there can be more
+     * @throws IllegalArgumentException if the sort, cursor or limit isn't valid
+     */
+    public EventSummaryPage getSummaryPage(String sort, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE) {
+            throw new IllegalArgumentException("The limit has to be between 1 and " + MAX_PAGE);
+        }
+        Pageable page = PageRequest.of(0, limit);
+        String value = null;
+        long id = 0;
+        if (after != null) {
+            int split = after.indexOf(':');
+            if (split < 0) {
+                throw new IllegalArgumentException("Invalid cursor " + after);
+            }
+            id = Long.parseLong(after.substring(0, split));
+            value = after.substring(split + 1);
+        }
+        List<EventSummary> summaries;
+        try {
+            summaries = switch (sort) {
+                case "creationDate" -> value == null
+                        ? repository.findSummariesByCreationDate(page)
+                        : repository.findSummariesByCreationDateAfter(
+                                LocalDateTime.parse(value), id, page);
+                case "lastActivity" -> value == null
+                        ? repository.findSummariesByLastActivity(page)
+                        : repository.findSummariesByLastActivityAfter(
+                                LocalDateTime.parse(value), id, page);
+                case "title" -> value == null
+                        ? repository.findSummariesByTitle(page)
+                        : repository.findSummariesByTitleAfter(value, id, page);
+                default -> throw new IllegalArgumentException("Unknown sort " + sort);
+            };
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor " + after, e);
+        }
+        String next = null;
+        if (summaries.size() == limit) {
+            next = cursor(sort, summaries.get(limit - 1));
+        }
+        return new EventSummaryPage(summaries, next);
+    }
+
+    /**
+     * Builds the cursor of the page after an event, its id and the value it is sorted on
+     * @param sort - the field the listing is sorted on
+     * @param last - the last event on the page
+     * @return - the cursor
+     */
+    private static String cursor(String sort, EventSummary last) {
+        Object value = switch (sort) {
+            case "creationDate" -> last.getCreationDate();
+            case "lastActivity" -> last.getLastActivity();
+            default -> last.getTitle();
+        };
+        return last.getEventId() + ":" + value;
+    }
+
+    /**
+     * Gets the debts that settle an event, computed from its balance ledger
+     * @param id - the id of the event
+     * @return - the list of debts
+     */
+    public List<Debt> getDebts(long id) {
+        if (!repository.existsById(id)) {
+            throw new IllegalArgumentException();
+        }
+        return ledger.getDebts(id);
+    }
+
+    /**
+     * Gets the entity tag of the debts of an event, which changes with every write to the event.
+     * Read it before the debts, so a write in between only makes the tag older than the debts.
+     * @param id - the id of the event
+     * @return - the entity tag, without quotes
+     * @throws IllegalArgumentException if the event doesn't exist
+     */
+    public String getDebtsTag(long id) {
+        if (!repository.existsById(id)) {
+            throw new IllegalArgumentException();
+        }
+        return RUN + "-" + ledger.getVersion(id);
+    }
+
+    /**
+     * Builds the entity tag of an event, which changes whenever its JSON does.
+     * Expenses and participants have versions of their own, which are included,
+     * and tags aren't versioned, so their fields are hashed.
+     * @param event - the event
+     * @return - the entity tag, without quotes
+     */
+    public static String etag(Event event) {
+        long state = 1;
+        for (Participant participant : event.getParticipants()) {
+            state = 31 * state + Objects.hash(participant.getUserId(), participant.getVersion());
+        }
+        for (Expense expense : event.getExpenses()) {
+            state = 31 * state
+                    + Objects.hash(expense.getExpenseId(), expense.getVersion(), expense.getTag());
+        }
+        return event.getVersion() + "-" + Long.toHexString(state);
     }
 
     /**
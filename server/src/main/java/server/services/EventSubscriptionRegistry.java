@@ -0,0 +1,157 @@
+package server.services;
+
+import com.google.inject.Inject;
+import commons.Event;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+import server.database.EventRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the clients that are long polling for changes of an event.
+ * Subscribers are grouped per event, so an update only wakes up the clients
+ * that have that event open. An event only has an entry while clients are waiting on it.
+ * Every published update gets a version. Clients send back the version of the
+ * last update they received, so a client that was reconnecting while an update
+ * was published gets it right away instead of waiting for the next one.
+ * Only the version of the latest update of an event is kept, the event itself
+ * is loaded again for such a client.
+ */
+@Service
+public class EventSubscriptionRegistry {
+
+    /**
+     * Response header that carries the version of the returned update
+     */
+    public static final String VERSION_HEADER = "Event-Version";
+
+    private final EventRepository events;
+    /**
+     * the clients waiting for the next update of every event that has any
+     */
+    private final Map<Long, Set<DeferredResult<ResponseEntity<Event>>>> waiters =
+            new ConcurrentHashMap<>();
+    /**
+     * the version of the latest update of every event
+     */
+    private final Map<Long, Long> latest = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Constructor for the registry
+     * @param events - the event database, missed updates are loaded from it
+     */
+    @Inject
+    public EventSubscriptionRegistry(EventRepository events) {
+        this.events = events;
+    }
+
+    /**
+     * Subscribes to the next update of an event
+     * @param eventId - the id of the event
+     * @param since - the version of the last update the client received,
+     *              or null to only wait for future updates
+     * @param timeout - how long to wait in milliseconds before answering with no content
+     * @return - the result that is completed with the update
+     */
+    public DeferredResult<ResponseEntity<Event>> subscribe(long eventId, Long since,
+                                                           long timeout) {
+        var noContent = ResponseEntity.status(HttpStatus.NO_CONTENT).<Event>build();
+        var result = new DeferredResult<ResponseEntity<Event>>(timeout, noContent);
+        long[] missed = {-1};
+        // publishing goes through the same entry, so no update can slip in between
+        waiters.compute(eventId, (id, waiting) -> {
+            Long version = latest.get(id);
+            if (since != null && version != null && version > since) {
+                missed[0] = version;
+                return waiting;
+            }
+            if (waiting == null) {
+                waiting = ConcurrentHashMap.newKeySet();
+            }
+            waiting.add(result);
+            return waiting;
+        });
+        if (missed[0] >= 0) {
+            result.setResult(events.findGraphById(eventId)
+                    .map(event -> response(event, missed[0]))
+                    .orElseGet(() -> ResponseEntity.notFound().build()));
+            return result;
+        }
+        result.onCompletion(() -> waiters.computeIfPresent(eventId, (id, waiting) -> {
+            waiting.remove(result);
+            return waiting.isEmpty() ? null : waiting;
+        }));
+        return result;
+    }
+
+    /**
+     * Publishes a new version of an event to everyone subscribed to it
+     * @param event - the updated event
+     * @return - the version of the update
+     */
+    public long publish(Event event) {
+        long version = versions.incrementAndGet();
+        List<DeferredResult<ResponseEntity<Event>>> woken = new ArrayList<>();
+        waiters.compute(event.getEventId(), (id, waiting) -> {
+            latest.merge(id, version, Math::max);
+            if (waiting != null) {
+                woken.addAll(waiting);
+            }
+            return null;
+        });
+        ResponseEntity<Event> response = response(event, version);
+        woken.forEach(result -> result.setResult(response));
+        return version;
+    }
+
+    /**
+     * Removes a deleted event, its subscribers get a not found response
+     * @param eventId - the id of the event
+     */
+    public void remove(long eventId) {
+        latest.remove(eventId);
+        Set<DeferredResult<ResponseEntity<Event>>> waiting = waiters.remove(eventId);
+        if (waiting != null) {
+            waiting.forEach(result -> result.setResult(ResponseEntity.notFound().build()));
+        }
+    }
+
+    /**
+     * Gets the number of clients currently waiting for an update of an event
+     * @param eventId - the id of the event
+     * @return - the number of subscribers
+     */
+    public int getSubscriberCount(long eventId) {
+        Set<DeferredResult<ResponseEntity<Event>>> waiting = waiters.get(eventId);
+        return waiting == null ? 0 : waiting.size();
+    }
+
+    /**
+     * Gets the number of events clients are waiting on
+     * @return - the number of events with subscribers
+     */
+    public int getSubscribedEventCount() {
+        return waiters.size();
+    }
+
+    /**
+     * Builds the response for an update
+     * @param event - the event
+     * @param version - the version of the update
+     * @return - the response
+     */
+    private static ResponseEntity<Event> response(Event event, long version) {
+        return ResponseEntity.ok()
+                .header(VERSION_HEADER, String.valueOf(version))
+                .body(event);
+    }
+}
@@ -0,0 +1,19 @@
+package server.services;
+
+import java.time.LocalDate;
+
+/**
+ * Where the exchange rates come from when they aren't stored yet.
+ * The server picks one with rates.provider, see the ExchangeRateConfig.
+ */
+public interface ExchangeRateProvider {
+
+    /**
+     * Gets what one unit of a currency is worth in the base currency on a day
+     * @param date - the day
+     * @param currency - the currency, never the base currency itself
+     * @return - the value in {@link ExchangeRateService#BASE_CURRENCY}
+     * @throws IllegalArgumentException if there is no rate for that day and currency
+     */
+    double getRate(LocalDate date, String currency);
+}
@@ -1,189 +1,358 @@
 package server.services;
 
+import commons.ExchangeRateMatrix;
+import commons.ExchangeRateQuery;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
-import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 public class ExchangeRateService {
+    /**
+     * The currency every rate is stored against, any other pair is derived from two of them
+     */
+    public static final String BASE_CURRENCY = "EUR";
+    /**
+     * The most rates a batch may hold, counting every day and every two currencies
+     */
+    public static final int MAX_BATCH = 100_000;
+
     private static final String CACHE_DIRECTORY = "rates";
+    private static final String STORE_FILE = "rates.csv";
+    private static final Pattern CURRENCY = Pattern.compile("[A-Z]{3}");
 
     /**
-     * Check if rates are available in cache
+     * A day and a currency, the value stored under it is what one unit of the currency
+     * is worth in the base currency that day
      * @param date - the date
-     * @param from - the first currency
-     * @param to - the second currency
-     * @return the currencies with their rates
+     * @param currency - the currency
      */
-    public Map<String, Double> getExchangeRates(String date, String from, String to) {
-        if(from.equals(to)) {
-            Map<String, Double> rates = new HashMap<>();
-            rates.put(to, 1.0);
-            rates.put(from, 1.0);
-            return rates;
-        }else{
-            if (ratesAreCached(date, from, to)) {
-                return fetchRatesFromCache(date, from, to);
-            } else {
-                Map<String, Double> rates = fetchRatesUsingFakeConverter(date, from, to);
-                cacheRates(date, from, to, rates);
-                return rates;
-            }
-        }
+    private record RateKey(String date, String currency) {
     }
 
+    private final ExchangeRateProvider provider;
+    private final Map<RateKey, Double> rates = new ConcurrentHashMap<>();
+    private final Map<RateKey, CompletableFuture<Double>> fetching = new ConcurrentHashMap<>();
+    private Path directory = Paths.get(CACHE_DIRECTORY);
+    private volatile boolean loaded;
+
     /**
-     * Check if the rates are cached
-     * @param date - the date
-     * @param from - the first currency
-     * @param to - the second currency
+     * Constructor for the exchange rate service
+     * @param provider - where the rates that aren't stored yet come from
      */
-    boolean ratesAreCached(String date, String from, String to) {
-        String cacheFilePath = getCacheFilePath(date, from, to);
-        File cacheFile = new File(cacheFilePath);
-        return cacheFile.exists();
+    public ExchangeRateService(ExchangeRateProvider provider) {
+        this.provider = provider;
     }
+
     /**
-     * Creates the file path for the requested date and currencies
+     * Sets the directory the rates are stored in. The rates are kept in one file,
+     * rates.csv, that is read once and only appended to after that.
+     * @param directory - the directory
      */
-    private String getCacheFilePath(String date, String from, String to) {
-        StringBuilder filePathBuilder = new StringBuilder();
-        filePathBuilder.append(CACHE_DIRECTORY);
-        filePathBuilder.append(File.separator);
-        filePathBuilder.append(date);
-        filePathBuilder.append(File.separator);
-        filePathBuilder.append(from);
-        filePathBuilder.append(File.separator);
-        filePathBuilder.append(to);
-
-        filePathBuilder.append(".txt");
-        return filePathBuilder.toString();
+    @Value("${rates.directory:" + CACHE_DIRECTORY + "}")
+    public synchronized void setDirectory(String directory) {
+        this.directory = Paths.get(directory);
+        rates.clear();
+        loaded = false;
     }
 
     /**
-     * Retrieve rates from the cache
+     * Gets the rates between two currencies on a day
      * @param date - the date
      * @param from - the first currency
      * @param to - the second currency
+     * @return what one unit of each currency is worth in the other, under its own code
      */
-    Map<String, Double> fetchRatesFromCache(String date, String from, String to) {
+    public Map<String, Double> getExchangeRates(String date, String from, String to) {
+        date = checkDate(date);
+        checkCurrency(from);
+        checkCurrency(to);
+        double fromValue = valueInBase(date, from);
+        double toValue = valueInBase(date, to);
         Map<String, Double> rates = new HashMap<>();
-        String cacheFilePath = getCacheFilePath(date, from, to);
-        String cacheFilePath2 = getCacheFilePath(date, to, from);
+        rates.put(from, fromValue / toValue);
+        rates.put(to, toValue / fromValue);
+        return rates;
+    }
 
-        try (Scanner reader = new Scanner(new File(cacheFilePath))) {
-            String line = reader.nextLine();
-            rates.put(from, Double.parseDouble(line));
-        } catch (IOException | NumberFormatException e) {
-            e.printStackTrace();
+    /**
+     * Gets the rates between every two currencies of a batch of queries, on every day of it.
+     * Each currency is looked up once per day, however many queries ask for it.
+     * @param queries - the rates asked for
+     * @return - the rates, ordered by day and currency
+     * @throws IllegalArgumentException if a query isn't valid or the batch holds too many rates
+     */
+    public ExchangeRateMatrix getRateMatrix(Collection<ExchangeRateQuery> queries) {
+        SortedSet<String> dates = new TreeSet<>();
+        SortedSet<String> codes = new TreeSet<>();
+        for (ExchangeRateQuery query : queries) {
+            dates.add(checkDate(query.getDate()));
+            checkCurrency(query.getFrom());
+            checkCurrency(query.getTo());
+            codes.add(query.getFrom());
+            codes.add(query.getTo());
+        }
+        if ((long) dates.size() * codes.size() * codes.size() > MAX_BATCH) {
+            throw new IllegalArgumentException("A batch can hold at most " + MAX_BATCH
+                    + " rates");
+        }
+        List<String> currencies = new ArrayList<>(codes);
+        double[][][] matrix = new double[dates.size()][currencies.size()][currencies.size()];
+        double[] values = new double[currencies.size()];
+        int d = 0;
+        for (String date : dates) {
+            for (int i = 0; i < currencies.size(); i++) {
+                values[i] = valueInBase(date, currencies.get(i));
+            }
+            for (int i = 0; i < currencies.size(); i++) {
+                for (int j = 0; j < currencies.size(); j++) {
+                    matrix[d][i][j] = values[i] / values[j];
+                }
+            }
+            d++;
         }
+        return new ExchangeRateMatrix(new ArrayList<>(dates), currencies, matrix);
+    }
 
-        try (Scanner reader = new Scanner(new File(cacheFilePath2))) {
-            String line = reader.nextLine();
-            rates.put(to, Double.parseDouble(line));
-        } catch (IOException | NumberFormatException e) {
-            e.printStackTrace();
+    /**
+     * Checks that a date is an ISO date
+     * @param date - the date
+     * @return - the date written the way the rates are stored under
+     * @throws IllegalArgumentException if it isn't a date
+     */
+    private static String checkDate(String date) {
+        try {
+            return LocalDate.parse(date).toString();
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new IllegalArgumentException("Not a date: " + date);
         }
+    }
 
-        return rates;
+    /**
+     * Checks that a currency is a three letter code
+     * @param currency - the currency
+     * @throws IllegalArgumentException if it isn't
+     */
+    private static void checkCurrency(String currency) {
+        if (currency == null || !CURRENCY.matcher(currency).matches()) {
+            throw new IllegalArgumentException("Not a currency: " + currency);
+        }
     }
 
     /**
-     * Fetch rates from the exchange rate converter
+     * Gets what one unit of a currency is worth in the base currency on a day,
+     * from the table or from the provider the first time it is asked for
      * @param date - the date
-     * @param from - the first currency
-     * @param to - the second currency
+     * @param currency - the currency
+     * @return - the value in the base currency
      */
-    Map<String, Double> fetchRatesUsingFakeConverter(String date, String from, String to) {
+    private double valueInBase(String date, String currency) {
+        if (BASE_CURRENCY.equals(currency)) {
+            return 1.0;
+        }
+        load();
+        RateKey key = new RateKey(date, currency);
+        Double value = rates.get(key);
+        return value != null ? value : fetch(key);
+    }
+
+    /**
+     * Gets a rate from the provider and stores it. Requests for a rate that is
+     * already being fetched wait for that fetch, so the provider is asked once.
+     * @param key - the date and currency
+     * @return - the value in the base currency
+     */
+    private double fetch(RateKey key) {
+        CompletableFuture<Double> mine = new CompletableFuture<>();
+        CompletableFuture<Double> running = fetching.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
         try {
-            double rate = generateBaseRate(date);
-
-            double reciprocalRate = 1 / rate;
-
-            Map<String, Double> response = new HashMap<>();
-            response.put(from, rate);
-            response.put(to, reciprocalRate);
-            Map<String, Double> otherRates = new HashMap<>();
-            for (String s : List.of("EUR", "USD", "CHF")) {
-                if (ratesAreCached(date, s, from) && !s.equals(from) && !s.equals(to)) {
-                    double rateFromDiffCurrency = fetchRatesFromCache(date, s, from).get(s) * rate;
-                    otherRates.put(s, rateFromDiffCurrency);
-                    otherRates.put(to, 1 / rateFromDiffCurrency);
-                    cacheRates(date, s, to, otherRates);
+            // the previous fetch may have stored it after this request looked
+            Double value = rates.get(key);
+            if (value == null) {
+                value = provider.getRate(LocalDate.parse(key.date()), key.currency());
+                StringBuilder lines = new StringBuilder();
+                put(key, value, lines);
+                try {
+                    append(lines);
+                } catch (IOException e) {
+                    e.printStackTrace();
                 }
             }
-            return response;
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new IllegalArgumentException();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            fetching.remove(key, mine);
         }
     }
 
     /**
-     * Generate base rate using timestamp as seed for stability
+     * Puts a rate in the table unless another request was first
+     * @param key - the date and currency
+     * @param value - the value in the base currency
+     * @param lines - collects the line to append to the store if the rate is new
+     */
+    private void put(RateKey key, double value, StringBuilder lines) {
+        if (rates.putIfAbsent(key, value) == null) {
+            lines.append(key.date()).append(',').append(key.currency()).append(',')
+                    .append(value).append('\n');
+        }
+    }
+
+    /**
+     * Stores a rate between two currencies written by an older version,
+     * as far as it gives the value of a currency in the base currency
      * @param date - the date
+     * @param from - the currency converted from
+     * @param to - the currency converted to
+     * @param rate - what one unit of from was worth in to
+     * @param lines - collects the lines to append to the store
      */
-    private double generateBaseRate(String date) {
-        LocalDate localDate = LocalDate.parse(date);
-        long timestamp = localDate.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
-        Random random = new Random(timestamp);
-        return 1.0 + getRandomAdjustment(random);
+    private void putPair(String date, String from, String to, double rate,
+                         StringBuilder lines) {
+        if (BASE_CURRENCY.equals(to) && !BASE_CURRENCY.equals(from)) {
+            put(new RateKey(date, from), rate, lines);
+        } else if (BASE_CURRENCY.equals(from) && !BASE_CURRENCY.equals(to)) {
+            put(new RateKey(date, to), 1 / rate, lines);
+        }
     }
 
     /**
-     *  Generate random adjustment between -10% and +10%
+     * Appends lines to the store
+     * @param lines - the lines, nothing happens if there are none
+     * @throws IOException if the store can't be written
      */
-    private double getRandomAdjustment(Random random) {
-        double minAdjustment = -0.1;
-        double maxAdjustment = 0.1;
-        return minAdjustment + (maxAdjustment - minAdjustment) * random.nextDouble();
+    private synchronized void append(CharSequence lines) throws IOException {
+        if (lines.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(directory);
+        Files.writeString(directory.resolve(STORE_FILE), lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
     }
 
     /**
-     * Cache rates for future use
-     * @param date - the date
-     * @param from - the first currency
-     * @param to - the second currency
-     * @param rates - the pairs of rates to be cached
+     * Reads the store into the table the first time a rate is needed.
+     * Rates between two currencies, written by older versions to the store or
+     * one file per pair under rates/date/from/to.txt, are turned into values
+     * in the base currency and the store is rewritten without them.
      */
-    void cacheRates(String date, String from, String to, Map<String, Double> rates) {
-        if(from.equals(to) || (from.startsWith("U") && to.startsWith("U")) ||
-                (from.startsWith("E") && to.startsWith("E")) ||
-                (from.startsWith("C") && to.startsWith("C"))) {
-           rates.put(to, 1.0);
-           rates.put(from, 1.0);
+    private void load() {
+        if (loaded) {
+            return;
         }
-        File cacheDir = new File(CACHE_DIRECTORY);
-        if (!cacheDir.exists()) {
-            cacheDir.mkdirs();
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            Path store = directory.resolve(STORE_FILE);
+            boolean pairs = false;
+            try {
+                if (Files.exists(store)) {
+                    StringBuilder ignored = new StringBuilder();
+                    for (String line : Files.readAllLines(store, StandardCharsets.UTF_8)) {
+                        String[] parts = line.split(",");
+                        try {
+                            if (parts.length == 3) {
+                                rates.put(new RateKey(parts[0], parts[1]),
+                                        Double.parseDouble(parts[2]));
+                            } else if (parts.length == 4) {
+                                putPair(parts[0], parts[1], parts[2],
+                                        Double.parseDouble(parts[3]), ignored);
+                                pairs = true;
+                            }
+                        } catch (NumberFormatException e) {
+                            // a line cut off by a crash while appending
+                        }
+                    }
+                }
+                if (pairs) {
+                    compact(store);
+                }
+                migrateRateFiles();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            loaded = true;
         }
+    }
 
-        String cacheFilePath = getCacheFilePath(date, from, to);
-        String cacheFilePath2 = getCacheFilePath(date, to, from);
+    /**
+     * Rewrites the store with just the rates in the table
+     * @param store - the store
+     * @throws IOException if the store can't be written
+     */
+    private void compact(Path store) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        for (Map.Entry<RateKey, Double> rate : rates.entrySet()) {
+            lines.append(rate.getKey().date()).append(',').append(rate.getKey().currency())
+                    .append(',').append(rate.getValue()).append('\n');
+        }
+        Path written = directory.resolve(STORE_FILE + ".tmp");
+        Files.writeString(written, lines, StandardCharsets.UTF_8);
+        Files.move(written, store, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
 
-        File file = new File(cacheFilePath);
-        File file2 = new File(cacheFilePath2);
-        try {
-            file.getParentFile().mkdirs();
-            file.createNewFile();
-            try (FileWriter writer = new FileWriter(file)) {
-                writer.write(rates.get(from) + "\n");
-            } catch (IOException e) {
+    /**
+     * Moves the rates stored one file per pair into the store
+     * @throws IOException if the files can't be read or the store written
+     */
+    private void migrateRateFiles() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory, 3)) {
+            files = walk.filter(p -> directory.relativize(p).getNameCount() == 3)
+                    .filter(p -> p.getFileName().toString().endsWith(".txt"))
+                    .toList();
+        }
+        StringBuilder lines = new StringBuilder();
+        for (Path file : files) {
+            Path relative = directory.relativize(file);
+            String to = relative.getFileName().toString().replace(".txt", "");
+            try {
+                double rate = Double.parseDouble(Files.readString(file).trim());
+                putPair(relative.getName(0).toString(), relative.getName(1).toString(), to,
+                        rate, lines);
+            } catch (NumberFormatException e) {
                 e.printStackTrace();
             }
-            file2.getParentFile().mkdirs();
-            file2.createNewFile();
-            try (FileWriter writer = new FileWriter(file2)) {
-                writer.write(rates.get(to) + "\n");
-            } catch (IOException e) {
-                e.printStackTrace();
+        }
+        append(lines);
+        for (Path file : files) {
+            Files.delete(file);
+            // deleting a directory only works once it is empty
+            Path parent = file.getParent();
+            while (!parent.equals(directory) && parent.toFile().delete()) {
+                parent = parent.getParent();
             }
-        } catch (IOException e) {
-            throw new RuntimeException(e);
         }
     }
-
 }
@@ -1,24 +1,37 @@
 package server.services;
 
 import com.google.inject.Inject;
+import commons.Event;
+import commons.EventChange;
 import commons.Expense;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.EventRepository;
 import server.database.ExpenseRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class ExpenseService {
 
     private final ExpenseRepository repository;
+    private final EventRepository events;
+    private final BalanceLedgerService ledger;
 
     /**
      * Constructor for event service
      * @param rep - the expenseRepository(database)
+     * @param events - the event database, the expenses of an event are attached to it
+     * @param ledger - the balance ledger kept up to date with every change
      */
     @Inject
-    public ExpenseService(ExpenseRepository rep) {
+    public ExpenseService(ExpenseRepository rep, EventRepository events,
+                          BalanceLedgerService ledger) {
         this.repository = rep;
+        this.events = events;
+        this.ledger = ledger;
     }
 
     /**
@@ -47,12 +60,119 @@ public class ExpenseService {
         return repository.save(expense);
     }
 
+    /**
+     * adds an expense to an event in one transaction, without re-saving the rest of the event
+     * @param eventId - the id of the event the expense belongs to
+     * @param expense - expense to add
+     * @return - the change, holding the added expense and the new version of the event
+     */
+    @Transactional
+    public EventChange addExpense(long eventId, Expense expense) {
+        Event event = getEvent(eventId);
+        Expense saved = repository.save(expense);
+        event.addExpense(saved);
+        EventChange change = EventChange.expenseChanged(eventId, saved, true);
+        change.setVersion(touch(event));
+        ledger.addExpense(eventId, saved);
+        return change;
+    }
+
+    /**
+     * updates an expense of an event in one transaction
+     * @param eventId - the id of the event the expense belongs to
+     * @param id - id of the expense
+     * @param updatedExpense - new expense
+     * @return - the change, holding the updated expense and the new version of the event
+     * @throws OptimisticLockingFailureException if the expense was changed
+     *          since the version the new expense is based on
+     */
+    @Transactional
+    public EventChange updateExpense(long eventId, long id, Expense updatedExpense) {
+        Event event = getEvent(eventId);
+        List<Expense> expenses = event.getExpenses();
+        int index = indexOf(expenses, id);
+        checkVersion(expenses.get(index), updatedExpense);
+        updatedExpense.setExpenseId(id);
+        Expense saved = repository.save(updatedExpense);
+        expenses.set(index, saved);
+        EventChange change = EventChange.expenseChanged(eventId, saved, false);
+        change.setVersion(touch(event));
+        ledger.updateExpense(saved);
+        return change;
+    }
+
+    /**
+     * removes an expense from an event and deletes it in one transaction
+     * @param eventId - the id of the event the expense belongs to
+     * @param id - id of the expense
+     * @return - the change, holding the new version of the event
+     */
+    @Transactional
+    public EventChange deleteExpense(long eventId, long id) {
+        Event event = getEvent(eventId);
+        event.getExpenses().remove(indexOf(event.getExpenses(), id));
+        EventChange change = EventChange.expenseRemoved(eventId, id);
+        change.setVersion(touch(event));
+        repository.deleteById(id);
+        ledger.removeExpense(id);
+        return change;
+    }
+
+    /**
+     * Gets an event
+     * @param eventId - the id of the event
+     * @return - the event
+     * @throws IllegalArgumentException if there is no such event
+     */
+    private Event getEvent(long eventId) {
+        return events.findById(eventId).orElseThrow(IllegalArgumentException::new);
+    }
+
+    /**
+     * Finds an expense in the expenses of an event
+     * @param expenses - the expenses of the event
+     * @param id - the id of the expense
+     * @return - the index of the expense
+     * @throws IllegalArgumentException if the event has no such expense
+     */
+    private static int indexOf(List<Expense> expenses, long id) {
+        for (int i = 0; i < expenses.size(); i++) {
+            if (expenses.get(i).getExpenseId() == id) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Refuses an update that was made against an older version of the expense
+     * @param current - the saved expense
+     * @param updated - the update
+     */
+    private static void checkVersion(Expense current, Expense updated) {
+        if (current.getVersion() != updated.getVersion()) {
+            throw new OptimisticLockingFailureException(
+                    "Expense " + current.getExpenseId() + " was changed");
+        }
+    }
+
+    /**
+     * Marks the event as just changed and writes it, which raises its version
+     * @param event - the changed event
+     * @return - the new version of the event
+     */
+    private long touch(Event event) {
+        event.setLastActivity(LocalDateTime.now());
+        return events.saveAndFlush(event).getVersion();
+    }
+
     /**
      * Deletes an expense from the database
      * @param id - the id of the expense
      */
     public void deleteExpense(long id) {
         repository.deleteById(id);
+        ledger.removeExpense(id);
     }
 
     /**
@@ -60,9 +180,17 @@ public class ExpenseService {
      * @param id - id of the expense
      * @param updatedExpense - new expense
      * @return - the new expense that was updated
+     * @throws OptimisticLockingFailureException if the expense was changed
+     *          since the version the new expense is based on
      */
     public Expense updateExpense(long id, Expense updatedExpense) {
+        Expense current = getExpenseById(id);
+        if (current != null) {
+            checkVersion(current, updatedExpense);
+        }
         updatedExpense.setExpenseId(id);
-        return repository.save(updatedExpense);
+        Expense saved = repository.save(updatedExpense);
+        ledger.updateExpense(saved);
+        return saved;
     }
 }
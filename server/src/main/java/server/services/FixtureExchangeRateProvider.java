@@ -0,0 +1,70 @@
+package server.services;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves fixed rates from a file, for tests and runs without a live rate service.
+ * Every line of the file is "date,currency,value", like 2024-07-14,USD,0.92,
+ * blank lines and lines starting with # are skipped.
+ */
+public class FixtureExchangeRateProvider implements ExchangeRateProvider {
+    private final Map<String, Double> rates = new HashMap<>();
+
+    /**
+     * Reads the fixtures
+     * @param file - the file with the rates
+     * @throws UncheckedIOException if the file can't be read
+     * @throws IllegalArgumentException if a line isn't a rate
+     */
+    public FixtureExchangeRateProvider(Path file) {
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Not a rate: " + line);
+                }
+                rates.put(key(LocalDate.parse(parts[0].trim()), parts[1].trim()),
+                        Double.parseDouble(parts[2].trim()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Looks up the rate of a currency on a day
+     * @param date - the day
+     * @param currency - the currency
+     * @return - the value in the base currency
+     * @throws IllegalArgumentException if the fixtures don't have it
+     */
+    @Override
+    public double getRate(LocalDate date, String currency) {
+        Double rate = rates.get(key(date, currency));
+        if (rate == null) {
+            throw new IllegalArgumentException("No rate for " + currency + " on " + date);
+        }
+        return rate;
+    }
+
+    /**
+     * Creates the key a rate is kept under
+     * @param date - the day
+     * @param currency - the currency
+     * @return - the key
+     */
+    private static String key(LocalDate date, String currency) {
+        return date + "," + currency;
+    }
+}
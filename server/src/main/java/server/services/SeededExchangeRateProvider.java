@@ -0,0 +1,34 @@
+package server.services;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * Makes up rates within 10% of the base currency, seeded by the day and currency
+ * so the same rate comes back every time
+ */
+public class SeededExchangeRateProvider implements ExchangeRateProvider {
+
+    /**
+     * Generates the rate of a currency on a day
+     * @param date - the day
+     * @param currency - the currency
+     * @return - the value in the base currency
+     */
+    @Override
+    public double getRate(LocalDate date, String currency) {
+        long timestamp = date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        Random random = new Random(timestamp * 31 + currency.hashCode());
+        return 1.0 + getRandomAdjustment(random);
+    }
+
+    /**
+     *  Generate random adjustment between -10% and +10%
+     */
+    private double getRandomAdjustment(Random random) {
+        double minAdjustment = -0.1;
+        double maxAdjustment = 0.1;
+        return minAdjustment + (maxAdjustment - minAdjustment) * random.nextDouble();
+    }
+}
@@ -1,10 +1,17 @@
 package server.services;
 
+import commons.Event;
+import commons.EventChange;
 import commons.Participant;
 import com.google.inject.Inject;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.EventRepository;
 import server.database.UserRepository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -12,15 +19,22 @@ import java.util.regex.Pattern;
 @Service
 public class UserService {
     private final UserRepository repository;
+    private final EventRepository events;
+    private final BalanceLedgerService ledger;
 
     /**
      * Constructor for the service class
      *
      * @param repository for the user
+     * @param events - the event database, participants are added to their event through it
+     * @param ledger - the balance ledger, which holds the participants of the events it has
      */
     @Inject
-    public UserService(UserRepository repository) {
+    public UserService(UserRepository repository, EventRepository events,
+                       BalanceLedgerService ledger) {
         this.repository = repository;
+        this.events = events;
+        this.ledger = ledger;
     }
 
     /**
@@ -53,26 +67,97 @@ public class UserService {
     }
 
     /**
-     * Update user by ID
+     * Adds a user to the database and to an event in one transaction,
+     * without re-saving the rest of the event
+     *
+     * @param eventId the id of the event
+     * @param user the user to be added
+     * @return the change, holding the added user and the new version of the event
+     */
+    @Transactional
+    public EventChange addUser(long eventId, Participant user) {
+        Event event = events.findById(eventId).orElseThrow(IllegalArgumentException::new);
+        Participant saved = repository.save(user);
+        event.addParticipant(saved);
+        EventChange change = EventChange.participantChanged(eventId, saved, true);
+        change.setVersion(touch(event));
+        return change;
+    }
+
+    /**
+     * The outcome of updating a user
+     *
+     * @param user the updated user
+     * @param changes the change to every event the user takes part in,
+     *                with the new version of the event
+     */
+    public record Update(Participant user, List<EventChange> changes) {
+    }
+
+    /**
+     * Update user by ID, raising the versions of the events of the user.
+     * The ledgers of these events are rebuilt on their next read so their debts
+     * show the new details
      *
      * @param id   of user
      * @param user user updates
-     * @return the updated user
+     * @return the updated user and the changes to its events
+     * @throws OptimisticLockingFailureException if the user was changed
+     *          since the version the updates are based on
      */
-    public Participant updateUser(Long id, Participant user) {
+    @Transactional
+    public Update updateUser(Long id, Participant user) {
+        Participant current = getUserById(id);
+        if (current != null && current.getVersion() != user.getVersion()) {
+            throw new OptimisticLockingFailureException("User " + id + " was changed");
+        }
         user.setUserId(id);
-        return repository.save(user);
+        Participant saved = repository.save(user);
+        List<EventChange> changes = new ArrayList<>();
+        for (Event event : events.findByParticipantListUserId(id)) {
+            EventChange change = EventChange.participantChanged(event.getEventId(), saved, false);
+            change.setVersion(touch(event));
+            changes.add(change);
+            ledger.removeEvent(event.getEventId());
+        }
+        return new Update(saved, changes);
     }
 
     /**
-     * Delete a user by ID
+     * Delete a user by ID, the ledgers of the events of the user are rebuilt
+     * on their next read
      *
      * @param id of the user
      */
+    @Transactional
     public void deleteUser(long id) {
+        dropLedgers(id);
         repository.deleteById(id);
     }
 
+    /**
+     * Marks an event as just changed and writes it, which raises its version
+     *
+     * @param event the changed event
+     * @return the new version of the event
+     */
+    private long touch(Event event) {
+        event.setLastActivity(LocalDateTime.now());
+        return events.saveAndFlush(event).getVersion();
+    }
+
+    /**
+     * Drops the ledgers of the events a user takes part in, which also
+     * gives their debts a new entity tag
+     *
+     * @param id of the user
+     */
+    private void dropLedgers(long id) {
+        for (Long eventId : events.findIdsByParticipant(id)) {
+            ledger.removeEvent(eventId);
+        }
+    }
+
     /**
      * Method that checks that the email inputed follows the correct format
      * @param email - email provided by the user
@@ -0,0 +1,173 @@
+package server.api;
+
+import commons.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import server.services.BalanceLedgerService;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BalanceLedgerServiceTest {
+    private TestEventRepository repository;
+    private BalanceLedgerService ledger;
+    private Event event;
+    private Participant alice;
+    private Participant bob;
+    private Expense dinner;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        repository = new TestEventRepository();
+        ledger = new BalanceLedgerService(repository);
+        alice = new Participant("Alice", null, null, null);
+        alice.setUserId(1);
+        bob = new Participant("Bob", null, null, null);
+        bob.setUserId(2);
+        event = new Event("Trip");
+        event.setEventId(7);
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        dinner = expense(10, alice, 40.0);
+        event.addExpense(dinner);
+        repository.save(event);
+    }
+
+    private Expense expense(long id, Participant payor, double amount) {
+        Expense expense = new Expense(payor, amount, "EUR", List.of(alice, bob),
+                "expense", new Date(), new Tag());
+        expense.setExpenseId(id);
+        return expense;
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testBuildsLazily() {
+        Map<Participant, Long> balances = ledger.getBalances(7);
+
+        assertEquals(-2000L, balances.get(alice));
+        assertEquals(2000L, balances.get(bob));
+        assertTrue(ledger.getBalances(8).isEmpty());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testAppliesDeltas() {
+        ledger.getBalances(7);
+        Expense taxi = expense(11, bob, 20.0);
+        event.addExpense(taxi);
+        ledger.addExpense(7, taxi);
+        assertEquals(-1000L, ledger.getBalances(7).get(alice));
+
+        ledger.updateExpense(expense(10, alice, 60.0));
+        assertEquals(-2000L, ledger.getBalances(7).get(alice));
+
+        ledger.removeExpense(11);
+        assertEquals(-3000L, ledger.getBalances(7).get(alice));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testSyncEvent() {
+        ledger.getBalances(7);
+        event.setExpenses(new ArrayList<>(List.of(expense(12, bob, 10.0))));
+        ledger.syncEvent(event);
+
+        assertEquals(500L, ledger.getBalances(7).get(alice));
+        assertTrue(ledger.verify(7));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testVerifyRebuildsStaleLedger() {
+        ledger.getBalances(7);
+        event.addExpense(expense(13, bob, 100.0));
+
+        assertFalse(ledger.verify(7));
+        assertEquals(3000L, ledger.getBalances(7).get(alice));
+        assertTrue(ledger.verify(7));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testGetDebts() {
+        List<Debt> debts = ledger.getDebts(7, new MinCashFlowSettlement());
+
+        assertEquals(1, debts.size());
+        assertEquals(bob, debts.get(0).getUser1());
+        assertEquals(alice, debts.get(0).getUser2());
+        assertEquals(Money.of(20.0, "EUR"), debts.get(0).getAmount());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testDebtsCachedUntilChange() {
+        List<Debt> debts = ledger.getDebts(7);
+        long version = ledger.getVersion(7);
+
+        assertSame(debts, ledger.getDebts(7));
+        assertEquals(version, ledger.getVersion(7));
+
+        ledger.updateExpense(expense(10, alice, 80.0));
+
+        assertNotEquals(version, ledger.getVersion(7));
+        assertNotSame(debts, ledger.getDebts(7));
+        assertEquals(Money.of(40.0, "EUR"), ledger.getDebts(7).get(0).getAmount());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testWritesWaitForCommit() {
+        ledger.getBalances(7);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.updateExpense(expense(10, alice, 80.0));
+            assertEquals(-2000L, ledger.getBalances(7).get(alice));
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(-4000L, ledger.getBalances(7).get(alice));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testRolledBackWritesAreDropped() {
+        ledger.getBalances(7);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            ledger.removeExpense(10);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(-2000L, ledger.getBalances(7).get(alice));
+    }
+}
@@ -0,0 +1,53 @@
+package server.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import server.ClientDestinationGuard;
+import server.services.ClusterInvalidator;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ClientDestinationGuardTest {
+    private final ClientDestinationGuard guard = new ClientDestinationGuard();
+
+    /**
+     * Builds a frame a client could send
+     * @param type - the kind of frame
+     * @param destination - the destination of the frame
+     * @return - the frame
+     */
+    private static Message<byte[]> frame(SimpMessageType type, String destination) {
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(type);
+        headers.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void eventTopicsCanBeSubscribedToTest() {
+        Message<byte[]> subscribe = frame(SimpMessageType.SUBSCRIBE, "/topic/events/1");
+        assertSame(subscribe, guard.preSend(subscribe, null));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void announcementsAreRefusedTest() {
+        assertThrows(MessageDeliveryException.class, () -> guard.preSend(
+                frame(SimpMessageType.SUBSCRIBE, ClusterInvalidator.TOPIC), null));
+        assertThrows(MessageDeliveryException.class, () -> guard.preSend(
+                frame(SimpMessageType.SUBSCRIBE, "/topic/**"), null));
+        assertThrows(MessageDeliveryException.class, () -> guard.preSend(
+                frame(SimpMessageType.MESSAGE, ClusterInvalidator.TOPIC), null));
+        assertThrows(MessageDeliveryException.class, () -> guard.preSend(
+                frame(SimpMessageType.MESSAGE, "/topic/events/1"), null));
+    }
+}
@@ -0,0 +1,81 @@
+package server.api;
+
+import commons.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import server.services.BalanceLedgerService;
+import server.services.ClusterInvalidator;
+import server.services.ClusterInvalidator.Invalidation;
+import server.services.EventSubscriptionRegistry;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class ClusterInvalidatorTest {
+    private SimpMessagingTemplate msgs;
+    private BalanceLedgerService ledger;
+    private EventSubscriptionRegistry subscriptions;
+    private ClusterInvalidator invalidator;
+    private Event trip;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        TestEventRepository repository = new TestEventRepository();
+        trip = new Event("Trip");
+        trip.setEventId(1);
+        repository.save(trip);
+        msgs = mock(SimpMessagingTemplate.class);
+        ledger = mock(BalanceLedgerService.class);
+        subscriptions = new EventSubscriptionRegistry(repository);
+        invalidator = new ClusterInvalidator(msgs, ledger, subscriptions, repository);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void announcesOnlyWithSharedBrokerTest() {
+        invalidator.setMode("simple");
+        invalidator.announce(List.of(1L));
+        verify(msgs, never()).convertAndSend(any(String.class), any(Object.class));
+
+        invalidator.setMode("relay");
+        invalidator.announce(List.of(1L));
+        verify(msgs).convertAndSend(ClusterInvalidator.TOPIC,
+                new Invalidation(invalidator.getNode(), 1L));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void writeOnOtherServerDropsLedgerTest() {
+        var poll = subscriptions.subscribe(1, null, 5000L);
+
+        invalidator.receive(new Invalidation("other", 1L));
+
+        verify(ledger).removeEvent(1L);
+        assertTrue(poll.hasResult());
+        assertEquals(0, subscriptions.getSubscriberCount(1));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void ownWritesAreIgnoredTest() {
+        var poll = subscriptions.subscribe(1, null, 5000L);
+
+        invalidator.receive(new Invalidation(invalidator.getNode(), 1L));
+
+        verify(ledger, never()).removeEvent(anyLong());
+        assertFalse(poll.hasResult());
+    }
+}
@@ -0,0 +1,92 @@
+package server.api;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import server.EmbeddedBrokerRelay;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class EmbeddedBrokerRelayTest {
+    private EmbeddedBrokerRelay first;
+    private EmbeddedBrokerRelay second;
+    private MessageChannel firstChannel;
+    private MessageChannel secondChannel;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        first = EmbeddedBrokerRelay.join("test");
+        second = EmbeddedBrokerRelay.join("test");
+        firstChannel = mock(MessageChannel.class);
+        secondChannel = mock(MessageChannel.class);
+        first.attach(firstChannel);
+        second.attach(secondChannel);
+    }
+
+    /**
+     * Leaves the network again
+     */
+    @AfterEach
+    public void tearDown() {
+        first.leave();
+        second.leave();
+    }
+
+    private Message<byte[]> message(SimpMessageType type) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(type);
+        accessor.setDestination("/topic/events/1");
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testForwardsToOtherInstances() {
+        first.postSend(message(SimpMessageType.MESSAGE), firstChannel, true);
+
+        verify(secondChannel).send(argThat(m ->
+                m.getHeaders().containsKey(EmbeddedBrokerRelay.ORIGIN_HEADER)
+                && "/topic/events/1".equals(SimpMessageHeaderAccessor
+                        .getDestination(m.getHeaders()))));
+        verify(firstChannel, never()).send(any());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testDoesNotForwardTwice() {
+        Message<?> forwarded = MessageBuilder.fromMessage(message(SimpMessageType.MESSAGE))
+                .setHeader(EmbeddedBrokerRelay.ORIGIN_HEADER, "other")
+                .build();
+
+        second.postSend(forwarded, secondChannel, true);
+        first.postSend(message(SimpMessageType.SUBSCRIBE), firstChannel, true);
+        first.postSend(message(SimpMessageType.MESSAGE), firstChannel, false);
+
+        verifyNoInteractions(firstChannel, secondChannel);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testLeftInstanceGetsNothing() {
+        second.leave();
+
+        first.postSend(message(SimpMessageType.MESSAGE), firstChannel, true);
+
+        verifyNoInteractions(secondChannel);
+    }
+}
@@ -14,14 +14,20 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.context.request.async.DeferredResult;
 import server.database.EventRepository;
+import server.services.EventChangePublisher;
 import server.services.EventService;
 
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 
 
@@ -53,8 +59,8 @@ class EventControllerTest {
         Participant user2 = new Participant("Geertson","mm.@gmail.com",
                 "bank", "Dutch");
         userList.add(user2);
-        Debt debt1 = new Debt( user1, user2, 20.0);
-        Debt debt2 = new Debt(user2, user1, 10.0);
+        Debt debt1 = new Debt( user1, user2, Money.of(20.0, "EUR"));
+        Debt debt2 = new Debt(user2, user1, Money.of(10.0, "EUR"));
 
         Expense expense1 = new Expense(user1, 20.0,"EUR", userList,  "name", date,
                 new Tag ("food", "red", 1L));
@@ -76,7 +82,7 @@ class EventControllerTest {
     @Test
     void getByInviteCodeTest(){
         String inviteCode = "nonExistent";
-        ResponseEntity<?> response = controller.getEventByInviteCode(inviteCode);
+        ResponseEntity<?> response = controller.getEventByInviteCode(inviteCode, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
     }
@@ -84,7 +90,27 @@ class EventControllerTest {
     @Test
     void getOneTest(){
         long id = event.getEventId();
-        assertEquals(event, controller.getOne(id));
+        ResponseEntity<Event> response = controller.getOne(id, null);
+        assertEquals(event, response.getBody());
+        assertEquals("\"" + EventService.etag(event) + "\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void getOneNotModifiedTest(){
+        long id = event.getEventId();
+        String etag = controller.getOne(id, null).getHeaders().getETag();
+
+        ResponseEntity<Event> response = controller.getOne(id, etag);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        assertEquals(etag, response.getHeaders().getETag());
+
+        Participant participant = new Participant("new", "mm.@gmail.com", "dutch", null);
+        participant.setUserId(5);
+        event.addParticipant(participant);
+        response = controller.getOne(id, etag);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNotEquals(etag, response.getHeaders().getETag());
     }
 
     @Test
@@ -148,6 +174,170 @@ class EventControllerTest {
         assertEquals("title2", check.getTitle());
     }
 
+    @Test
+    void getDebtsTest() {
+        assertEquals(HttpStatus.OK, controller.getDebts(event.getEventId(), null).getStatusCode());
+        assertEquals(0, controller.getDebts(event.getEventId(), null).getBody().size());
+        assertEquals(HttpStatus.NOT_FOUND, controller.getDebts(42, null).getStatusCode());
+    }
+
+    @Test
+    void getSummariesTest() {
+        ResponseEntity<List<EventSummary>> response = controller.getSummaries();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(EventSummary.of(event)), response.getBody());
+        assertEquals(EventSummary.of(event),
+                controller.getSummary(event.getEventId()).getBody());
+        assertEquals(HttpStatus.NOT_FOUND, controller.getSummary(42).getStatusCode());
+    }
+
+    @Test
+    void getSummaryPageTest() {
+        controller.addEvent(new Event("c"));
+        controller.addEvent(new Event("a"));
+        controller.addEvent(new Event("b"));
+
+        EventSummaryPage first = controller.getSummaryPage("title", null, 2).getBody();
+        assertEquals(List.of("a", "b"), titles(first));
+        EventSummaryPage second = controller.getSummaryPage("title", first.getNext(), 2)
+                .getBody();
+        assertEquals(List.of("c", "title"), titles(second));
+        EventSummaryPage last = controller.getSummaryPage("title", second.getNext(), 2)
+                .getBody();
+        assertTrue(last.getSummaries().isEmpty());
+        assertNull(last.getNext());
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.getSummaryPage("size", null, 2).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.getSummaryPage("title", "nonsense", 2).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.getSummaryPage("creationDate", "0:yesterday", 2).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.getSummaryPage("title", null, 0).getStatusCode());
+    }
+
+    private static List<String> titles(EventSummaryPage page) {
+        return page.getSummaries().stream().map(EventSummary::getTitle).toList();
+    }
+
+    @Test
+    void getDebtsNotModifiedTest() {
+        String etag = controller.getDebts(event.getEventId(), null).getHeaders().getETag();
+
+        assertEquals(HttpStatus.NOT_MODIFIED,
+                controller.getDebts(event.getEventId(), etag).getStatusCode());
+        assertEquals(HttpStatus.OK,
+                controller.getDebts(event.getEventId(), "\"other\"").getStatusCode());
+    }
+
+    @Test
+    void updateEventSendsChangesTest() {
+        Event renamed = new Event("title2");
+        Event updated = controller.updateEvent(event.getEventId(), renamed).getBody();
+
+        EventChange change = EventChange.titleChanged(event.getEventId(), "title2");
+        change.setVersion(updated.getVersion());
+        verify(msgs).convertAndSend("/topic/events/" + event.getEventId(), change);
+    }
+
+    @Test
+    void getUpdatesTest() {
+        Event other = new Event("other");
+        other.setEventId(5);
+        controller.addEvent(other);
+        DeferredResult<ResponseEntity<Event>> poll =
+                controller.getUpdates(event.getEventId(), null);
+        DeferredResult<ResponseEntity<Event>> otherPoll =
+                controller.getUpdates(other.getEventId(), null);
+
+        event.setTitle("title2");
+        controller.updateEvent(event.getEventId(), event);
+
+        assertTrue(poll.hasResult());
+        assertFalse(otherPoll.hasResult());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    void patchEventTest() {
+        ResponseEntity<List<EventChange>> response =
+                controller.patchEvent(event.getEventId(), null, Map.of("title", "title2"));
+
+        EventChange change = EventChange.titleChanged(event.getEventId(), "title2");
+        change.setVersion(1);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(change), response.getBody());
+        assertEquals("\"" + EventService.etag(event) + "\"", response.getHeaders().getETag());
+        assertEquals("title2", event.getTitle());
+        verify(msgs).convertAndSend("/topic/events/" + event.getEventId(), change);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    void patchEventVersionTest() {
+        controller.patchEvent(event.getEventId(), "\"0\"", Map.of("title", "title2"));
+
+        ResponseEntity<List<EventChange>> stale =
+                controller.patchEvent(event.getEventId(), "\"0\"", Map.of("title", "title3"));
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, stale.getStatusCode());
+        assertEquals("\"" + EventService.etag(event) + "\"", stale.getHeaders().getETag());
+        assertEquals("title2", event.getTitle());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    void patchEventWithReadEtagTest() {
+        String etag = controller.getOne(event.getEventId(), null).getHeaders().getETag();
+
+        ResponseEntity<List<EventChange>> response =
+                controller.patchEvent(event.getEventId(), etag, Map.of("title", "title2"));
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(controller.getOne(event.getEventId(), null).getHeaders().getETag(),
+                response.getHeaders().getETag());
+
+        ResponseEntity<List<EventChange>> stale =
+                controller.patchEvent(event.getEventId(), etag, Map.of("title", "title3"));
+        assertEquals(HttpStatus.PRECONDITION_FAILED, stale.getStatusCode());
+        assertEquals(response.getHeaders().getETag(), stale.getHeaders().getETag());
+        assertEquals("title2", event.getTitle());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    void patchEventInvalidTest() {
+        assertEquals(HttpStatus.BAD_REQUEST, controller.patchEvent(event.getEventId(), null,
+                Map.of("inviteCode", "code")).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.patchEvent(42, null,
+                Map.of("title", "title2")).getStatusCode());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    void updateEventConflictTest() {
+        event.setVersion(2);
+        Event stale = new Event("title2");
+        stale.setVersion(1);
+
+        ResponseEntity<Event> response = controller.updateEvent(event.getEventId(), stale);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("\"" + EventService.etag(event) + "\"", response.getHeaders().getETag());
+        assertEquals("title", response.getBody().getTitle());
+    }
+
     private class TestModule extends AbstractModule {
         @Override
         protected void configure() {
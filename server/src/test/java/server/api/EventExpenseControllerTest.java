@@ -0,0 +1,167 @@
+package server.api;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import commons.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import server.database.EventRepository;
+import server.database.ExpenseRepository;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
+
+public class EventExpenseControllerTest {
+    @Inject
+    private EventExpenseController controller;
+    @Mock
+    private SimpMessagingTemplate msgs;
+    private final TestEventRepository events = new TestEventRepository();
+    private final TestExpenseRepository expenses = new TestExpenseRepository();
+    private Event event;
+    private Expense expense;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        Injector injector = Guice.createInjector(new TestModule());
+        injector.injectMembers(this);
+
+        event = new Event("title");
+        event.setEventId(1);
+        events.save(event);
+        Participant user = new Participant("user", "mm.@gmail.com", "dutch", null);
+        Participant user2 = new Participant("user2", "mm.@gmail.com", "english", null);
+        Date date = new Date(2023, Calendar.FEBRUARY, 3);
+        expense = new Expense(user, 100, "EUR", List.of(user2), "expense", date,
+                new Tag("food", "red", 1L));
+        expense.setExpenseId(3);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void addExpenseTest() {
+        ResponseEntity<EventChange> response = controller.addExpense(1, expense);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        EventChange change = response.getBody();
+        assertEquals(EventChange.Type.EXPENSE_ADDED, change.getType());
+        assertEquals(expense, change.getExpense());
+        assertEquals(1, change.getVersion());
+        assertEquals(List.of(expense), event.getExpenses());
+        assertNotNull(event.getLastActivity());
+        verify(msgs).convertAndSend("/topic/events/1", change);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void addExpenseToMissingEventTest() {
+        ResponseEntity<EventChange> response = controller.addExpense(2, expense);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertTrue(expenses.findAll().isEmpty());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void addInvalidExpenseTest() {
+        expense.setExpenseName("");
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.addExpense(1, expense).getStatusCode());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void updateExpenseTest() {
+        controller.addExpense(1, expense);
+        Expense updated = new Expense(expense.getPayor(), 200, "EUR",
+                expense.getBeneficiaries(), "updated", expense.getDate(), expense.getTag());
+
+        ResponseEntity<EventChange> response = controller.updateExpense(1, 3, updated);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(EventChange.Type.EXPENSE_UPDATED, response.getBody().getType());
+        assertEquals(2, response.getBody().getVersion());
+        assertEquals(3, updated.getExpenseId());
+        assertEquals(List.of(updated), event.getExpenses());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void updateMissingExpenseTest() {
+        ResponseEntity<EventChange> response = controller.updateExpense(1, 3, expense);
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void updateExpenseConflictTest() {
+        controller.addExpense(1, expense);
+        Expense stale = new Expense(expense.getPayor(), 200, "EUR",
+                expense.getBeneficiaries(), "stale", expense.getDate(), expense.getTag());
+        stale.setVersion(1);
+
+        ResponseEntity<EventChange> response = controller.updateExpense(1, 3, stale);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("\"0\"", response.getHeaders().getETag());
+        assertEquals(expense, response.getBody().getExpense());
+        assertEquals(List.of(expense), event.getExpenses());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void deleteExpenseTest() {
+        controller.addExpense(1, expense);
+
+        ResponseEntity<EventChange> response = controller.deleteExpense(1, 3);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(EventChange.expenseRemoved(1, 3).getType(), response.getBody().getType());
+        assertEquals(3, response.getBody().getRemovedId());
+        assertTrue(event.getExpenses().isEmpty());
+        assertTrue(expenses.findAll().isEmpty());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    private class TestModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            bind(EventRepository.class).toInstance(events);
+            bind(ExpenseRepository.class).toInstance(expenses);
+            bind(SimpMessagingTemplate.class).toInstance(msgs);
+        }
+    }
+}
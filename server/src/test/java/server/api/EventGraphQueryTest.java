@@ -0,0 +1,139 @@
+package server.api;
+
+import commons.Event;
+import commons.Expense;
+import commons.Participant;
+import commons.Tag;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import server.database.EventRepository;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the statements that loading events with everything they are sent with takes,
+ * which has to stay the same however many expenses the events have
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class EventGraphQueryTest {
+    @Autowired
+    private EventRepository repository;
+    @Autowired
+    private TestEntityManager entityManager;
+    private Statistics statistics;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Saves an event with participants and expenses and empties the persistence context,
+     * so nothing of it is loaded yet
+     * @param expenses - the number of expenses
+     * @return - the id of the event
+     */
+    private long saveEvent(int expenses) {
+        Event event = new Event("trip");
+        Participant alice = new Participant("Alice", "alice@mail.com", null, null);
+        Participant bob = new Participant("Bob", "bob@mail.com", null, null);
+        Participant carol = new Participant("Carol", "carol@mail.com", null, null);
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        event.addParticipant(carol);
+        Tag food = entityManager.persist(new Tag("food", "red", null));
+        Tag travel = entityManager.persist(new Tag("travel", "blue", null));
+        for (int i = 0; i < expenses; i++) {
+            event.addExpense(new Expense(i % 2 == 0 ? alice : bob, 10 + i, "EUR",
+                    List.of(bob, carol), "expense " + i, new Date(), i % 2 == 0 ? food : travel));
+        }
+        long id = entityManager.persistAndGetId(event, Long.class);
+        entityManager.flush();
+        entityManager.clear();
+        return id;
+    }
+
+    /**
+     * Reads everything the JSON of an event holds, like sending it does
+     * @param event - the event
+     */
+    private static void touch(Event event) {
+        event.getParticipants().forEach(Participant::getName);
+        for (Expense expense : event.getExpenses()) {
+            expense.getPayor().getName();
+            expense.getBeneficiaries().forEach(Participant::getName);
+            expense.getTag().getName();
+        }
+    }
+
+    /**
+     * Counts the statements it takes to load and read events
+     * @param ids - the ids of the events
+     * @return - the number of statements
+     */
+    private long statementsToLoad(List<Long> ids) {
+        entityManager.clear();
+        statistics.clear();
+        List<Event> events = repository.findGraphsByIds(ids);
+        events.forEach(EventGraphQueryTest::touch);
+        assertEquals(ids.size(), events.size());
+        return statistics.getPrepareStatementCount();
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void findGraphByIdTest() {
+        long small = saveEvent(1);
+        long large = saveEvent(25);
+
+        assertEquals(3, statementsToLoad(List.of(small)));
+        assertEquals(3, statementsToLoad(List.of(large)));
+
+        entityManager.clear();
+        Event event = repository.findGraphById(large).orElseThrow();
+        assertEquals(3, event.getParticipants().size());
+        assertEquals(25, event.getExpenses().size());
+        assertEquals(2, event.getExpenses().get(0).getBeneficiaries().size());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void findGraphsByIdsTest() {
+        List<Long> ids = List.of(saveEvent(3), saveEvent(10), saveEvent(20));
+
+        assertEquals(3, statementsToLoad(ids));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void findAllGraphsTest() {
+        saveEvent(5);
+        saveEvent(15);
+        entityManager.clear();
+        statistics.clear();
+
+        List<Event> events = repository.findAllGraphs();
+        events.forEach(EventGraphQueryTest::touch);
+
+        assertEquals(2, events.size());
+        assertEquals(3, statistics.getPrepareStatementCount());
+    }
+}
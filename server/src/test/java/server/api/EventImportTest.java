@@ -0,0 +1,67 @@
+package server.api;
+
+import commons.Event;
+import commons.EventChange;
+import commons.Expense;
+import commons.Participant;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import server.database.EventRepository;
+import server.services.BalanceLedgerService;
+import server.services.EventService;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Imports events against the database, without a transaction around the test,
+ * so what is checked is what the import itself committed
+ */
+@DataJpaTest
+@Import({EventService.class, BalanceLedgerService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class EventImportTest {
+    @Autowired
+    private EventRepository repository;
+    @Autowired
+    private EventService service;
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void importOverwritesStoredEventTest() {
+        Event event = new Event("trip");
+        Participant alice = new Participant("Alice", "alice@mail.com", null, null);
+        Participant bob = new Participant("Bob", "bob@mail.com", null, null);
+        event.addParticipant(alice);
+        event.addParticipant(bob);
+        event.addExpense(new Expense(alice, 10, "EUR", List.of(bob), "train", new Date(), null));
+        long id = service.addEvent(event).getEventId();
+
+        Event backup = repository.findGraphById(id).orElseThrow();
+        backup.setTitle("holiday");
+        backup.getExpenses().get(0).setExpenseName("plane");
+        backup.addParticipant(new Participant("Carol", "carol@mail.com", null, null));
+        EventService.ImportResult result = service.importEvents(List.of(backup));
+
+        assertEquals(List.of(), result.created());
+        Event stored = repository.findGraphById(id).orElseThrow();
+        assertEquals("holiday", stored.getTitle());
+        assertEquals("plane", stored.getExpenses().get(0).getExpenseName());
+        assertEquals(List.of("Alice", "Bob", "Carol"),
+                stored.getParticipants().stream().map(Participant::getName).sorted().toList());
+        assertEquals(backup.getVersion() + 1, stored.getVersion());
+        assertFalse(result.changes().isEmpty());
+        for (EventChange change : result.changes()) {
+            assertEquals(stored.getVersion(), change.getVersion());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package server.api;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Inject;
+import com.google.inject.Injector;
+import commons.Event;
+import commons.EventChange;
+import commons.Participant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import server.database.EventRepository;
+import server.database.UserRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class EventParticipantControllerTest {
+    @Inject
+    private EventParticipantController controller;
+    @Mock
+    private SimpMessagingTemplate msgs;
+    @Mock
+    private UserRepository users;
+    private final TestEventRepository events = new TestEventRepository();
+    private Event event;
+    private Participant participant;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        Injector injector = Guice.createInjector(new TestModule());
+        injector.injectMembers(this);
+        when(users.save(any(Participant.class))).thenAnswer(i -> i.getArgument(0));
+
+        event = new Event("title");
+        event.setEventId(1);
+        events.save(event);
+        participant = new Participant("Ultimo", "mm.@gmail.com", "English", null);
+        participant.setUserId(7);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void addParticipantTest() {
+        ResponseEntity<EventChange> response = controller.addParticipant(1, participant);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        EventChange change = response.getBody();
+        assertEquals(EventChange.Type.PARTICIPANT_ADDED, change.getType());
+        assertEquals(participant, change.getParticipant());
+        assertEquals(event.getVersion(), change.getVersion());
+        assertEquals(1, change.getVersion());
+        assertEquals(List.of(participant), event.getParticipants());
+        assertNotNull(event.getLastActivity());
+        verify(msgs).convertAndSend("/topic/events/1", change);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void addParticipantToMissingEventTest() {
+        assertEquals(HttpStatus.NOT_FOUND,
+                controller.addParticipant(2, participant).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                controller.addParticipant(1, new Participant()).getStatusCode());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void removeParticipantTest() {
+        event.addParticipant(participant);
+
+        ResponseEntity<EventChange> response = controller.removeParticipant(1, 7);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(EventChange.Type.PARTICIPANT_REMOVED, response.getBody().getType());
+        assertEquals(7, response.getBody().getRemovedId());
+        assertTrue(event.getParticipants().isEmpty());
+        assertEquals(HttpStatus.NOT_FOUND,
+                controller.removeParticipant(1, 7).getStatusCode());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    private class TestModule extends AbstractModule {
+        @Override
+        protected void configure() {
+            bind(EventRepository.class).toInstance(events);
+            bind(UserRepository.class).toInstance(users);
+            bind(SimpMessagingTemplate.class).toInstance(msgs);
+        }
+    }
+}
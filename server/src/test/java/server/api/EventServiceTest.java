@@ -4,17 +4,27 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataIntegrityViolationException;
 import server.database.EventRepository;
 import commons.Event;
+import commons.EventBatch;
+import commons.Expense;
+import commons.Participant;
+import org.hibernate.exception.ConstraintViolationException;
+import server.services.BalanceLedgerService;
 import server.services.EventService;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 public class EventServiceTest {
@@ -30,7 +40,8 @@ public class EventServiceTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        eventService = new EventService(eventRepository);
+        eventService = new EventService(eventRepository,
+                new BalanceLedgerService(eventRepository));
     }
 
     /**
@@ -39,13 +50,12 @@ public class EventServiceTest {
     @Test
     public void testFindEvent() {
         Event event = new Event();
-        when(eventRepository.existsById(1L)).thenReturn(true);
-        when(eventRepository.findById(1L)).thenReturn(Optional.of(event));
+        when(eventRepository.findGraphById(1L)).thenReturn(Optional.of(event));
 
         Event result = eventService.findEvent(1L);
 
         assertEquals(event, result);
-        verify(eventRepository, times(1)).findById(1L);
+        verify(eventRepository, times(1)).findGraphById(1L);
     }
 
     /**
@@ -55,12 +65,12 @@ public class EventServiceTest {
     public void testGetAllEvents() {
         Event event1 = new Event();
         Event event2 = new Event();
-        when(eventRepository.findAll()).thenReturn(Arrays.asList(event1, event2));
+        when(eventRepository.findAllGraphs()).thenReturn(Arrays.asList(event1, event2));
 
         List<Event> result = eventService.getAllEvents();
 
         assertEquals(2, result.size());
-        verify(eventRepository, times(1)).findAll();
+        verify(eventRepository, times(1)).findAllGraphs();
     }
 
     /**
@@ -113,6 +123,102 @@ public class EventServiceTest {
         verify(eventRepository, times(1)).save(any(Event.class));
     }
 
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testAddEventInviteCodeTaken() {
+        List<String> codes = new ArrayList<>();
+        when(eventRepository.save(any(Event.class))).thenAnswer(i -> {
+            Event event = i.getArgument(0);
+            codes.add(event.getInviteCode());
+            if (codes.size() == 1) {
+                throw inviteCodeTaken("UK_EVENT_INVITE_CODE_INDEX_3");
+            }
+            return event;
+        });
+
+        Event result = eventService.addEvent(new Event("New Event"));
+
+        assertEquals(2, codes.size());
+        assertEquals(codes.get(1), result.getInviteCode());
+        verify(eventRepository, never()).findByInviteCode(any());
+    }
+
+    /**
+     * Builds the exception saving throws when a unique constraint is violated
+     * @param constraint - the name of the constraint
+     * @return - the exception
+     */
+    private static DataIntegrityViolationException inviteCodeTaken(String constraint) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("Unique index or primary key violation",
+                        new SQLException("23505"), constraint));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testAddEventRetryResetsCascadedIds() {
+        Event event = new Event("New Event");
+        Participant alice = new Participant("Alice", "alice@mail.com", null, null);
+        event.addParticipant(alice);
+        Expense taxi = new Expense(alice, 10, "EUR", List.of(alice), "taxi", new Date(), null);
+        event.addExpense(taxi);
+        List<Long> savedIds = new ArrayList<>();
+        when(eventRepository.save(any(Event.class))).thenAnswer(i -> {
+            Event saving = i.getArgument(0);
+            savedIds.add(saving.getParticipants().get(0).getUserId());
+            savedIds.add(saving.getExpenses().get(0).getExpenseId());
+            if (savedIds.size() == 2) {
+                // a failed insert still hands out ids and versions
+                saving.setEventId(5);
+                saving.setVersion(1);
+                alice.setUserId(6);
+                alice.setVersion(1);
+                taxi.setExpenseId(7);
+                taxi.setVersion(1);
+                throw inviteCodeTaken("PUBLIC.UK_EVENT_INVITE_CODE_INDEX_3");
+            }
+            return saving;
+        });
+
+        Event result = eventService.addEvent(event);
+
+        assertEquals(List.of(0L, 0L, 0L, 0L), savedIds);
+        assertEquals(0, result.getEventId());
+        assertEquals(0, result.getParticipants().get(0).getVersion());
+        assertEquals(0, result.getExpenses().get(0).getVersion());
+        verify(eventRepository, times(2)).save(any(Event.class));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testAddEventOtherConstraint() {
+        when(eventRepository.save(any(Event.class)))
+                .thenThrow(inviteCodeTaken("UK_PARTICIPANT_EMAIL"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> eventService.addEvent(new Event("New Event")));
+        verify(eventRepository, times(1)).save(any(Event.class));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testAddEventOtherViolation() {
+        when(eventRepository.save(any(Event.class)))
+                .thenThrow(new DataIntegrityViolationException("NULL not allowed"));
+
+        assertThrows(DataIntegrityViolationException.class,
+                () -> eventService.addEvent(new Event("New Event")));
+        verify(eventRepository, times(1)).save(any(Event.class));
+    }
+
     /**
      * Checkstyle for pipeline
      */
@@ -122,13 +228,14 @@ public class EventServiceTest {
         event1.setCreationDate(LocalDateTime.now().minusDays(1));
         Event event2 = new Event();
         event2.setCreationDate(LocalDateTime.now());
-        when(eventRepository.findAll()).thenReturn(Arrays.asList(event1, event2));
+        when(eventRepository.findAllByOrderByCreationDateAscEventIdAsc())
+                .thenReturn(Arrays.asList(event1, event2));
 
         List<Event> result = eventService.getEventsOrderedByCreationDate();
 
         assertEquals(event1, result.get(0));
         assertEquals(event2, result.get(1));
-        verify(eventRepository, times(1)).findAll();
+        verify(eventRepository, never()).findAll();
     }
 
     /**
@@ -144,4 +251,75 @@ public class EventServiceTest {
         assertEquals(event, result);
         verify(eventRepository, times(1)).findByInviteCode("code");
     }
-}
\ No newline at end of file
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testFindEvents() {
+        Event event1 = new Event("one");
+        event1.setEventId(1L);
+        Event event3 = new Event("three");
+        event3.setEventId(3L);
+        when(eventRepository.findGraphsByIds(any())).thenReturn(List.of(event1, event3));
+
+        EventBatch result = eventService.findEvents(List.of(3L, 2L, 1L, 3L));
+
+        assertEquals(List.of(event3, event1), result.getEvents());
+        assertEquals(List.of(2L), result.getMissing());
+        verify(eventRepository, times(1)).findGraphsByIds(any());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testFindTooManyEvents() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 0; id <= EventService.MAX_BATCH; id++) {
+            ids.add(id);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> eventService.findEvents(ids));
+        verify(eventRepository, never()).findGraphsByIds(any());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testImportEvents() {
+        Event current = new Event("old title");
+        current.setEventId(1L);
+        current.setVersion(4);
+        Event overwriting = new Event("new title");
+        overwriting.setEventId(1L);
+        Event added = new Event("added");
+        added.setEventId(7L);
+        when(eventRepository.findGraphsForUpdate(List.of(1L, 7L))).thenReturn(List.of(current));
+        when(eventRepository.saveAll(any())).thenAnswer(i -> new ArrayList<>(i.getArgument(0)));
+
+        EventService.ImportResult result = eventService.importEvents(List.of(overwriting, added));
+
+        assertEquals(List.of(added, current), result.events());
+        assertEquals(List.of(added), result.created());
+        assertEquals(List.of(current), result.updated());
+        assertEquals("new title", current.getTitle());
+        assertEquals(4, current.getVersion());
+        assertNotNull(added.getInviteCode());
+        assertNotNull(added.getCreationDate());
+        assertEquals(1, result.changes().size());
+        verify(eventRepository, times(1)).saveAll(any());
+        verify(eventRepository, never()).save(any());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testImportEventWithoutTitle() {
+        assertThrows(IllegalArgumentException.class,
+                () -> eventService.importEvents(List.of(new Event(""))));
+        verify(eventRepository, never()).saveAll(any());
+    }
+}
@@ -0,0 +1,102 @@
+package server.api;
+
+import commons.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import server.services.EventSubscriptionRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EventSubscriptionRegistryTest {
+    private TestEventRepository repository;
+    private EventSubscriptionRegistry registry;
+    private Event trip;
+    private Event party;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        repository = new TestEventRepository();
+        registry = new EventSubscriptionRegistry(repository);
+        trip = new Event("Trip");
+        trip.setEventId(1);
+        party = new Event("Party");
+        party.setEventId(2);
+        repository.save(trip);
+        repository.save(party);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ResponseEntity<Event> result(DeferredResult<ResponseEntity<Event>> result) {
+        return (ResponseEntity<Event>) result.getResult();
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testOnlyWakesSubscribersOfEvent() {
+        var tripPoll = registry.subscribe(1, null, 5000L);
+        var partyPoll = registry.subscribe(2, null, 5000L);
+
+        long version = registry.publish(trip);
+
+        assertTrue(tripPoll.hasResult());
+        assertEquals(trip, result(tripPoll).getBody());
+        assertEquals(String.valueOf(version), result(tripPoll).getHeaders()
+                .getFirst(EventSubscriptionRegistry.VERSION_HEADER));
+        assertFalse(partyPoll.hasResult());
+        assertEquals(0, registry.getSubscriberCount(1));
+        assertEquals(1, registry.getSubscriberCount(2));
+        assertEquals(1, registry.getSubscribedEventCount());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testPublishWithoutSubscribersKeepsNoEvent() {
+        registry.publish(trip);
+        registry.publish(party);
+
+        assertEquals(0, registry.getSubscribedEventCount());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testReconnectGetsMissedUpdate() {
+        long first = registry.publish(trip);
+        trip.setTitle("Road trip");
+        registry.publish(trip);
+
+        var missed = registry.subscribe(1, first, 5000L);
+        assertTrue(missed.hasResult());
+        assertEquals("Road trip", result(missed).getBody().getTitle());
+        assertEquals(String.valueOf(first + 1), result(missed).getHeaders()
+                .getFirst(EventSubscriptionRegistry.VERSION_HEADER));
+
+        var upToDate = registry.subscribe(1, first + 1, 5000L);
+        assertFalse(upToDate.hasResult());
+        assertFalse(registry.subscribe(1, null, 5000L).hasResult());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testRemoveAnswersNotFound() {
+        var poll = registry.subscribe(2, null, 5000L);
+
+        registry.remove(2);
+
+        assertEquals(HttpStatus.NOT_FOUND, result(poll).getStatusCode());
+        assertEquals(0, registry.getSubscriberCount(2));
+    }
+}
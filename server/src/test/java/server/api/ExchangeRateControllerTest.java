@@ -1,9 +1,13 @@
 package server.api;
 
+import commons.ExchangeRateMatrix;
+import commons.ExchangeRateQuery;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
 import server.services.ExchangeRateService;
+import server.services.SeededExchangeRateProvider;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -21,7 +25,7 @@ class ExchangeRateControllerTest {
         String date = "2022-06-01";
         String baseCurrency = "CHF";
         String targetCurrency = "EUR";
-        ExchangeRateService service = new ExchangeRateService();
+        ExchangeRateService service = new ExchangeRateService(new SeededExchangeRateProvider());
         ExchangeRateController controller = new ExchangeRateController(service);
         ResponseEntity<Map<String, Double>> responseEntity
                 = controller.getExchangeRates(date, baseCurrency, targetCurrency);
@@ -39,7 +43,7 @@ class ExchangeRateControllerTest {
         String date = "inva";
         String baseCurrency = "USD";
         String targetCurrency = "EUR";
-        ExchangeRateService service = new ExchangeRateService();
+        ExchangeRateService service = new ExchangeRateService(new SeededExchangeRateProvider());
         ExchangeRateController controller = new ExchangeRateController(service);
         ResponseEntity<Map<String, Double>> responseEntity
                 = controller.getExchangeRates(date, baseCurrency, targetCurrency);
@@ -52,7 +56,7 @@ class ExchangeRateControllerTest {
         String date = "2022-06-01";
         String baseCurrency = "CHF";
         String targetCurrency = "CHF";
-        ExchangeRateService service = new ExchangeRateService();
+        ExchangeRateService service = new ExchangeRateService(new SeededExchangeRateProvider());
         ExchangeRateController controller = new ExchangeRateController(service);
         ResponseEntity<Map<String, Double>> responseEntity
                 = controller.getExchangeRates(date, baseCurrency, targetCurrency);
@@ -61,4 +65,17 @@ class ExchangeRateControllerTest {
         assertEquals(1.0, responseBody.get(baseCurrency));
     }
 
+    /**
+     * checkstyle
+     */
+    @Test
+    void testBatchBadRequest() {
+        ExchangeRateService service = new ExchangeRateService(new SeededExchangeRateProvider());
+        ExchangeRateController controller = new ExchangeRateController(service);
+        ResponseEntity<ExchangeRateMatrix> responseEntity = controller.getRateMatrix(
+                List.of(new ExchangeRateQuery("inva", "USD", "EUR")));
+
+        assertEquals(400, responseEntity.getStatusCodeValue());
+    }
+
 }
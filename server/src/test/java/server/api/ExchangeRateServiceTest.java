@@ -0,0 +1,210 @@
+package server.api;
+
+import commons.ExchangeRateMatrix;
+import commons.ExchangeRateQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import server.services.ExchangeRateService;
+import server.services.FixtureExchangeRateProvider;
+import server.services.SeededExchangeRateProvider;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExchangeRateServiceTest {
+    @TempDir
+    private Path directory;
+    private ExchangeRateService service;
+
+    /**
+     * Setup method
+     */
+    @BeforeEach
+    public void setup() {
+        service = new ExchangeRateService(new SeededExchangeRateProvider());
+        service.setDirectory(directory.toString());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void ratesAreStoredInOneFileTest() throws IOException {
+        Map<String, Double> rates = service.getExchangeRates("2024-07-14", "EUR", "USD");
+        service.getExchangeRates("2024-07-15", "EUR", "CHF");
+
+        assertEquals(List.of(directory.resolve("rates.csv")),
+                Files.list(directory).toList());
+        // one value per day and currency, the base currency isn't stored
+        assertEquals(2, Files.readAllLines(directory.resolve("rates.csv")).size());
+        assertEquals(rates, service.getExchangeRates("2024-07-14", "EUR", "USD"));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void ratesAreLoadedFromStoreTest() throws IOException {
+        Files.writeString(directory.resolve("rates.csv"),
+                "2024-07-14,USD,0.5\n2024-07-14,CHF,2.0\n2024-07-14,GB");
+
+        Map<String, Double> rates = service.getExchangeRates("2024-07-14", "EUR", "USD");
+
+        assertEquals(Map.of("EUR", 2.0, "USD", 0.5), rates);
+        assertEquals(Map.of("CHF", 4.0, "USD", 0.25),
+                service.getExchangeRates("2024-07-14", "CHF", "USD"));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void pairsInStoreAreCompactedTest() throws IOException {
+        Files.writeString(directory.resolve("rates.csv"),
+                "2024-07-14,EUR,USD,2.0\n2024-07-14,USD,EUR,0.5\n2024-07-14,CHF,USD,3.0\n");
+
+        Map<String, Double> rates = service.getExchangeRates("2024-07-14", "EUR", "USD");
+
+        assertEquals(Map.of("EUR", 2.0, "USD", 0.5), rates);
+        assertEquals(List.of("2024-07-14,USD,0.5"),
+                Files.readAllLines(directory.resolve("rates.csv")));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void rateFilesAreMigratedTest() throws IOException {
+        Files.createDirectories(directory.resolve("2024-07-14/CHF"));
+        Files.createDirectories(directory.resolve("2024-07-14/EUR"));
+        Files.writeString(directory.resolve("2024-07-14/CHF/EUR.txt"), "1.25\n");
+        Files.writeString(directory.resolve("2024-07-14/EUR/CHF.txt"), "0.8\n");
+
+        Map<String, Double> rates = service.getExchangeRates("2024-07-14", "CHF", "EUR");
+
+        assertEquals(Map.of("CHF", 1.25, "EUR", 0.8), rates);
+        assertFalse(Files.exists(directory.resolve("2024-07-14")));
+        assertEquals(List.of("2024-07-14,CHF,1.25"),
+                Files.readAllLines(directory.resolve("rates.csv")));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void invalidCurrencyTest() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getExchangeRates("2024-07-14", "EUR", "US,D"));
+        assertFalse(Files.exists(directory.resolve("rates.csv")));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void rateMatrixTest() throws IOException {
+        ExchangeRateMatrix matrix = service.getRateMatrix(List.of(
+                new ExchangeRateQuery("2024-07-15", "EUR", "USD"),
+                new ExchangeRateQuery("2024-07-14", "CHF", "USD"),
+                new ExchangeRateQuery("2024-07-15", "EUR", "USD")));
+
+        assertEquals(List.of("2024-07-14", "2024-07-15"), matrix.getDates());
+        assertEquals(List.of("CHF", "EUR", "USD"), matrix.getCurrencies());
+        assertEquals(1.0, matrix.getRate("2024-07-14", "EUR", "EUR"));
+        double eurToUsd = service.getExchangeRates("2024-07-15", "EUR", "USD").get("EUR");
+        double usdToChf = service.getExchangeRates("2024-07-14", "USD", "CHF").get("USD");
+        assertEquals(eurToUsd, matrix.getRate("2024-07-15", "EUR", "USD"));
+        assertEquals(usdToChf, matrix.getRate("2024-07-14", "USD", "CHF"));
+        assertEquals(matrix.getRate("2024-07-15", "CHF", "EUR")
+                        * matrix.getRate("2024-07-15", "EUR", "USD"),
+                matrix.getRate("2024-07-15", "CHF", "USD"), 1e-12);
+        // CHF and USD on both days
+        assertEquals(4, Files.readAllLines(directory.resolve("rates.csv")).size());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void rateMatrixTooLargeTest() {
+        List<ExchangeRateQuery> queries = new ArrayList<>();
+        for (int day = 0; day < 3000; day++) {
+            String date = LocalDate.of(2020, 1, 1).plusDays(day).toString();
+            queries.add(new ExchangeRateQuery(date, "EUR", "USD"));
+            queries.add(new ExchangeRateQuery(date, "CHF", "GBP"));
+            queries.add(new ExchangeRateQuery(date, "JPY", "SEK"));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> service.getRateMatrix(queries));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void fixtureProviderTest() throws IOException {
+        Path fixture = directory.resolve("fixture.csv");
+        Files.writeString(fixture, "# rates in EUR\n2024-07-14,USD,0.5\n\n2024-07-14,CHF,2.0\n");
+        service = new ExchangeRateService(new FixtureExchangeRateProvider(fixture));
+        service.setDirectory(directory.resolve("store").toString());
+
+        assertEquals(Map.of("CHF", 4.0, "USD", 0.25),
+                service.getExchangeRates("2024-07-14", "CHF", "USD"));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.getExchangeRates("2024-07-15", "CHF", "USD"));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void concurrentRequestsAreCoalescedTest() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        service = new ExchangeRateService((date, currency) -> {
+            calls.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return 2.0;
+        });
+        service.setDirectory(directory.toString());
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Map<String, Double>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(threads.submit(
+                        () -> service.getExchangeRates("2024-07-14", "USD", "EUR")));
+            }
+            while (calls.get() == 0) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<Map<String, Double>> result : results) {
+                assertEquals(2.0, result.get().get("USD"));
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(1, calls.get());
+        assertEquals(List.of("2024-07-14,USD,2.0"),
+                Files.readAllLines(directory.resolve("rates.csv")));
+    }
+}
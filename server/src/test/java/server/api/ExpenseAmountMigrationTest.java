@@ -0,0 +1,61 @@
+package server.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import server.database.ExpenseAmountMigration;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExpenseAmountMigrationTest {
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbc;
+
+    /**
+     * Setup method, a database with expenses the way older versions stored them
+     */
+    @BeforeEach
+    public void setup() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migration" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("create table expense (expense_id bigint primary key, "
+                + "amount double precision not null, currency varchar(255))");
+        jdbc.update("insert into expense values (1, 12.5, 'USD'), (2, 10.0, null)");
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void amountsAreMovedToCentsTest() throws Exception {
+        new ExpenseAmountMigration(dataSource).afterPropertiesSet();
+
+        List<Map<String, Object>> rows = jdbc.queryForList(
+                "select amount_cents, currency from expense order by expense_id");
+        assertEquals(1250L, ((Number) rows.get(0).get("AMOUNT_CENTS")).longValue());
+        assertEquals("USD", rows.get(0).get("CURRENCY"));
+        assertEquals(1000L, ((Number) rows.get(1).get("AMOUNT_CENTS")).longValue());
+        assertEquals("EUR", rows.get(1).get("CURRENCY"));
+        assertEquals(0, jdbc.queryForObject("select count(*) from information_schema.columns "
+                + "where table_name = 'EXPENSE' and column_name = 'AMOUNT'", Integer.class));
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void migratedSchemaIsLeftAloneTest() throws Exception {
+        new ExpenseAmountMigration(dataSource).afterPropertiesSet();
+        jdbc.update("update expense set amount_cents = 5 where expense_id = 1");
+
+        new ExpenseAmountMigration(dataSource).afterPropertiesSet();
+
+        assertEquals(5L, jdbc.queryForObject(
+                "select amount_cents from expense where expense_id = 1", Long.class));
+    }
+}
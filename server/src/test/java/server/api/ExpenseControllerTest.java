@@ -5,12 +5,14 @@ import com.google.inject.Guice;
 import com.google.inject.Inject;
 import com.google.inject.Injector;
 import commons.Expense;
+import commons.Money;
 import commons.Participant;
 import commons.Tag;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import server.database.EventRepository;
 import server.database.ExpenseRepository;
 import server.services.ExpenseService;
 
@@ -113,7 +115,7 @@ public class ExpenseControllerTest {
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Updated expense", response.getBody().getExpenseName());
-        assertEquals(200, response.getBody().getAmount());
+        assertEquals(Money.of(200, "EUR"), response.getBody().getAmount());
     }
 
     /**
@@ -123,6 +125,7 @@ public class ExpenseControllerTest {
         @Override
         protected void configure() {
             bind(ExpenseRepository.class).to(TestExpenseRepository.class);
+            bind(EventRepository.class).to(TestEventRepository.class);
             bind(ExpenseService.class);
             bind(ExpenseController.class);
         }
@@ -8,19 +8,31 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import server.services.EventChangePublisher;
 import server.services.EventService;
+import server.services.EventSubscriptionRegistry;
 import commons.Event;
+import commons.EventChange;
 
 import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class JsonBackupControllerTest {
 
     @Mock
     private EventService eventService;
+    @Mock
+    private SimpMessagingTemplate msgs;
+    @Mock
+    private EventChangePublisher changes;
+    @Mock
+    private EventSubscriptionRegistry subscriptions;
 
     private JsonBackupController jsonBackupController;
 
@@ -30,7 +42,8 @@ public class JsonBackupControllerTest {
     @BeforeEach
     public void setUp() {
         MockitoAnnotations.openMocks(this);
-        jsonBackupController = new JsonBackupController(eventService);
+        jsonBackupController = new JsonBackupController(eventService, msgs, changes,
+                subscriptions);
     }
 
     /**
@@ -69,4 +82,36 @@ public class JsonBackupControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(expectedResponse, new String(response.getBody()));
     }
-}
\ No newline at end of file
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testImportBackup() {
+        Event added = new Event("Added");
+        Event overwritten = new Event("Overwritten");
+        List<EventChange> made = List.of(EventChange.titleChanged(2, "Overwritten"));
+        when(eventService.importEvents(List.of(added, overwritten))).thenReturn(
+                new EventService.ImportResult(List.of(added, overwritten), List.of(added),
+                        List.of(overwritten), made));
+
+        ResponseEntity<List<Event>> response =
+                jsonBackupController.importBackup(List.of(added, overwritten));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(added, overwritten), response.getBody());
+        verify(msgs).convertAndSend("/topic/events/create", added);
+        verify(changes).publish(made);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testImportBackupWithoutTitle() {
+        when(eventService.importEvents(List.of())).thenThrow(new IllegalArgumentException());
+
+        assertEquals(HttpStatus.BAD_REQUEST,
+                jsonBackupController.importBackup(List.of()).getStatusCode());
+    }
+}
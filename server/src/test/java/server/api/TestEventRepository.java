@@ -1,6 +1,8 @@
 package server.api;
 
 import commons.Event;
+import commons.Expense;
+import commons.EventSummary;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -8,8 +10,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.query.FluentQuery;
 import server.database.EventRepository;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class TestEventRepository implements EventRepository {
 
@@ -32,11 +36,15 @@ public class TestEventRepository implements EventRepository {
     }
 
     /**
-     * Implementation required by the interface
+     * Returns the events with the provided ids
      */
     @Override
     public List<Event> findAllById(Iterable<Long> longs) {
-        return null;
+        List<Event> found = new ArrayList<>();
+        for (Long id : longs) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
     }
     /**
      * Implementation required by the interface
@@ -125,11 +133,13 @@ public class TestEventRepository implements EventRepository {
 
     }
     /**
-     * Implementation required by the interface
+     * Saves the event and raises its version, like writing a changed event does
      */
     @Override
     public <S extends Event> S saveAndFlush(S entity) {
-        return null;
+        save(entity);
+        entity.setVersion(entity.getVersion() + 1);
+        return entity;
     }
 
     /**
@@ -270,6 +280,205 @@ public class TestEventRepository implements EventRepository {
     public Event findByInviteCode(String inviteCode) {
         return null;
     }
-}
 
+    /**
+     * Returns the events the participant takes part in
+     */
+    @Override
+    public List<Event> findByParticipantListUserId(long userId) {
+        return events.stream()
+                .filter(e -> e.getParticipants().stream().anyMatch(p -> p.getUserId() == userId))
+                .toList();
+    }
+
+    /**
+     * Returns the ids of the events the participant takes part in
+     */
+    @Override
+    public List<Long> findIdsByParticipant(long userId) {
+        return findByParticipantListUserId(userId).stream().map(Event::getEventId).toList();
+    }
+
+    /**
+     * Returns the version of the event with the provided id
+     */
+    @Override
+    public Long findVersion(long id) {
+        return findById(id).map(Event::getVersion).orElse(null);
+    }
+
+    /**
+     * Changes the title of the event with the provided id
+     */
+    @Override
+    public int updateTitle(long id, String title, LocalDateTime lastActivity, Long version) {
+        Optional<Event> event = findById(id)
+                .filter(e -> version == null || e.getVersion() == version);
+        event.ifPresent(e -> {
+            e.setTitle(title);
+            e.setLastActivity(lastActivity);
+            e.setVersion(e.getVersion() + 1);
+        });
+        return event.isPresent() ? 1 : 0;
+    }
+
+    /**
+     * Returns the summaries of all events
+     */
+    @Override
+    public List<EventSummary> findSummaries() {
+        return events.stream().map(EventSummary::of).toList();
+    }
+
+    /**
+     * Returns the summary of the event with the provided id
+     */
+    @Override
+    public EventSummary findSummary(long id) {
+        return findById(id).map(EventSummary::of).orElse(null);
+    }
+
+    /**
+     * Returns the events ordered by creation date
+     */
+    @Override
+    public List<Event> findAllByOrderByCreationDateAscEventIdAsc() {
+        return ordered(Event::getCreationDate);
+    }
+
+    /**
+     * Returns the events ordered by last activity
+     */
+    @Override
+    public List<Event> findAllByOrderByLastActivityAscEventIdAsc() {
+        return ordered(Event::getLastActivity);
+    }
+
+    /**
+     * Returns the events ordered by title
+     */
+    @Override
+    public List<Event> findAllByOrderByTitleAscEventIdAsc() {
+        return ordered(Event::getTitle);
+    }
+
+    /**
+     * Returns the first page of summaries ordered by creation date
+     */
+    @Override
+    public List<EventSummary> findSummariesByCreationDate(Pageable page) {
+        return page(Event::getCreationDate, null, 0, page);
+    }
+
+    /**
+     * Returns the page of summaries ordered by creation date after an event
+     */
+    @Override
+    public List<EventSummary> findSummariesByCreationDateAfter(LocalDateTime creationDate,
+                                                               long id, Pageable page) {
+        return page(Event::getCreationDate, creationDate, id, page);
+    }
 
+    /**
+     * Returns the first page of summaries ordered by last activity
+     */
+    @Override
+    public List<EventSummary> findSummariesByLastActivity(Pageable page) {
+        return page(Event::getLastActivity, null, 0, page);
+    }
+
+    /**
+     * Returns the page of summaries ordered by last activity after an event
+     */
+    @Override
+    public List<EventSummary> findSummariesByLastActivityAfter(LocalDateTime lastActivity,
+                                                               long id, Pageable page) {
+        return page(Event::getLastActivity, lastActivity, id, page);
+    }
+
+    /**
+     * Returns the first page of summaries ordered by title
+     */
+    @Override
+    public List<EventSummary> findSummariesByTitle(Pageable page) {
+        return page(Event::getTitle, null, 0, page);
+    }
+
+    /**
+     * Returns the page of summaries ordered by title after an event
+     */
+    @Override
+    public List<EventSummary> findSummariesByTitleAfter(String title, long id, Pageable page) {
+        return page(Event::getTitle, title, id, page);
+    }
+
+    /**
+     * Orders the events on a field and then on their id
+     */
+    private <T extends Comparable<T>> List<Event> ordered(Function<Event, T> key) {
+        return events.stream()
+                .sorted(Comparator.comparing(key).thenComparingLong(Event::getEventId))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the summaries of the events ordered after the given field value and id
+     */
+    private <T extends Comparable<T>> List<EventSummary> page(Function<Event, T> key, T after,
+                                                              long id, Pageable page) {
+        return ordered(key).stream()
+                .filter(e -> after == null || key.apply(e).compareTo(after) > 0
+                        || (key.apply(e).equals(after) && e.getEventId() > id))
+                .limit(page.getPageSize())
+                .map(EventSummary::of)
+                .toList();
+    }
+
+    /**
+     * Returns the events with the provided ids
+     */
+    @Override
+    public List<Event> findWithParticipantsByEventIdIn(Collection<Long> ids) {
+        return findAllById(ids);
+    }
+
+    /**
+     * Returns the events with the provided ids
+     */
+    @Override
+    public List<Event> findWithExpensesByEventIdIn(Collection<Long> ids) {
+        return findAllById(ids);
+    }
+
+    /**
+     * Returns all the events
+     */
+    @Override
+    public List<Event> findAllWithParticipants() {
+        return findAll();
+    }
+
+    /**
+     * Returns all the events
+     */
+    @Override
+    public List<Event> findAllWithExpenses() {
+        return findAll();
+    }
+
+    /**
+     * Returns the expenses of the events, their beneficiaries are already there
+     */
+    @Override
+    public List<Expense> fetchBeneficiariesByEventIdIn(Collection<Long> ids) {
+        return findAllById(ids).stream().flatMap(e -> e.getExpenses().stream()).toList();
+    }
+
+    /**
+     * Returns the expenses of all events, their beneficiaries are already there
+     */
+    @Override
+    public List<Expense> fetchAllBeneficiaries() {
+        return events.stream().flatMap(e -> e.getExpenses().stream()).toList();
+    }
+}
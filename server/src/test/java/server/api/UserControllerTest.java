@@ -8,10 +8,12 @@ import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import commons.Participant;
+import server.services.EventChangePublisher;
 import server.services.UserService;
 
 public class UserControllerTest {
@@ -25,7 +27,7 @@ public class UserControllerTest {
     @BeforeEach
     public void setUp() {
         userService = mock(UserService.class);
-        userController = new UserController(userService);
+        userController = new UserController(userService, mock(EventChangePublisher.class));
     }
 
     /**
@@ -82,13 +84,52 @@ public class UserControllerTest {
         Participant user = new Participant("user1", "mm@gmail.com", "03664748", "ADD");
 
         when(userService.isValidEmail(anyString())).thenReturn(true);
-        when(userService.updateUser(userId, user)).thenReturn(user);
+        when(userService.updateUser(userId, user))
+                .thenReturn(new UserService.Update(user, List.of()));
         ResponseEntity<Participant> responseEntity = userController.updateUser(userId, user);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         assertEquals(user, responseEntity.getBody());
     }
 
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testUpdateUserConflict() {
+        Long userId = 1L;
+        Participant user = new Participant("user1", "mm@gmail.com", "03664748", "ADD");
+        Participant current = new Participant("user2", "mm@gmail.com", "03664748", "ADD");
+        current.setVersion(3);
+
+        when(userService.isValidEmail(anyString())).thenReturn(true);
+        when(userService.updateUser(userId, user))
+                .thenThrow(new OptimisticLockingFailureException("changed"));
+        when(userService.getUserById(userId)).thenReturn(current);
+        ResponseEntity<Participant> responseEntity = userController.updateUser(userId, user);
+
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        assertEquals(current, responseEntity.getBody());
+        assertEquals("\"3\"", responseEntity.getHeaders().getETag());
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testUpdateUserDeletedConcurrently() {
+        Long userId = 1L;
+        Participant user = new Participant("user1", "mm@gmail.com", "03664748", "ADD");
+
+        when(userService.isValidEmail(anyString())).thenReturn(true);
+        when(userService.updateUser(userId, user))
+                .thenThrow(new OptimisticLockingFailureException("deleted"));
+        when(userService.getUserById(userId)).thenReturn(null);
+        ResponseEntity<Participant> responseEntity = userController.updateUser(userId, user);
+
+        assertEquals(HttpStatus.NOT_FOUND, responseEntity.getStatusCode());
+    }
+
     /**
      * test for deleting a user
      */
@@ -4,8 +4,13 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import server.services.BalanceLedgerService;
 import server.services.UserService;
+import commons.Event;
+import commons.EventChange;
 import commons.Participant;
+import server.database.EventRepository;
 import server.database.UserRepository;
 
 import java.util.Arrays;
@@ -15,12 +20,17 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 public class UserServiceTest {
 
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private EventRepository eventRepository;
+    @Mock
+    private BalanceLedgerService ledger;
 
     private UserService userService;
 
@@ -30,7 +40,7 @@ public class UserServiceTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        userService = new UserService(userRepository);
+        userService = new UserService(userRepository, eventRepository, ledger);
     }
 
     /**
@@ -83,11 +93,43 @@ public class UserServiceTest {
     public void testUpdateUser() {
         Participant user = new Participant();
         when(userRepository.save(any(Participant.class))).thenReturn(user);
-
-        Participant result = userService.updateUser(1L, new Participant());
-
-        assertEquals(user, result);
+        Event trip = new Event("trip");
+        trip.setEventId(3);
+        Event dinner = new Event("dinner");
+        dinner.setEventId(4);
+        when(eventRepository.findByParticipantListUserId(1L)).thenReturn(List.of(trip, dinner));
+        when(eventRepository.saveAndFlush(any(Event.class))).thenAnswer(invocation -> {
+            Event event = invocation.getArgument(0);
+            event.setVersion(event.getVersion() + 1);
+            return event;
+        });
+
+        UserService.Update result = userService.updateUser(1L, new Participant());
+
+        assertEquals(user, result.user());
+        EventChange change = EventChange.participantChanged(3, user, false);
+        change.setVersion(1);
+        assertEquals(change, result.changes().get(0));
+        assertEquals(2, result.changes().size());
         verify(userRepository, times(1)).save(any(Participant.class));
+        verify(ledger).removeEvent(3L);
+        verify(ledger).removeEvent(4L);
+    }
+
+    /**
+     * Checkstyle for pipeline
+     */
+    @Test
+    public void testUpdateUserConflict() {
+        Participant current = new Participant();
+        current.setVersion(2);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        Participant stale = new Participant();
+        stale.setVersion(1);
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> userService.updateUser(1L, stale));
+        verify(userRepository, never()).save(any(Participant.class));
     }
 
     /**
@@ -95,9 +137,12 @@ public class UserServiceTest {
      */
     @Test
     public void testDeleteUser() {
+        when(eventRepository.findIdsByParticipant(1L)).thenReturn(List.of(3L));
+
         userService.deleteUser(1L);
 
         verify(userRepository, times(1)).deleteById(1L);
+        verify(ledger).removeEvent(3L);
     }
 
     /**